@@ -0,0 +1,47 @@
+package io.github.hhromic.uimr.bench;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs the toolbox benchmarks with the GC profiler enabled.
+ *
+ * <p>All the usual JMH command-line options are accepted, for example a regular expression to
+ * select benchmarks or {@code -t 4} to change the number of threads. The GC profiler is always
+ * added, so the allocation rate per operation ({@code gc.alloc.rate.norm}) is reported for every
+ * benchmark.</p>
+ *
+ * <p><strong>Example usage:</strong></p>
+ *
+ * <pre><code>
+ * mvn package -Pbench
+ * java -jar toolbox-bench/target/toolbox-bench-4.0-SNAPSHOT-shaded.jar CountingMatrix
+ * </code></pre>
+ *
+ * @author Hugo Hromic
+ * @since 4.0
+ */
+public class BenchmarkRunner {
+    private BenchmarkRunner() {
+    }
+
+    /**
+     * Entry point of the benchmarks.
+     *
+     * @param args the JMH command-line options
+     * @throws CommandLineOptionException if the command-line options are invalid
+     * @throws RunnerException if a benchmark fails
+     */
+    public static void main(final String[] args) throws CommandLineOptionException, RunnerException {
+        final Options options = new OptionsBuilder()
+            .parent(new CommandLineOptions(args))
+            .addProfiler(GCProfiler.class)
+            .build();
+        new Runner(options).run();
+    }
+}
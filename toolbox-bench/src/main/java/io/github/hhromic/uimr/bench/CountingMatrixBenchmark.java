@@ -0,0 +1,110 @@
+package io.github.hhromic.uimr.bench;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import io.github.hhromic.uimr.stats.CompactCountingMatrix;
+import io.github.hhromic.uimr.stats.ConcurrentCountingMatrix;
+import io.github.hhromic.uimr.stats.CountingMatrix;
+
+/**
+ * Benchmarks {@link CountingMatrix#increment(Object, Object, long)} implementations with Zipfian
+ * streams of row and column keys, for example users and the hashtags they use.
+ *
+ * @author Hugo Hromic
+ * @since 4.0
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations=5, time=1)
+@Measurement(iterations=5, time=1)
+@Fork(1)
+public class CountingMatrixBenchmark {
+    /** Number of increments per benchmark invocation. */
+    public static final int BATCH = 1 << 16;
+
+    /** Number of distinct row keys. */
+    public static final int ROWS = 1000;
+
+    /** Per-thread streams of keys, each thread gets different streams. */
+    @State(Scope.Thread)
+    public static class Keys {
+        private static final AtomicLong SEEDS = new AtomicLong();
+
+        @Param({"10000"})
+        public int numColumns;
+
+        String[] rows;
+        String[] columns;
+
+        @Setup
+        public void setup() {
+            final long seed = SEEDS.incrementAndGet();
+            rows = ZipfianKeys.keys(BATCH, ROWS, 1.0, seed);
+            columns = ZipfianKeys.keys(BATCH, numColumns, 1.0, -seed);
+        }
+    }
+
+    /** Matrix used by a single thread. */
+    @State(Scope.Thread)
+    public static class ThreadMatrix {
+        @Param({"default", "compact", "concurrent"})
+        public String implementation;
+
+        CountingMatrix<String,String> matrix;
+
+        @Setup
+        public void setup() {
+            if ("compact".equals(implementation))
+                matrix = new CompactCountingMatrix<String,String>();
+            else if ("concurrent".equals(implementation))
+                matrix = new ConcurrentCountingMatrix<String,String>();
+            else
+                matrix = new CountingMatrix<String,String>();
+        }
+    }
+
+    /** Matrix shared by all threads. */
+    @State(Scope.Benchmark)
+    public static class SharedMatrix {
+        ConcurrentCountingMatrix<String,String> matrix;
+
+        @Setup
+        public void setup() {
+            matrix = new ConcurrentCountingMatrix<String,String>();
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public CountingMatrix<String,String> increment(final Keys keys, final ThreadMatrix state) {
+        final CountingMatrix<String,String> matrix = state.matrix;
+        for (int i=0; i<BATCH; i++)
+            matrix.increment(keys.rows[i], keys.columns[i], 1L);
+        return matrix;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    @Threads(4)
+    public CountingMatrix<String,String> sharedIncrement(final Keys keys, final SharedMatrix state) {
+        final CountingMatrix<String,String> matrix = state.matrix;
+        for (int i=0; i<BATCH; i++)
+            matrix.increment(keys.rows[i], keys.columns[i], 1L);
+        return matrix;
+    }
+}
@@ -0,0 +1,55 @@
+package io.github.hhromic.uimr.bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import io.github.hhromic.uimr.stats.Distribution;
+
+/**
+ * Benchmarks {@link Distribution#increment(Object, long)} with a Zipfian stream of keys.
+ *
+ * @author Hugo Hromic
+ * @since 4.0
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations=5, time=1)
+@Measurement(iterations=5, time=1)
+@Fork(1)
+@State(Scope.Thread)
+public class DistributionBenchmark {
+    /** Number of increments per benchmark invocation. */
+    public static final int BATCH = 1 << 16;
+
+    @Param({"1000", "100000"})
+    public int numKeys;
+
+    private String[] keys;
+    private Distribution<String> distribution;
+
+    @Setup
+    public void setup() {
+        keys = ZipfianKeys.keys(BATCH, numKeys, 1.0, 42L);
+        distribution = new Distribution<String>();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public Distribution<String> increment() {
+        for (final String key : keys)
+            distribution.increment(key, 1L);
+        return distribution;
+    }
+}
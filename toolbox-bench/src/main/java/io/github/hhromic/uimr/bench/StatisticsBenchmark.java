@@ -0,0 +1,103 @@
+package io.github.hhromic.uimr.bench;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import io.github.hhromic.uimr.stats.ConcurrentLongStatistics;
+import io.github.hhromic.uimr.stats.LongStatistics;
+
+/**
+ * Benchmarks {@link LongStatistics} one value at a time and in bulk, and
+ * {@link ConcurrentLongStatistics} shared by several threads, with a log-normal stream of
+ * latency-like data values.
+ *
+ * @author Hugo Hromic
+ * @since 4.0
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations=5, time=1)
+@Measurement(iterations=5, time=1)
+@Fork(1)
+public class StatisticsBenchmark {
+    /** Number of data values per benchmark invocation. */
+    public static final int BATCH = 1 << 20;
+
+    /** Stream of data values, shared read-only by all threads. */
+    @State(Scope.Benchmark)
+    public static class Values {
+        long[] values;
+
+        @Setup
+        public void setup() {
+            final Random random = new Random(42L);
+            values = new long[BATCH];
+            for (int i=0; i<BATCH; i++)
+                values[i] = (long)Math.exp(8.0 + random.nextGaussian());
+        }
+    }
+
+    /** Statistics shared by all threads. */
+    @State(Scope.Benchmark)
+    public static class SharedStatistics {
+        ConcurrentLongStatistics statistics;
+
+        @Setup
+        public void setup() {
+            statistics = new ConcurrentLongStatistics();
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public LongStatistics add(final Values state) {
+        final LongStatistics statistics = new LongStatistics();
+        for (final long value : state.values)
+            statistics.add(value);
+        return statistics;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public LongStatistics addBoxed(final Values state) {
+        final LongStatistics statistics = new LongStatistics();
+        for (final long value : state.values)
+            statistics.add(Long.valueOf(value));
+        return statistics;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public LongStatistics addAll(final Values state) {
+        return new LongStatistics().addAll(state.values, 0, BATCH);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public LongStatistics parallelAddAll(final Values state) {
+        return new LongStatistics().parallelAddAll(state.values, 0, BATCH);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    @Threads(4)
+    public ConcurrentLongStatistics sharedAdd(final Values state, final SharedStatistics shared) {
+        final ConcurrentLongStatistics statistics = shared.statistics;
+        for (final long value : state.values)
+            statistics.add(value);
+        return statistics;
+    }
+}
@@ -0,0 +1,124 @@
+package io.github.hhromic.uimr.bench;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import io.github.hhromic.uimr.stats.ConcurrentTopNTable;
+import io.github.hhromic.uimr.stats.LongTopNTable;
+import io.github.hhromic.uimr.stats.TopNTable;
+
+/**
+ * Benchmarks top-n data table updates with a Zipfian stream of keys and growing values, like a
+ * table of the most popular hashtags updated with their current counts.
+ *
+ * @author Hugo Hromic
+ * @since 4.0
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations=5, time=1)
+@Measurement(iterations=5, time=1)
+@Fork(1)
+public class TopNTableBenchmark {
+    /** Number of updates per benchmark invocation. */
+    public static final int BATCH = 1 << 16;
+
+    /** Per-thread streams of keys and values, each thread gets different streams. */
+    @State(Scope.Thread)
+    public static class Updates {
+        private static final AtomicLong SEEDS = new AtomicLong();
+
+        @Param({"100000"})
+        public int numKeys;
+
+        String[] keys;
+        long[] values;
+        Long[] boxedValues;
+
+        @Setup
+        public void setup() {
+            final long seed = SEEDS.incrementAndGet();
+            keys = ZipfianKeys.keys(BATCH, numKeys, 1.0, seed);
+            values = new long[BATCH];
+            boxedValues = new Long[BATCH];
+            final Random random = new Random(seed);
+            for (int i=0; i<BATCH; i++) {
+                values[i] = i + random.nextInt(1000);
+                boxedValues[i] = values[i];
+            }
+        }
+    }
+
+    /** Tables used by a single thread. */
+    @State(Scope.Thread)
+    public static class ThreadTables {
+        @Param({"10", "1000"})
+        public int n;
+
+        TopNTable<String,Long> table;
+        LongTopNTable<String> longTable;
+
+        @Setup
+        public void setup() {
+            table = new TopNTable<String,Long>(n);
+            longTable = new LongTopNTable<String>(n);
+        }
+    }
+
+    /** Table shared by all threads. */
+    @State(Scope.Benchmark)
+    public static class SharedTable {
+        @Param({"10", "1000"})
+        public int n;
+
+        ConcurrentTopNTable<String,Long> table;
+
+        @Setup
+        public void setup() {
+            table = new ConcurrentTopNTable<String,Long>(n);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public TopNTable<String,Long> update(final Updates updates, final ThreadTables state) {
+        final TopNTable<String,Long> table = state.table;
+        for (int i=0; i<BATCH; i++)
+            table.update(updates.keys[i], updates.boxedValues[i]);
+        return table;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public LongTopNTable<String> updateLong(final Updates updates, final ThreadTables state) {
+        final LongTopNTable<String> table = state.longTable;
+        for (int i=0; i<BATCH; i++)
+            table.update(updates.keys[i], updates.values[i]);
+        return table;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    @Threads(4)
+    public TopNTable<String,Long> sharedUpdate(final Updates updates, final SharedTable state) {
+        final TopNTable<String,Long> table = state.table;
+        for (int i=0; i<BATCH; i++)
+            table.update(updates.keys[i], updates.boxedValues[i]);
+        return table;
+    }
+}
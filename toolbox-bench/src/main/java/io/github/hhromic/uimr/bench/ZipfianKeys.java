@@ -0,0 +1,64 @@
+package io.github.hhromic.uimr.bench;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * This class generates streams of keys with a Zipfian frequency distribution.
+ *
+ * <p>Real-world keys such as hashtags, languages or user mentions are heavily skewed: a few keys
+ * are very frequent and most keys are rare. Streams are generated once, from a fixed seed, so the
+ * benchmarks only measure the structures under test.</p>
+ *
+ * @author Hugo Hromic
+ * @since 4.0
+ */
+public class ZipfianKeys {
+    private ZipfianKeys() {
+    }
+
+    /**
+     * Generates a stream of key ranks.
+     *
+     * @param length the length of the stream
+     * @param numKeys the number of distinct keys
+     * @param exponent the exponent of the Zipfian distribution, 1.0 is typical for natural data
+     * @param seed the random seed
+     * @return the stream of key ranks, from 0 (the most frequent) to {@code numKeys - 1}
+     */
+    public static int[] ranks(final int length, final int numKeys, final double exponent, final long seed) {
+        final double[] cumulative = new double[numKeys];
+        double sum = 0.0;
+        for (int rank=0; rank<numKeys; rank++) {
+            sum += 1.0 / Math.pow(rank + 1, exponent);
+            cumulative[rank] = sum;
+        }
+        final Random random = new Random(seed);
+        final int[] ranks = new int[length];
+        for (int i=0; i<length; i++) {
+            final int rank = Arrays.binarySearch(cumulative, random.nextDouble() * sum);
+            ranks[i] = Math.min(numKeys - 1, rank >= 0 ? rank : -rank - 1);
+        }
+        return ranks;
+    }
+
+    /**
+     * Generates a stream of string keys.
+     *
+     * @param length the length of the stream
+     * @param numKeys the number of distinct keys
+     * @param exponent the exponent of the Zipfian distribution, 1.0 is typical for natural data
+     * @param seed the random seed
+     * @return the stream of keys, sharing one {@code String} instance per distinct key
+     */
+    public static String[] keys(final int length, final int numKeys, final double exponent, final long seed) {
+        final String[] names = new String[numKeys];
+        for (int rank=0; rank<numKeys; rank++)
+            names[rank] = "#key" + rank;
+        final int[] ranks = ranks(length, numKeys, exponent, seed);
+        final String[] keys = new String[length];
+        for (int i=0; i<length; i++)
+            keys[i] = names[ranks[i]];
+        return keys;
+    }
+}
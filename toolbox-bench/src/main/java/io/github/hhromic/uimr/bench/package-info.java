@@ -0,0 +1,12 @@
+/**
+ * UIMR Java Toolbox - Benchmarks package.
+ *
+ * <p>This package contains JMH benchmarks for the hot paths of the toolbox
+ * statistics classes. Benchmarks are run with the GC profiler by default, so
+ * allocation rates are reported next to the throughput.</p>
+ *
+ * @see io.github.hhromic.uimr.stats
+ * @author Hugo Hromic
+ * @since 4.0
+ */
+package io.github.hhromic.uimr.bench;
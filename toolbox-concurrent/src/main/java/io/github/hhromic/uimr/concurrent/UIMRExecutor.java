@@ -2,12 +2,12 @@ package io.github.hhromic.uimr.concurrent;
 
 import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.TimeUnit;
 
 import java.util.List;
-import java.util.ArrayList;
-import java.util.Map;
-import java.util.HashMap;
+
+import java.lang.reflect.InvocationTargetException;
 
 /**
  * A fixed thread pool executor designed to handle {@code UIMRRunnable} instances.
@@ -15,6 +15,13 @@ import java.util.HashMap;
  * <p>Use this executor to run your UIMR Runnables. This class allows to properly run UIMR Runnables,
  * which are named. Also, this class offers an easy way to get running UIMR Runnables by name prefix searching.</p>
  *
+ * <p>Runnables are registered by name in a concurrent sorted map, so registering and forgetting them is safe from
+ * any thread, and a name prefix search costs {@code O(log n + k)} for {@code k} matching runnables.</p>
+ *
+ * <p>For I/O-bound runnables that spend most of their time blocked, {@link #newVirtualThreadExecutor(int)} creates an
+ * executor that runs the runnables on virtual threads (Java 21 or later), allowing tens of thousands of them to run
+ * concurrently.</p>
+ *
  * <p><strong>Example usage:</strong></p>
  *
  * <pre><code>
@@ -55,16 +62,16 @@ import java.util.HashMap;
  * @see ThreadPoolExecutor
  */
 public class UIMRExecutor extends ThreadPoolExecutor {
-    /** Internal name-runnable mapping for this executor. */
-    private final Map<String,UIMRRunnable> runnables = new HashMap<String,UIMRRunnable>();
+    /** Internal name-runnable registry for this executor. */
+    private final UIMRRunnableRegistry runnables = new UIMRRunnableRegistry();
 
     /** Internal runnable handler for this executor. */
     private class HandlerRunnable implements Runnable {
         private final String name;
-        private final Runnable runnable;
+        private final UIMRRunnable runnable;
         private final boolean keepAfterExecute;
 
-        HandlerRunnable(final String name, final Runnable runnable, final boolean keepAfterExecute) {
+        HandlerRunnable(final String name, final UIMRRunnable runnable, final boolean keepAfterExecute) {
             this.name = name;
             this.runnable = runnable;
             this.keepAfterExecute = keepAfterExecute;
@@ -74,6 +81,10 @@ public class UIMRExecutor extends ThreadPoolExecutor {
             return name;
         }
 
+        public UIMRRunnable getRunnable() {
+            return runnable;
+        }
+
         public boolean getKeepAfterExecute() {
             return keepAfterExecute;
         }
@@ -103,10 +114,62 @@ public class UIMRExecutor extends ThreadPoolExecutor {
         super(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<Runnable>());
     }
 
+    /**
+     * Creates a new {@code UIMRExecutor} with specified thread pool size and thread factory.
+     *
+     * <p>Internally, this executor uses a {@code LinkedBlockingQueue} for handling the runnables.</p>
+     *
+     * @param poolSize the desired allocated thread pool size
+     * @param threadFactory the factory to use when the executor creates a new thread
+     * @throws NullPointerException if the thread factory is null
+     * @see ThreadPoolExecutor
+     * @see LinkedBlockingQueue
+     * @since 4.0
+     */
+    public UIMRExecutor(final int poolSize, final ThreadFactory threadFactory) {
+        super(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<Runnable>(), threadFactory);
+    }
+
+    /**
+     * Creates a new {@code UIMRExecutor} that runs its runnables on virtual threads.
+     *
+     * <p>At most {@code maxConcurrency} runnables run at the same time, each on a virtual thread, and the rest
+     * wait in the queue. Idle virtual threads are not kept around. This method requires a Java 21 or later
+     * runtime, the virtual thread factory is looked up reflectively so this class still runs on older ones.</p>
+     *
+     * @param maxConcurrency the maximum number of runnables to run concurrently
+     * @return the new executor
+     * @throws IllegalArgumentException if the maximum concurrency is less than one
+     * @throws UnsupportedOperationException if the runtime does not support virtual threads
+     * @since 4.0
+     */
+    public static UIMRExecutor newVirtualThreadExecutor(final int maxConcurrency) {
+        if (maxConcurrency < 1)
+            throw new IllegalArgumentException("maxConcurrency: " + maxConcurrency);
+        final UIMRExecutor executor = new UIMRExecutor(maxConcurrency, getVirtualThreadFactory());
+        executor.setKeepAliveTime(1L, TimeUnit.SECONDS);
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
+    /** Gets the factory of virtual threads of the runtime, equivalent to {@code Thread.ofVirtual().factory()}. */
+    private static ThreadFactory getVirtualThreadFactory() {
+        try {
+            final Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+            return (ThreadFactory)Class.forName("java.lang.Thread$Builder").getMethod("factory").invoke(builder);
+        } catch (NoSuchMethodException | ClassNotFoundException | IllegalAccessException e) {
+            throw new UnsupportedOperationException("virtual threads require Java 21 or later", e);
+        } catch (InvocationTargetException e) {
+            throw new UnsupportedOperationException("virtual threads are not available", e.getCause());
+        }
+    }
+
     /**
      * {@inheritDoc}
      *
-     * <p>After a runnable terminates, remove it from the internal {@code UIMRRunnable} map (if applicable).</p>
+     * <p>After a runnable terminates, remove it from the internal {@code UIMRRunnable} map (if applicable).
+     * The name is only forgotten if it is still mapped to the terminated runnable, so a newer runnable
+     * registered with the same name is kept.</p>
      */
     @Override
     protected void afterExecute(final Runnable runnable, final Throwable throwable) {
@@ -115,7 +178,7 @@ public class UIMRExecutor extends ThreadPoolExecutor {
 
         final HandlerRunnable handlerRunnable = (HandlerRunnable)runnable;
         if (!handlerRunnable.getKeepAfterExecute())
-            runnables.remove(handlerRunnable.getName());
+            runnables.unregister(handlerRunnable.getRunnable());
     }
 
     /**
@@ -129,7 +192,7 @@ public class UIMRExecutor extends ThreadPoolExecutor {
      */
     public void execute(final UIMRRunnable runnable, final boolean keepAfterExecute) {
         final String name = runnable.getName();
-        runnables.put(name, runnable);
+        runnables.register(runnable);
         super.execute(new HandlerRunnable(name, runnable, keepAfterExecute));
     }
 
@@ -183,16 +246,14 @@ public class UIMRExecutor extends ThreadPoolExecutor {
     /**
      * Gets {@code UIMRRunnable} objects whose name matches the given prefix from this executor's pool.
      *
+     * <p>The returned runnables are sorted by name.</p>
+     *
      * @param prefix the prefix to use for name matching
      * @return a list of {@code UIMRRunnable} objects matching the name prefix
      * @see UIMRRunnable
      */
     public List<UIMRRunnable> getRunnables(final String prefix) {
-        final List<UIMRRunnable> results = new ArrayList<UIMRRunnable>();
-        for (final Map.Entry<String,UIMRRunnable> entry : runnables.entrySet())
-            if (entry.getKey().startsWith(prefix))
-                results.add(entry.getValue());
-        return results;
+        return runnables.getByPrefix(prefix);
     }
 
     /**
@@ -202,6 +263,6 @@ public class UIMRExecutor extends ThreadPoolExecutor {
      * @see UIMRRunnable
      */
     public List<UIMRRunnable> getRunnables() {
-        return new ArrayList<UIMRRunnable>(runnables.values());
+        return runnables.getAll();
     }
 }
@@ -0,0 +1,232 @@
+package io.github.hhromic.uimr.concurrent;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.TimeUnit;
+
+import java.util.List;
+
+/**
+ * A work-stealing executor designed to handle {@code UIMRRunnable} instances.
+ *
+ * <p>This executor is the {@link ForkJoinPool} counterpart of {@link UIMRExecutor}, for CPU-bound runnables that
+ * fan out into many subtasks. Each worker thread has its own task queue and idle workers steal tasks from busy
+ * ones, so there is no single shared queue to contend on. Running UIMR Runnables are named and can be searched
+ * by name prefix the same way as with {@link UIMRExecutor}.</p>
+ *
+ * <p>A runnable running in this executor can spawn child runnables with {@link #fork(UIMRRunnable)}. Children
+ * are pushed to the queue of the current worker, where idle workers can steal them, and can be waited for
+ * with {@link ForkJoinTask#join()}, which helps running other tasks meanwhile instead of blocking.</p>
+ *
+ * <p>Exceptions thrown by a runnable are rethrown when joining its task, otherwise they are not reported.</p>
+ *
+ * <p><strong>Example usage:</strong></p>
+ *
+ * <pre><code>
+ * import io.github.hhromic.uimr.concurrent.UIMRForkJoinExecutor;
+ * import io.github.hhromic.uimr.concurrent.AbstractUIMRRunnable;
+ *
+ * import java.util.concurrent.ForkJoinTask;
+ * import java.util.List;
+ * import java.util.ArrayList;
+ *
+ * public class MyShardRunnable extends AbstractUIMRRunnable {
+ *     private final UIMRForkJoinExecutor executor;
+ *
+ *     public MyShardRunnable(final String name, final UIMRForkJoinExecutor executor) {
+ *         super(name);
+ *         this.executor = executor;
+ *     }
+ *
+ *    {@literal @}Override
+ *     public void run() {
+ *         final List&lt;ForkJoinTask&lt;Void&gt;&gt; children = new ArrayList&lt;ForkJoinTask&lt;Void&gt;&gt;();
+ *         for (int i=0; i&lt;16; i++)
+ *             children.add(executor.fork(new MyPartRunnable(getName() + "-part" + i)));
+ *         for (final ForkJoinTask&lt;Void&gt; child : children)
+ *             child.join();
+ *         System.out.println("All parts of " + getName() + " are done!");
+ *     }
+ * }
+ *
+ * public class MyClass {
+ *     public static void main(final String[] args) {
+ *         final UIMRForkJoinExecutor executor = new UIMRForkJoinExecutor(8);  // Number of workers
+ *         executor.execute(new MyShardRunnable("shard0", executor));
+ *         executor.execute(new MyShardRunnable("shard1", executor));
+ *
+ *         // Will match "shard0*" named runnables, including its parts
+ *         System.out.println(executor.getRunnables("shard0"));
+ *     }
+ * }
+ * </code></pre>
+ *
+ * @author Hugo Hromic
+ * @since 4.0
+ * @see UIMRRunnable
+ * @see UIMRExecutor
+ * @see ForkJoinPool
+ */
+public class UIMRForkJoinExecutor extends ForkJoinPool {
+    /** Internal name-runnable registry for this executor. */
+    private final UIMRRunnableRegistry runnables = new UIMRRunnableRegistry();
+
+    /** Internal task handler for this executor. */
+    private class HandlerTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final transient UIMRRunnable runnable;
+        private final boolean keepAfterExecute;
+
+        HandlerTask(final UIMRRunnable runnable, final boolean keepAfterExecute) {
+            this.runnable = runnable;
+            this.keepAfterExecute = keepAfterExecute;
+        }
+
+        @Override
+        protected void compute() {
+            // Joining workers may run this task nested in another one, so the previous name is restored
+            final String originalThreadName = Thread.currentThread().getName();
+            try {
+                Thread.currentThread().setName(runnable.getName());
+                runnable.run();
+            } finally {
+                Thread.currentThread().setName(originalThreadName);
+                if (!keepAfterExecute)
+                    runnables.unregister(runnable);
+            }
+        }
+    }
+
+    /**
+     * Creates a new {@code UIMRForkJoinExecutor} with specified parallelism level.
+     *
+     * @param parallelism the desired parallelism level, the number of worker threads
+     * @throws IllegalArgumentException if the parallelism level is not positive or above the implementation limit
+     * @see ForkJoinPool
+     */
+    public UIMRForkJoinExecutor(final int parallelism) {
+        super(parallelism);
+    }
+
+    /**
+     * Creates a new {@code UIMRForkJoinExecutor} with a parallelism level equal to the number of available processors.
+     *
+     * @see ForkJoinPool
+     */
+    public UIMRForkJoinExecutor() {
+        super();
+    }
+
+    /**
+     * Executes a {@code UIMRRunnable} using this executor.
+     *
+     * <p>The {@code keepAfterExecute} flag allows to control if the runnable should be forgotten by this executor after finishing.</p>
+     *
+     * @param runnable the {@code UIMRRunnable} to execute
+     * @param keepAfterExecute {@code false} if the runnable should be forgotten after finishing, {@code true} otherwise
+     * @return the task running the runnable, which can be joined
+     * @see UIMRRunnable
+     */
+    public ForkJoinTask<Void> execute(final UIMRRunnable runnable, final boolean keepAfterExecute) {
+        final HandlerTask task = new HandlerTask(runnable, keepAfterExecute);
+        runnables.register(runnable);
+        execute(task);
+        return task;
+    }
+
+    /**
+     * Executes a {@code UIMRRunnable} using this executor.
+     *
+     * <p>This method calls {@code execute(UIMRRunnable,boolean)} with the {@code keepAfterExecute} parameter set to {@code false}.
+     *
+     * @param runnable the {@code UIMRRunnable} to execute
+     * @return the task running the runnable, which can be joined
+     * @see #execute(UIMRRunnable, boolean)
+     */
+    public ForkJoinTask<Void> execute(final UIMRRunnable runnable) {
+        return execute(runnable, false);
+    }
+
+    /**
+     * Spawns a child {@code UIMRRunnable} from a runnable running in this executor.
+     *
+     * <p>When called from a worker thread of this executor, the child is pushed to the queue of that worker, from
+     * where idle workers can steal it. Otherwise, this method behaves as {@code execute(UIMRRunnable)}. The child
+     * is forgotten by this executor after finishing.</p>
+     *
+     * @param runnable the child {@code UIMRRunnable} to spawn
+     * @return the task running the child, which can be joined
+     * @see #execute(UIMRRunnable)
+     */
+    public ForkJoinTask<Void> fork(final UIMRRunnable runnable) {
+        final Thread thread = Thread.currentThread();
+        if (!(thread instanceof ForkJoinWorkerThread) || ((ForkJoinWorkerThread)thread).getPool() != this)
+            return execute(runnable);
+        final HandlerTask task = new HandlerTask(runnable, false);
+        runnables.register(runnable);
+        task.fork();
+        return task;
+    }
+
+    /**
+     * Executes a list of {@code UIMRRunnable}s and wait for all of them to finish.
+     *
+     * <p>This method calls {@code execute(UIMRRunnable)} and immediatelly after calls {@code ForkJoinPool#shutdown()} to not
+     * accept further tasks. Children spawned with {@code fork(UIMRRunnable)} by the running runnables are still accepted.
+     * Then, it waits for all runnables to finish and returns.</p>
+     *
+     * @param runnables the list of {@code UIMRRunnable}s to execute
+     * @return {@code true} if all {@code UIMRRunnable}s finished normally or {@code false} if the wait was interrupted
+     * @see #execute(UIMRRunnable)
+     */
+    public boolean executeAndAwaitTermination(final List<UIMRRunnable> runnables) {
+        for (final UIMRRunnable runnable : runnables)
+            execute(runnable);
+        shutdown();
+        while (!Thread.currentThread().isInterrupted())
+            try {
+                if (awaitTermination(1L, TimeUnit.MINUTES))
+                    return true;
+            } catch (InterruptedException e) {
+                break;
+            }
+        return false;
+    }
+
+    /**
+     * Gets the {@code UIMRRunnable} with the specified exact name from this executor's pool.
+     *
+     * @param name the name of the {@code UIMRRunnable} to get
+     * @return the {@code UIMRRunnable}, or {@code null} if not found
+     * @see UIMRRunnable
+     */
+    public UIMRRunnable getRunnable(final String name) {
+        return runnables.get(name);
+    }
+
+    /**
+     * Gets {@code UIMRRunnable} objects whose name matches the given prefix from this executor's pool.
+     *
+     * <p>The returned runnables are sorted by name.</p>
+     *
+     * @param prefix the prefix to use for name matching
+     * @return a list of {@code UIMRRunnable} objects matching the name prefix
+     * @see UIMRRunnable
+     */
+    public List<UIMRRunnable> getRunnables(final String prefix) {
+        return runnables.getByPrefix(prefix);
+    }
+
+    /**
+     * Gets all {@code UIMRRunnable} objects from this executor's pool.
+     *
+     * @return a list of all {@code UIMRRunnable} objects
+     * @see UIMRRunnable
+     */
+    public List<UIMRRunnable> getRunnables() {
+        return runnables.getAll();
+    }
+}
@@ -0,0 +1,78 @@
+package io.github.hhromic.uimr.concurrent;
+
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+import java.util.List;
+import java.util.ArrayList;
+import java.util.Map;
+
+/**
+ * A thread-safe registry of named {@code UIMRRunnable} objects, shared by the UIMR executors.
+ *
+ * <p>Runnables are kept in a concurrent sorted map by name, so registering and forgetting them is safe from
+ * any thread, and a name prefix search costs {@code O(log n + k)} for {@code k} matching runnables.</p>
+ *
+ * @author Hugo Hromic
+ * @since 4.0
+ * @see UIMRExecutor
+ * @see UIMRForkJoinExecutor
+ */
+final class UIMRRunnableRegistry {
+    /** Internal name-runnable mapping, sorted by name for prefix searching. */
+    private final ConcurrentNavigableMap<String,UIMRRunnable> runnables = new ConcurrentSkipListMap<String,UIMRRunnable>();
+
+    /**
+     * Registers a runnable under its name, replacing any runnable with the same name.
+     *
+     * @param runnable the runnable to register
+     */
+    void register(final UIMRRunnable runnable) {
+        runnables.put(runnable.getName(), runnable);
+    }
+
+    /**
+     * Forgets a runnable, only if its name is still mapped to it.
+     *
+     * @param runnable the runnable to forget
+     */
+    void unregister(final UIMRRunnable runnable) {
+        runnables.remove(runnable.getName(), runnable);
+    }
+
+    /**
+     * Gets the runnable with the specified exact name.
+     *
+     * @param name the name of the runnable to get
+     * @return the runnable, or {@code null} if not found
+     */
+    UIMRRunnable get(final String name) {
+        return runnables.get(name);
+    }
+
+    /**
+     * Gets the runnables whose name matches the given prefix, sorted by name.
+     *
+     * @param prefix the prefix to use for name matching
+     * @return a list of runnables matching the name prefix
+     */
+    List<UIMRRunnable> getByPrefix(final String prefix) {
+        final List<UIMRRunnable> results = new ArrayList<UIMRRunnable>();
+        // All names starting with the prefix are contiguous from the prefix itself
+        for (final Map.Entry<String,UIMRRunnable> entry : runnables.tailMap(prefix, true).entrySet()) {
+            if (!entry.getKey().startsWith(prefix))
+                break;
+            results.add(entry.getValue());
+        }
+        return results;
+    }
+
+    /**
+     * Gets all the runnables, sorted by name.
+     *
+     * @return a list of all the runnables
+     */
+    List<UIMRRunnable> getAll() {
+        return new ArrayList<UIMRRunnable>(runnables.values());
+    }
+}
@@ -0,0 +1,324 @@
+package io.github.hhromic.uimr.stats;
+
+import java.util.Arrays;
+import java.util.Map;
+
+/**
+ * This class handles a histogram of {@code long} data values over fixed bins.
+ *
+ * <p>This is a primitive alternative to a {@code Distribution<Long>} of bucketed numbers: bin edges
+ * and counts are stored in flat {@code long[]} arrays and nothing is boxed. Bins are half-open
+ * intervals {@code [edge(i), edge(i+1))}. Data values below the first edge or at or above the last
+ * edge are counted as underflow and overflow respectively.</p>
+ *
+ * <p>Histograms are created with linear edges ({@link #linear(long, long, int)}), logarithmic edges
+ * ({@link #logarithmic(long, long, int)}) or arbitrary edges ({@link #withEdges(long...)}). For
+ * linear and logarithmic edges, the bin of a data value is computed arithmetically in O(1). For
+ * arbitrary edges a binary search is used.</p>
+ *
+ * <p><strong>Example usage:</strong></p>
+ *
+ * <pre><code>
+ * final BinnedHistogram followers = BinnedHistogram.logarithmic(1, 100000000, 40);
+ * for (final SimpleTweet tweet : tweets)
+ *     followers.add(tweet.getUser().getFollowersCount());
+ * final Distribution&lt;Long&gt; distribution = followers.toDistribution();
+ * </code></pre>
+ *
+ * @author Hugo Hromic
+ * @since 4.0
+ * @see Distribution
+ * @see LongHistogram
+ */
+public class BinnedHistogram {
+    private static final int LINEAR = 0;
+    private static final int LOGARITHMIC = 1;
+    private static final int CUSTOM = 2;
+
+    private final int scale;
+    private final long[] edges;
+    private final long[] counts;
+    private final double factor;
+    private long underflowCount;
+    private long overflowCount;
+    private long totalCount;
+
+    private BinnedHistogram(final int scale, final long[] edges) {
+        for (int i=1; i<edges.length; i++)
+            if (edges[i] <= edges[i - 1])
+                throw new IllegalArgumentException("edges must be strictly increasing: " + Arrays.toString(edges));
+        this.scale = scale;
+        this.edges = edges;
+        counts = new long[edges.length - 1];
+        final long first = edges[0];
+        final long last = edges[edges.length - 1];
+        if (scale == LINEAR)
+            factor = counts.length / ((double)last - first);
+        else if (scale == LOGARITHMIC)
+            factor = counts.length / Math.log((double)last / first);
+        else
+            factor = 0.0;
+        underflowCount = 0L;
+        overflowCount = 0L;
+        totalCount = 0L;
+    }
+
+    /**
+     * Creates a histogram with equally wide bins.
+     *
+     * @param min the lower edge of the first bin (inclusive)
+     * @param max the upper edge of the last bin (exclusive)
+     * @param numBins the number of bins
+     * @return the new histogram
+     * @throws IllegalArgumentException if the range has less values than the number of bins
+     */
+    public static BinnedHistogram linear(final long min, final long max, final int numBins) {
+        if (numBins < 1 || max <= min || (double)max - min < numBins)
+            throw new IllegalArgumentException(String.format("min=%d, max=%d, numBins=%d", min, max, numBins));
+        final long[] edges = new long[numBins + 1];
+        final double width = ((double)max - min) / numBins;
+        for (int i=0; i<numBins; i++)
+            edges[i] = min + (long)Math.floor(width * i);
+        edges[numBins] = max;
+        return new BinnedHistogram(LINEAR, edges);
+    }
+
+    /**
+     * Creates a histogram with bins that grow exponentially wider.
+     *
+     * @param min the lower edge of the first bin (inclusive), must be positive
+     * @param max the upper edge of the last bin (exclusive)
+     * @param numBins the number of bins
+     * @return the new histogram
+     * @throws IllegalArgumentException if the range is not positive or too narrow for the number of bins
+     */
+    public static BinnedHistogram logarithmic(final long min, final long max, final int numBins) {
+        if (numBins < 1 || min < 1 || max <= min)
+            throw new IllegalArgumentException(String.format("min=%d, max=%d, numBins=%d", min, max, numBins));
+        final long[] edges = new long[numBins + 1];
+        final double ratio = Math.log((double)max / min) / numBins;
+        for (int i=0; i<numBins; i++)
+            edges[i] = Math.round(min * Math.exp(ratio * i));
+        edges[0] = min;
+        edges[numBins] = max;
+        // Narrow ranges round neighbouring edges to the same integer
+        for (int i=1; i<edges.length; i++)
+            if (edges[i] <= edges[i - 1])
+                throw new IllegalArgumentException(String.format(
+                    "range too narrow for %d logarithmic bins with integer edges: min=%d, max=%d", numBins, min, max));
+        return new BinnedHistogram(LOGARITHMIC, edges);
+    }
+
+    /**
+     * Creates a histogram with arbitrary bin edges.
+     *
+     * @param edges the bin edges, at least two and strictly increasing
+     * @return the new histogram
+     * @throws IllegalArgumentException if there are less than two edges or they are not strictly increasing
+     */
+    public static BinnedHistogram withEdges(final long... edges) {
+        if (edges.length < 2)
+            throw new IllegalArgumentException("at least two edges are needed");
+        return new BinnedHistogram(CUSTOM, edges.clone());
+    }
+
+    /**
+     * Gets the bin of a data value.
+     *
+     * @param value the data value
+     * @return the bin of the data value, {@code -1} for underflow or the number of bins for overflow
+     */
+    public int getBin(final long value) {
+        if (value < edges[0])
+            return -1;
+        if (value >= edges[counts.length])
+            return counts.length;
+        int bin;
+        if (scale == CUSTOM) {
+            bin = Arrays.binarySearch(edges, value);
+            return bin >= 0 ? bin : -bin - 2;
+        } else if (scale == LINEAR) {
+            bin = (int)(((double)value - edges[0]) * factor);
+        } else {
+            bin = (int)(Math.log((double)value / edges[0]) * factor);
+        }
+        // Correct the floating-point estimate against the exact edges
+        bin = Math.max(0, Math.min(counts.length - 1, bin));
+        while (value < edges[bin])
+            bin--;
+        while (value >= edges[bin + 1])
+            bin++;
+        return bin;
+    }
+
+    /**
+     * Gets the number of bins.
+     *
+     * @return the number of bins
+     */
+    public int getNumBins() {
+        return counts.length;
+    }
+
+    /**
+     * Gets the bin edges.
+     *
+     * @return a copy of the bin edges
+     */
+    public long[] getEdges() {
+        return edges.clone();
+    }
+
+    /**
+     * Gets the lower edge (inclusive) of a bin.
+     *
+     * @param bin the bin
+     * @return the lower edge of the bin
+     * @throws IndexOutOfBoundsException if the bin does not exist
+     */
+    public long getLowerEdge(final int bin) {
+        if (bin < 0 || bin >= counts.length)
+            throw new IndexOutOfBoundsException("bin: " + bin);
+        return edges[bin];
+    }
+
+    /**
+     * Gets the upper edge (exclusive) of a bin.
+     *
+     * @param bin the bin
+     * @return the upper edge of the bin
+     * @throws IndexOutOfBoundsException if the bin does not exist
+     */
+    public long getUpperEdge(final int bin) {
+        if (bin < 0 || bin >= counts.length)
+            throw new IndexOutOfBoundsException("bin: " + bin);
+        return edges[bin + 1];
+    }
+
+    /**
+     * Gets the count of a bin.
+     *
+     * @param bin the bin
+     * @return the count of the bin
+     * @throws IndexOutOfBoundsException if the bin does not exist
+     */
+    public long getCount(final int bin) {
+        if (bin < 0 || bin >= counts.length)
+            throw new IndexOutOfBoundsException("bin: " + bin);
+        return counts[bin];
+    }
+
+    /**
+     * Gets the count of data values below the first edge.
+     *
+     * @return the underflow count
+     */
+    public long getUnderflowCount() {
+        return underflowCount;
+    }
+
+    /**
+     * Gets the count of data values at or above the last edge.
+     *
+     * @return the overflow count
+     */
+    public long getOverflowCount() {
+        return overflowCount;
+    }
+
+    /**
+     * Gets the total count of the data seen so far, including underflow and overflow.
+     *
+     * @return the total count of the data seen so far
+     */
+    public long getTotalCount() {
+        return totalCount;
+    }
+
+    /**
+     * Adds a data value.
+     *
+     * @param value the data value to add
+     * @return this same object
+     */
+    public BinnedHistogram add(final long value) {
+        return add(value, 1L);
+    }
+
+    /**
+     * Adds a data value some amount of times.
+     *
+     * @param value the data value to add
+     * @param amount the amount to increment the count of the bin of the data value
+     * @return this same object
+     */
+    public BinnedHistogram add(final long value, final long amount) {
+        final int bin = getBin(value);
+        if (bin < 0)
+            underflowCount += amount;
+        else if (bin == counts.length)
+            overflowCount += amount;
+        else
+            counts[bin] += amount;
+        totalCount += amount;
+        return this;
+    }
+
+    /**
+     * Adds all data from a histogram to this histogram.
+     *
+     * @param histogram histogram to be added to this histogram
+     * @return this same object
+     * @throws NullPointerException if the histogram is null
+     * @throws IllegalArgumentException if the histograms have different edges
+     */
+    public BinnedHistogram addAll(final BinnedHistogram histogram) {
+        if (histogram == null)
+            throw new NullPointerException();
+        if (!Arrays.equals(edges, histogram.edges))
+            throw new IllegalArgumentException("histogram edges differ");
+        for (int bin=0; bin<counts.length; bin++)
+            counts[bin] += histogram.counts[bin];
+        underflowCount += histogram.underflowCount;
+        overflowCount += histogram.overflowCount;
+        totalCount += histogram.totalCount;
+        return this;
+    }
+
+    /**
+     * Adds all data from a data distribution of numbers to this histogram.
+     *
+     * @param distribution distribution object to be added to this histogram
+     * @return this same object
+     * @throws NullPointerException if the distribution is null
+     */
+    public BinnedHistogram addAll(final Distribution<? extends Number> distribution) {
+        if (distribution == null)
+            throw new NullPointerException();
+        for (final Map.Entry<? extends Number,Long> entry : distribution.getDistribution().entrySet())
+            add(entry.getKey().longValue(), entry.getValue());
+        return this;
+    }
+
+    /**
+     * Converts this histogram to a data distribution.
+     *
+     * <p>The non-empty bins are keyed by their lower edge. Underflow and overflow counts are not included.</p>
+     *
+     * @return a new distribution object with the counts of this histogram
+     */
+    public Distribution<Long> toDistribution() {
+        final Distribution<Long> distribution = new Distribution<Long>();
+        for (int bin=0; bin<counts.length; bin++)
+            if (counts[bin] != 0L)
+                distribution.increment(edges[bin], counts[bin]);
+        return distribution;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public String toString() {
+        return String.format("{edges=%s, counts=%s, underflowCount=%d, overflowCount=%d, totalCount=%d}",
+            Arrays.toString(edges), Arrays.toString(counts), underflowCount, overflowCount, totalCount);
+    }
+}
@@ -0,0 +1,226 @@
+package io.github.hhromic.uimr.stats;
+
+import java.util.Map;
+import java.util.HashMap;
+import java.util.Set;
+import java.util.List;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+
+/**
+ * Counting Matrix with cached derived views.
+ *
+ * <p>This class wraps any {@link CountingMatrix} and adds derived views over its counts: the
+ * conditional probability {@code P(k2|k1)}, the pointwise mutual information {@code PMI(k1,k2)}
+ * and the top-k second dimension keys of a first dimension key. Views are computed lazily, the
+ * first time a row is queried, and cached per row. The cache of a row is only invalidated when
+ * that same row is incremented through this object, therefore read-heavy workloads only pay for
+ * the row lookups once.</p>
+ *
+ * <p>The marginal counts of the second dimension and the grand total count, needed by the PMI,
+ * are maintained incrementally. All increments must go through this object for the views to stay
+ * valid. Unlike {@link CountingMatrix}, this class does not accept {@code null} keys. This class is
+ * not thread-safe.</p>
+ *
+ * @author Hugo Hromic
+ * @since 4.0
+ * @see CountingMatrix
+ */
+public class CachedCountingMatrix<K1,K2> extends CountingMatrix<K1,K2> {
+    private final CountingMatrix<K1,K2> matrix;
+    private final Distribution<K2> columnTotals;
+    private final Map<K1,RowView<K2>> rowViews;
+
+    /** Cached view of a row, with keys sorted by count in descending order. */
+    private static class RowView<K> {
+        final List<K> keys;
+        final long[] counts;
+        final Map<K,Integer> positions;
+        final long totalCount;
+
+        @SuppressWarnings("unchecked")
+        RowView(final Map<K,Long> rowCounts, final long totalCount) {
+            final Object[] sortedKeys = rowCounts.keySet().toArray();
+            Arrays.sort(sortedKeys, new Comparator<Object>() {
+                @Override
+                public int compare(final Object key1, final Object key2) {
+                    return Long.compare(rowCounts.get(key2), rowCounts.get(key1));
+                }
+            });
+            keys = Collections.unmodifiableList(Arrays.asList((K[])sortedKeys));
+            counts = new long[sortedKeys.length];
+            positions = new HashMap<K,Integer>();
+            for (int i=0; i<sortedKeys.length; i++) {
+                counts[i] = rowCounts.get(sortedKeys[i]);
+                positions.put((K)sortedKeys[i], i);
+            }
+            this.totalCount = totalCount;
+        }
+
+        long getCount(final K key) {
+            final Integer position = positions.get(key);
+            return position == null ? 0L : counts[position];
+        }
+    }
+
+    /** Creates a new {@code CachedCountingMatrix} object backed by a new {@link CompactCountingMatrix}. */
+    public CachedCountingMatrix() {
+        this(new CompactCountingMatrix<K1,K2>());
+    }
+
+    /**
+     * Creates a new {@code CachedCountingMatrix} object backed by a given counting matrix.
+     *
+     * <p>The existing counts of the given matrix are scanned once to compute the marginal counts.</p>
+     *
+     * @param matrix the counting matrix to wrap
+     * @throws NullPointerException if the counting matrix is null
+     */
+    public CachedCountingMatrix(final CountingMatrix<K1,K2> matrix) {
+        if (matrix == null)
+            throw new NullPointerException();
+        this.matrix = matrix;
+        columnTotals = new Distribution<K2>();
+        rowViews = new HashMap<K1,RowView<K2>>();
+        for (final K1 k1 : matrix.getKeys())
+            for (final K2 k2 : matrix.getKeys(k1))
+                columnTotals.increment(k2, matrix.getCount(k1, k2));
+    }
+
+    private RowView<K2> getRowView(final K1 k1) {
+        RowView<K2> rowView = rowViews.get(k1);
+        if (rowView == null) {
+            final Set<K2> rowKeys = matrix.getKeys(k1);
+            if (rowKeys == null)
+                return null;
+            final Map<K2,Long> rowCounts = new HashMap<K2,Long>();
+            for (final K2 k2 : rowKeys)
+                rowCounts.put(k2, matrix.getCount(k1, k2));
+            rowView = new RowView<K2>(rowCounts, matrix.getTotalCount(k1));
+            rowViews.put(k1, rowView);
+        }
+        return rowView;
+    }
+
+    /**
+     * Gets the conditional probability of a second dimension key given a first dimension key.
+     *
+     * @param k1 the key for the first dimension
+     * @param k2 the key for the second dimension
+     * @return the probability {@code P(k2|k1)}, zero if the (k1,k2) pair is not found
+     */
+    public double getConditionalProbability(final K1 k1, final K2 k2) {
+        final RowView<K2> rowView = getRowView(k1);
+        if (rowView == null || rowView.totalCount == 0L)
+            return 0.0;
+        return rowView.getCount(k2) * 1.0 / rowView.totalCount;
+    }
+
+    /**
+     * Gets the pointwise mutual information of a (k1,k2) key pair.
+     *
+     * <p>The PMI is computed as {@code log(P(k1,k2) / (P(k1) * P(k2)))} using the natural logarithm,
+     * where {@code P(k1)} comes from the first dimension total counts and {@code P(k2)} from the
+     * second dimension marginal counts.</p>
+     *
+     * @param k1 the key for the first dimension
+     * @param k2 the key for the second dimension
+     * @return the PMI of the key pair, {@code Double.NEGATIVE_INFINITY} if the (k1,k2) pair is not found
+     */
+    public double getPMI(final K1 k1, final K2 k2) {
+        final RowView<K2> rowView = getRowView(k1);
+        final long count = rowView == null ? 0L : rowView.getCount(k2);
+        if (count == 0L)
+            return Double.NEGATIVE_INFINITY;
+        final long columnTotal = columnTotals.getDistribution().get(k2);
+        return Math.log((count * 1.0 / rowView.totalCount) * columnTotals.getTotalCount() / columnTotal);
+    }
+
+    /**
+     * Gets the top-k second dimension keys with the highest counts for a first dimension key.
+     *
+     * @param k1 the key for the first dimension
+     * @param k the maximum number of keys to get
+     * @return an unmodifiable list of at most {@code k} keys sorted by count in descending order,
+     *     {@code null} if the key is not found
+     * @throws IllegalArgumentException if {@code k} is negative
+     */
+    public List<K2> getTopKeys(final K1 k1, final int k) {
+        if (k < 0)
+            throw new IllegalArgumentException("k: " + k);
+        final RowView<K2> rowView = getRowView(k1);
+        if (rowView == null)
+            return null;
+        return rowView.keys.subList(0, Math.min(k, rowView.keys.size()));
+    }
+
+    /**
+     * Gets the marginal count of a particular second dimension key.
+     *
+     * @param k2 the key for the second dimension
+     * @return the marginal count of the second dimension key, zero if the key is not found
+     */
+    public long getColumnTotalCount(final K2 k2) {
+        final Long columnTotal = columnTotals.getDistribution().get(k2);
+        return columnTotal == null ? 0L : columnTotal;
+    }
+
+    /**
+     * Gets the grand total count of this matrix.
+     *
+     * @return the sum of all counts of this matrix
+     */
+    public long getTotalCount() {
+        return columnTotals.getTotalCount();
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public Set<K1> getKeys() {
+        return matrix.getKeys();
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public Set<K2> getKeys(final K1 k1) {
+        return matrix.getKeys(k1);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public long getCount(final K1 k1, final K2 k2) {
+        final RowView<K2> rowView = rowViews.get(k1);
+        return rowView == null ? matrix.getCount(k1, k2) : rowView.getCount(k2);
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * <p>This method invalidates the cached views of the {@code k1} row only.</p>
+     *
+     * @throws NullPointerException if any of the keys is null
+     */
+    @Override
+    public void increment(final K1 k1, final K2 k2, final long amount) {
+        // Validate before mutating, so the wrapped matrix and the cache never diverge
+        if (k1 == null || k2 == null)
+            throw new NullPointerException(k1 == null ? "k1":"k2");
+        matrix.increment(k1, k2, amount);
+        columnTotals.increment(k2, amount);
+        rowViews.remove(k1);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public long getTotalCount(final K1 k1) {
+        final RowView<K2> rowView = rowViews.get(k1);
+        return rowView == null ? matrix.getTotalCount(k1) : rowView.totalCount;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public String toString() {
+        return matrix.toString();
+    }
+}
@@ -0,0 +1,231 @@
+package io.github.hhromic.uimr.stats;
+
+import java.util.Map;
+import java.util.HashMap;
+import java.util.Set;
+import java.util.AbstractSet;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Compact Counting Matrix class.
+ *
+ * <p>This class implements a counting sparse matrix with generic key types, where each row of the
+ * matrix is a compact open-addressing hash table holding primitive {@code long} counts. The total
+ * count of a row is stored next to the row itself, therefore an increment costs one row lookup plus
+ * one cell probe and does not box any count.</p>
+ *
+ * <p>Unlike {@link CountingMatrix}, this class does not accept {@code null} keys.</p>
+ *
+ * @author Hugo Hromic
+ * @since 4.0
+ * @see CountingMatrix
+ */
+public class CompactCountingMatrix<K1,K2> extends CountingMatrix<K1,K2> {
+    private final Map<K1,Row<K2>> rows;
+
+    /** Open-addressing row table with primitive counts. */
+    private static class Row<K> {
+        private static final int INITIAL_CAPACITY = 4;
+
+        private Object[] keys;
+        private long[] counts;
+        private int size;
+        private long totalCount;
+
+        Row() {
+            keys = new Object[INITIAL_CAPACITY];
+            counts = new long[INITIAL_CAPACITY];
+            size = 0;
+            totalCount = 0L;
+        }
+
+        private static int slot(final Object key, final int mask) {
+            final int h = key.hashCode() * 0x9E3779B9;
+            return (h ^ (h >>> 16)) & mask;
+        }
+
+        int indexOf(final Object key) {
+            final int mask = keys.length - 1;
+            int i = slot(key, mask);
+            Object k;
+            while ((k = keys[i]) != null) {
+                if (k == key || k.equals(key))
+                    return i;
+                i = (i + 1) & mask;
+            }
+            return -1;
+        }
+
+        long getCount(final Object key) {
+            final int i = indexOf(key);
+            return i < 0 ? 0L : counts[i];
+        }
+
+        void increment(final K key, final long amount) {
+            final int mask = keys.length - 1;
+            int i = slot(key, mask);
+            Object k;
+            while ((k = keys[i]) != null) {
+                if (k == key || k.equals(key)) {
+                    counts[i] += amount;
+                    totalCount += amount;
+                    return;
+                }
+                i = (i + 1) & mask;
+            }
+            keys[i] = key;
+            counts[i] = amount;
+            totalCount += amount;
+            if (++size * 3 > keys.length * 2)
+                resize(keys.length << 1);
+        }
+
+        private void resize(final int capacity) {
+            final Object[] oldKeys = keys;
+            final long[] oldCounts = counts;
+            final int mask = capacity - 1;
+            keys = new Object[capacity];
+            counts = new long[capacity];
+            for (int j=0; j<oldKeys.length; j++) {
+                if (oldKeys[j] == null)
+                    continue;
+                int i = slot(oldKeys[j], mask);
+                while (keys[i] != null)
+                    i = (i + 1) & mask;
+                keys[i] = oldKeys[j];
+                counts[i] = oldCounts[j];
+            }
+        }
+
+        Set<K> keySet() {
+            return new AbstractSet<K>() {
+                @Override
+                public int size() {
+                    return size;
+                }
+
+                @Override
+                public boolean contains(final Object key) {
+                    return key != null && indexOf(key) >= 0;
+                }
+
+                @Override
+                public Iterator<K> iterator() {
+                    return new Iterator<K>() {
+                        private final Object[] snapshot = keys;
+                        private int next = advance(0);
+
+                        private int advance(int i) {
+                            while (i < snapshot.length && snapshot[i] == null)
+                                i++;
+                            return i;
+                        }
+
+                        @Override
+                        public boolean hasNext() {
+                            return next < snapshot.length;
+                        }
+
+                        @Override
+                        @SuppressWarnings("unchecked")
+                        public K next() {
+                            if (next >= snapshot.length)
+                                throw new NoSuchElementException();
+                            final K key = (K)snapshot[next];
+                            next = advance(next + 1);
+                            return key;
+                        }
+                    };
+                }
+            };
+        }
+
+        void appendTo(final StringBuilder builder) {
+            builder.append('{');
+            boolean first = true;
+            for (int i=0; i<keys.length; i++) {
+                if (keys[i] == null)
+                    continue;
+                if (!first)
+                    builder.append(", ");
+                builder.append(keys[i]).append('=').append(counts[i]);
+                first = false;
+            }
+            builder.append('}');
+        }
+    }
+
+    /** Creates a new {@code CompactCountingMatrix} object. */
+    public CompactCountingMatrix() {
+        rows = new HashMap<K1,Row<K2>>();
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public Set<K1> getKeys() {
+        return rows.keySet();
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public Set<K2> getKeys(final K1 k1) {
+        final Row<K2> row = rows.get(k1);
+        return row == null ? null : row.keySet();
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public long getCount(final K1 k1, final K2 k2) {
+        final Row<K2> row = rows.get(k1);
+        if (row == null || k2 == null)
+            return 0L;
+        return row.getCount(k2);
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @throws NullPointerException if any of the keys is null
+     */
+    @Override
+    public void increment(final K1 k1, final K2 k2, final long amount) {
+        if (k1 == null || k2 == null)
+            throw new NullPointerException(k1 == null ? "k1":"k2");
+        Row<K2> row = rows.get(k1);
+        if (row == null) {
+            row = new Row<K2>();
+            rows.put(k1, row);
+        }
+        row.increment(k2, amount);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public long getTotalCount(final K1 k1) {
+        final Row<K2> row = rows.get(k1);
+        return row == null ? 0L : row.totalCount;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public String toString() {
+        final StringBuilder sparseMatrix = new StringBuilder("{");
+        final StringBuilder totalCounts = new StringBuilder("{");
+        boolean first = true;
+        for (final Map.Entry<K1,Row<K2>> entry : rows.entrySet()) {
+            if (!first) {
+                sparseMatrix.append(", ");
+                totalCounts.append(", ");
+            }
+            sparseMatrix.append(entry.getKey()).append('=');
+            entry.getValue().appendTo(sparseMatrix);
+            totalCounts.append(entry.getKey()).append('=').append(entry.getValue().totalCount);
+            first = false;
+        }
+        sparseMatrix.append('}');
+        totalCounts.append('}');
+        return String.format("{sparseMatrix=%s, totalCounts=%s}",
+            sparseMatrix, totalCounts);
+    }
+}
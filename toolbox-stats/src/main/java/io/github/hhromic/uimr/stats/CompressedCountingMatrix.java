@@ -0,0 +1,444 @@
+package io.github.hhromic.uimr.stats;
+
+import java.util.Map;
+import java.util.HashMap;
+import java.util.Set;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.stream.IntStream;
+
+/**
+ * Immutable Compressed Sparse Row (CSR) Counting Matrix class.
+ *
+ * <p>This class holds a frozen copy of a {@link CountingMatrix} in compressed sparse row form:
+ * dictionaries that map the keys of each dimension to dense {@code int} indices, plus the
+ * {@code rowPtr}, {@code colIdx} and {@code counts} arrays. The cells of row {@code r} are found at
+ * positions {@code rowPtr[r]} (inclusive) to {@code rowPtr[r+1]} (exclusive), sorted by column index.</p>
+ *
+ * <p>Bulk traversals should use a {@link RowCursor} or a {@link CellConsumer}, which walk the arrays
+ * directly without any hash lookups nor allocations per cell. Any attempt to increment this matrix
+ * throws an {@code UnsupportedOperationException}.</p>
+ *
+ * <p><strong>Example usage:</strong></p>
+ *
+ * <pre><code>
+ * final CompressedCountingMatrix&lt;String,String&gt; csr = matrix.compact();
+ * final CompressedCountingMatrix.RowCursor cursor = csr.newCursor();
+ * for (int row=0; row&lt;csr.getRowCount(); row++)
+ *     for (cursor.reset(row); cursor.next();)
+ *         System.out.println(csr.getColumnKey(cursor.getColumn()) + "=" + cursor.getCount());
+ * </code></pre>
+ *
+ * @author Hugo Hromic
+ * @since 4.0
+ * @see CountingMatrix#compact()
+ */
+public class CompressedCountingMatrix<K1,K2> extends CountingMatrix<K1,K2> {
+    private final Object[] rowKeys;
+    private final Map<K1,Integer> rowIndices;
+    private final Object[] columnKeys;
+    private final Map<K2,Integer> columnIndices;
+    private final int[] rowPtr;
+    private final int[] colIdx;
+    private final long[] counts;
+    private final long[] totalCounts;
+
+    /** Consumer of matrix cells by row and column index. */
+    public interface CellConsumer {
+        /**
+         * Performs this operation on a matrix cell.
+         *
+         * @param row the row index of the cell
+         * @param column the column index of the cell
+         * @param count the count of the cell
+         */
+        public void accept(final int row, final int column, final long count);
+    }
+
+    /**
+     * Reusable cursor over the cells of a row.
+     *
+     * <p>A cursor can be reset to any row as many times as needed, therefore a traversal of the
+     * whole matrix needs a single cursor object. Cursors are not thread-safe, use one per thread.</p>
+     */
+    public class RowCursor {
+        private int position;
+        private int end;
+
+        private RowCursor() {
+            position = 0;
+            end = 0;
+        }
+
+        /**
+         * Positions this cursor just before the first cell of a row.
+         *
+         * @param row the row index to traverse
+         * @return this same object
+         * @throws IndexOutOfBoundsException if the row index is out of bounds
+         */
+        public RowCursor reset(final int row) {
+            if (row < 0 || row >= rowKeys.length)
+                throw new IndexOutOfBoundsException("row: " + row);
+            position = rowPtr[row] - 1;
+            end = rowPtr[row + 1];
+            return this;
+        }
+
+        /**
+         * Advances this cursor to the next cell of the current row.
+         *
+         * @return {@code true} if the cursor is positioned on a cell, {@code false} if the row is exhausted
+         */
+        public boolean next() {
+            return ++position < end;
+        }
+
+        /**
+         * Gets the column index of the current cell.
+         *
+         * @return the column index of the current cell
+         */
+        public int getColumn() {
+            return colIdx[position];
+        }
+
+        /**
+         * Gets the count of the current cell.
+         *
+         * @return the count of the current cell
+         */
+        public long getCount() {
+            return counts[position];
+        }
+    }
+
+    /**
+     * Creates a new {@code CompressedCountingMatrix} object from the contents of a counting matrix.
+     *
+     * @param matrix the counting matrix to compress
+     * @throws NullPointerException if the counting matrix is null
+     */
+    @SuppressWarnings("unchecked")
+    public CompressedCountingMatrix(final CountingMatrix<K1,K2> matrix) {
+        if (matrix == null)
+            throw new NullPointerException();
+
+        // Key dictionaries, row pointers and sorted column indices
+        rowKeys = matrix.getKeys().toArray();
+        rowIndices = new HashMap<K1,Integer>();
+        columnIndices = new HashMap<K2,Integer>();
+        rowPtr = new int[rowKeys.length + 1];
+        totalCounts = new long[rowKeys.length];
+        int[] columns = new int[Math.max(16, rowKeys.length)];
+        int cells = 0;
+        for (int row=0; row<rowKeys.length; row++) {
+            final K1 k1 = (K1)rowKeys[row];
+            rowIndices.put(k1, row);
+            for (final K2 k2 : matrix.getKeys(k1)) {
+                Integer column = columnIndices.get(k2);
+                if (column == null) {
+                    column = columnIndices.size();
+                    columnIndices.put(k2, column);
+                }
+                if (cells == columns.length) {
+                    if (cells == Integer.MAX_VALUE - 8)
+                        throw new IllegalArgumentException("matrix has too many cells");
+                    columns = Arrays.copyOf(columns, (int)Math.min(Integer.MAX_VALUE - 8, cells * 2L));
+                }
+                columns[cells++] = column;
+            }
+            rowPtr[row + 1] = cells;
+            Arrays.sort(columns, rowPtr[row], cells);
+            totalCounts[row] = matrix.getTotalCount(k1);
+        }
+        colIdx = Arrays.copyOf(columns, cells);
+
+        columnKeys = new Object[columnIndices.size()];
+        for (final Map.Entry<K2,Integer> entry : columnIndices.entrySet())
+            columnKeys[entry.getValue()] = entry.getKey();
+
+        // Counts in row-major order
+        counts = new long[cells];
+        for (int row=0; row<rowKeys.length; row++)
+            for (int position=rowPtr[row]; position<rowPtr[row + 1]; position++)
+                counts[position] = matrix.getCount((K1)rowKeys[row], (K2)columnKeys[colIdx[position]]);
+    }
+
+    /**
+     * Gets the number of rows (first dimension keys) of this matrix.
+     *
+     * @return the number of rows
+     */
+    public int getRowCount() {
+        return rowKeys.length;
+    }
+
+    /**
+     * Gets the number of columns (second dimension keys) of this matrix.
+     *
+     * @return the number of columns
+     */
+    public int getColumnCount() {
+        return columnKeys.length;
+    }
+
+    /**
+     * Gets the number of non-empty cells of this matrix.
+     *
+     * @return the number of non-empty cells
+     */
+    public int getCellCount() {
+        return colIdx.length;
+    }
+
+    /**
+     * Gets the first dimension key of a row.
+     *
+     * @param row the row index
+     * @return the first dimension key of the row
+     */
+    @SuppressWarnings("unchecked")
+    public K1 getRowKey(final int row) {
+        return (K1)rowKeys[row];
+    }
+
+    /**
+     * Gets the second dimension key of a column.
+     *
+     * @param column the column index
+     * @return the second dimension key of the column
+     */
+    @SuppressWarnings("unchecked")
+    public K2 getColumnKey(final int column) {
+        return (K2)columnKeys[column];
+    }
+
+    /**
+     * Gets the row index of a first dimension key.
+     *
+     * @param k1 the key for the first dimension
+     * @return the row index, or {@code -1} if the key is not found
+     */
+    public int getRowIndex(final K1 k1) {
+        final Integer row = rowIndices.get(k1);
+        return row == null ? -1 : row;
+    }
+
+    /**
+     * Gets the column index of a second dimension key.
+     *
+     * @param k2 the key for the second dimension
+     * @return the column index, or {@code -1} if the key is not found
+     */
+    public int getColumnIndex(final K2 k2) {
+        final Integer column = columnIndices.get(k2);
+        return column == null ? -1 : column;
+    }
+
+    /**
+     * Gets a copy of the row pointers array.
+     *
+     * @return a copy of the row pointers array, of length {@code getRowCount() + 1}
+     */
+    public int[] getRowPointers() {
+        return rowPtr.clone();
+    }
+
+    /**
+     * Gets a copy of the column indices array.
+     *
+     * @return a copy of the column indices array, of length {@code getCellCount()}
+     */
+    public int[] getColumnIndices() {
+        return colIdx.clone();
+    }
+
+    /**
+     * Gets a copy of the counts array.
+     *
+     * @return a copy of the counts array, of length {@code getCellCount()}
+     */
+    public long[] getCounts() {
+        return counts.clone();
+    }
+
+    /**
+     * Gets the count of a particular (row,column) index pair.
+     *
+     * @param row the row index
+     * @param column the column index
+     * @return the count of the index pair, zero if the cell is empty
+     */
+    public long getCount(final int row, final int column) {
+        final int position = Arrays.binarySearch(colIdx, rowPtr[row], rowPtr[row + 1], column);
+        return position < 0 ? 0L : counts[position];
+    }
+
+    /**
+     * Gets the total count of a particular row.
+     *
+     * @param row the row index
+     * @return the total count of the row
+     */
+    public long getTotalCount(final int row) {
+        return totalCounts[row];
+    }
+
+    /**
+     * Creates a new reusable row cursor for this matrix.
+     *
+     * @return a new row cursor, not positioned on any row yet
+     */
+    public RowCursor newCursor() {
+        return new RowCursor();
+    }
+
+    /**
+     * Performs an operation on every non-empty cell of this matrix, row by row.
+     *
+     * @param consumer the operation to perform on each cell
+     * @throws NullPointerException if the consumer is null
+     */
+    public void forEachCell(final CellConsumer consumer) {
+        if (consumer == null)
+            throw new NullPointerException();
+        for (int row=0; row<rowKeys.length; row++)
+            forEachCell(row, consumer);
+    }
+
+    /**
+     * Performs an operation on every non-empty cell of a row.
+     *
+     * @param row the row index to traverse
+     * @param consumer the operation to perform on each cell
+     * @throws NullPointerException if the consumer is null
+     */
+    public void forEachCell(final int row, final CellConsumer consumer) {
+        if (consumer == null)
+            throw new NullPointerException();
+        for (int position=rowPtr[row]; position<rowPtr[row + 1]; position++)
+            consumer.accept(row, colIdx[position], counts[position]);
+    }
+
+    /**
+     * Performs an operation on every non-empty cell of this matrix, processing rows in parallel.
+     *
+     * <p>Rows are distributed over the common {@code ForkJoinPool}. Cells of a same row are always
+     * processed in order by a single thread, but different rows are processed concurrently, therefore
+     * the consumer must be thread-safe.</p>
+     *
+     * @param consumer the thread-safe operation to perform on each cell
+     * @throws NullPointerException if the consumer is null
+     */
+    public void parallelForEachCell(final CellConsumer consumer) {
+        if (consumer == null)
+            throw new NullPointerException();
+        IntStream.range(0, rowKeys.length).parallel().forEach(row -> forEachCell(row, consumer));
+    }
+
+    /**
+     * Gets all the keys stored for the first dimension.
+     *
+     * @return an unmodifiable view of the keys of the first dimension
+     */
+    @Override
+    public Set<K1> getKeys() {
+        return Collections.unmodifiableSet(rowIndices.keySet());
+    }
+
+    /**
+     * Gets all the keys stored for the second dimension for a particular first dimension key.
+     *
+     * @param k1 the key for the first dimension
+     * @return an unmodifiable view of the keys of the second dimension, {@code null} if the key is not found
+     */
+    @Override
+    public Set<K2> getKeys(final K1 k1) {
+        final int row = getRowIndex(k1);
+        if (row < 0)
+            return null;
+        return new AbstractSet<K2>() {
+            @Override
+            public int size() {
+                return rowPtr[row + 1] - rowPtr[row];
+            }
+
+            @Override
+            @SuppressWarnings("unchecked")
+            public boolean contains(final Object key) {
+                final int column = getColumnIndex((K2)key);
+                return column >= 0 && Arrays.binarySearch(colIdx, rowPtr[row], rowPtr[row + 1], column) >= 0;
+            }
+
+            @Override
+            public Iterator<K2> iterator() {
+                return new Iterator<K2>() {
+                    private int position = rowPtr[row];
+
+                    @Override
+                    public boolean hasNext() {
+                        return position < rowPtr[row + 1];
+                    }
+
+                    @Override
+                    public K2 next() {
+                        if (position >= rowPtr[row + 1])
+                            throw new NoSuchElementException();
+                        return getColumnKey(colIdx[position++]);
+                    }
+                };
+            }
+        };
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public long getCount(final K1 k1, final K2 k2) {
+        final int row = getRowIndex(k1);
+        final int column = getColumnIndex(k2);
+        if (row < 0 || column < 0)
+            return 0L;
+        return getCount(row, column);
+    }
+
+    /**
+     * Always throws an {@code UnsupportedOperationException}, this matrix is immutable.
+     *
+     * @param k1 the key for the first dimension
+     * @param k2 the key for the second dimension
+     * @param amount the amount to increment the count
+     * @throws UnsupportedOperationException always
+     */
+    @Override
+    public void increment(final K1 k1, final K2 k2, final long amount) {
+        throw new UnsupportedOperationException("compressed matrix is immutable");
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public long getTotalCount(final K1 k1) {
+        final int row = getRowIndex(k1);
+        return row < 0 ? 0L : totalCounts[row];
+    }
+
+    /**
+     * Returns this same object, as it is already compressed.
+     *
+     * @return this same object
+     */
+    @Override
+    public CompressedCountingMatrix<K1,K2> compact() {
+        return this;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public String toString() {
+        return String.format("{rows=%d, columns=%d, cells=%d}",
+            rowKeys.length, columnKeys.length, colIdx.length);
+    }
+}
@@ -0,0 +1,138 @@
+package io.github.hhromic.uimr.stats;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Concurrent Counting Matrix class.
+ *
+ * <p>This class implements a thread-safe counting sparse matrix with generic key types. Rows are
+ * kept in a {@code ConcurrentHashMap}, so increments to different rows never contend, and each
+ * cell and row total is a {@code LongAdder}, so increments to the same row never block.</p>
+ *
+ * <p>Reads never lock. Key sets are weakly consistent views and counts reflect the increments
+ * completed at the time of the read. Unlike {@link CountingMatrix}, this class does not accept
+ * {@code null} keys.</p>
+ *
+ * @author Hugo Hromic
+ * @since 4.0
+ * @see CountingMatrix
+ * @see LongAdder
+ */
+public class ConcurrentCountingMatrix<K1,K2> extends CountingMatrix<K1,K2> {
+    private final ConcurrentMap<K1,Row<K2>> rows;
+
+    /** Row of concurrent cells together with its total count. */
+    private static class Row<K> {
+        final ConcurrentMap<K,LongAdder> cells = new ConcurrentHashMap<K,LongAdder>();
+        final LongAdder totalCount = new LongAdder();
+
+        LongAdder getCell(final K key) {
+            final LongAdder cell = cells.get(key);
+            if (cell != null)
+                return cell;
+            final LongAdder newCell = new LongAdder();
+            final LongAdder oldCell = cells.putIfAbsent(key, newCell);
+            return oldCell == null ? newCell : oldCell;
+        }
+    }
+
+    /** Creates a new {@code ConcurrentCountingMatrix} object. */
+    public ConcurrentCountingMatrix() {
+        rows = new ConcurrentHashMap<K1,Row<K2>>();
+    }
+
+    private Row<K2> getRow(final K1 k1) {
+        final Row<K2> row = rows.get(k1);
+        if (row != null)
+            return row;
+        final Row<K2> newRow = new Row<K2>();
+        final Row<K2> oldRow = rows.putIfAbsent(k1, newRow);
+        return oldRow == null ? newRow : oldRow;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public Set<K1> getKeys() {
+        return rows.keySet();
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public Set<K2> getKeys(final K1 k1) {
+        final Row<K2> row = k1 == null ? null : rows.get(k1);
+        return row == null ? null : row.cells.keySet();
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public long getCount(final K1 k1, final K2 k2) {
+        final Row<K2> row = k1 == null ? null : rows.get(k1);
+        if (row == null || k2 == null)
+            return 0L;
+        final LongAdder cell = row.cells.get(k2);
+        return cell == null ? 0L : cell.sum();
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * <p>This method is thread-safe and never blocks once the row and cell exist.</p>
+     *
+     * @throws NullPointerException if any of the keys is null
+     */
+    @Override
+    public void increment(final K1 k1, final K2 k2, final long amount) {
+        if (k1 == null || k2 == null)
+            throw new NullPointerException(k1 == null ? "k1":"k2");
+        final Row<K2> row = getRow(k1);
+        row.getCell(k2).add(amount);
+        row.totalCount.add(amount);
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * <p>This method is lock-free.</p>
+     */
+    @Override
+    public long getTotalCount(final K1 k1) {
+        final Row<K2> row = k1 == null ? null : rows.get(k1);
+        return row == null ? 0L : row.totalCount.sum();
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * <p>This method is thread-safe and can be used concurrently with other increments and merges.</p>
+     */
+    @Override
+    public ConcurrentCountingMatrix<K1,K2> addAll(final CountingMatrix<K1,K2> matrix) {
+        super.addAll(matrix);
+        return this;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public String toString() {
+        final StringBuilder sparseMatrix = new StringBuilder("{");
+        final StringBuilder totalCounts = new StringBuilder("{");
+        boolean first = true;
+        for (final Map.Entry<K1,Row<K2>> entry : rows.entrySet()) {
+            if (!first) {
+                sparseMatrix.append(", ");
+                totalCounts.append(", ");
+            }
+            sparseMatrix.append(entry.getKey()).append('=').append(entry.getValue().cells);
+            totalCounts.append(entry.getKey()).append('=').append(entry.getValue().totalCount);
+            first = false;
+        }
+        sparseMatrix.append('}');
+        totalCounts.append('}');
+        return String.format("{sparseMatrix=%s, totalCounts=%s}",
+            sparseMatrix, totalCounts);
+    }
+}
@@ -0,0 +1,94 @@
+package io.github.hhromic.uimr.stats;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * This class implements a thread-safe fixed-memory log-linear histogram for {@code long} data values.
+ *
+ * <p>This histogram has the same bucketing scheme as {@link LongHistogram}, but its counts are kept
+ * in an {@code AtomicLongArray}, the total count in a {@code LongAdder} and the minimum and maximum
+ * values in {@code LongAccumulator}s. Therefore, values can be recorded from many threads without
+ * locking. Queries are computed over the live counts, so they are only exact once recording stops.</p>
+ *
+ * @author Hugo Hromic
+ * @since 4.0
+ * @see LongHistogram
+ */
+public class ConcurrentLongHistogram extends LongHistogram {
+    private final AtomicLongArray counts;
+    private final LongAdder totalCount;
+    private final LongAccumulator min;
+    private final LongAccumulator max;
+
+    /**
+     * Creates a new {@code ConcurrentLongHistogram} object.
+     *
+     * @param highestTrackableValue the highest value to be recorded, at least 2
+     * @param significantDigits the number of significant decimal digits to keep, from 1 to 5
+     * @throws IllegalArgumentException if any of the parameters is out of range
+     */
+    public ConcurrentLongHistogram(final long highestTrackableValue, final int significantDigits) {
+        super(highestTrackableValue, significantDigits, false);
+        counts = new AtomicLongArray(getCountsLength());
+        totalCount = new LongAdder();
+        min = new LongAccumulator(Math::min, Long.MAX_VALUE);
+        max = new LongAccumulator(Math::max, Long.MIN_VALUE);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    protected long getCountAt(final int index) {
+        return counts.get(index);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    protected void addCountAt(final int index, final long value, final long count) {
+        counts.addAndGet(index, count);
+        totalCount.add(count);
+        min.accumulate(value);
+        max.accumulate(value);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public long getTotalCount() {
+        return totalCount.sum();
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public long getMin() {
+        return min.get();
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public long getMax() {
+        return max.get();
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * <p>This method is thread-safe and lock-free.</p>
+     */
+    @Override
+    public ConcurrentLongHistogram recordValue(final long value, final long count) {
+        super.recordValue(value, count);
+        return this;
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * <p>This method is thread-safe and lock-free.</p>
+     */
+    @Override
+    public ConcurrentLongHistogram recordValue(final long value) {
+        super.recordValue(value, 1L);
+        return this;
+    }
+}
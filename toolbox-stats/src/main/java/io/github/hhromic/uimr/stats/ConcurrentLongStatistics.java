@@ -0,0 +1,206 @@
+package io.github.hhromic.uimr.stats;
+
+/**
+ * This class implements thread-safe Statistics for {@code Long} data values.
+ *
+ * <p>The data is recorded into lock-free striped cells. Each cell is an immutable record of the
+ * count, accumulators, minimum and maximum of the data values recorded into it, replaced with a
+ * single CAS on every update, and threads that fail a CAS move to another stripe, so adding data
+ * never blocks. Readers combine all the cells without locking, and every data value is either
+ * fully included in a reading or not at all, so the count, accumulators and extremes of a
+ * {@link #snapshot()} always belong to the same set of data values.</p>
+ *
+ * <p>The number of data values is tracked internally, use {@link #getCount()}, {@link #getMean()},
+ * {@link #getVariance()} and {@link #getStdDeviation()} to get consistent results.</p>
+ *
+ * @author Hugo Hromic
+ * @since 4.0
+ * @see Statistics
+ * @see LongStatistics
+ */
+public class ConcurrentLongStatistics implements Statistics<Long> {
+    private final StripedCells<Cell> cells;
+
+    /** Immutable record of the data values recorded into a cell. */
+    static final class Cell {
+        static final Cell EMPTY = new Cell(0L, 0L, 0L, Long.MAX_VALUE, Long.MIN_VALUE);
+
+        final long count;
+        final long accumulator;
+        final long squaredAccumulator;
+        final long min;
+        final long max;
+
+        Cell(final long count, final long accumulator, final long squaredAccumulator, final long min, final long max) {
+            this.count = count;
+            this.accumulator = accumulator;
+            this.squaredAccumulator = squaredAccumulator;
+            this.min = min;
+            this.max = max;
+        }
+
+        Cell merge(final Cell cell) {
+            return new Cell(count + cell.count, accumulator + cell.accumulator,
+                squaredAccumulator + cell.squaredAccumulator, Math.min(min, cell.min), Math.max(max, cell.max));
+        }
+    }
+
+    /** Creates a new {@code ConcurrentLongStatistics} object. */
+    public ConcurrentLongStatistics() {
+        cells = new StripedCells<Cell>(Cell.EMPTY, Cell::merge);
+    }
+
+    /** Combines all the cells into a new one. */
+    Cell total() {
+        return cells.get();
+    }
+
+    /**
+     * Takes a snapshot of the current statistics.
+     *
+     * @return a new non thread-safe statistics object with the current values
+     */
+    public LongStatistics snapshot() {
+        final Cell total = total();
+        return new LongStatistics(total.accumulator, total.squaredAccumulator, total.min, total.max);
+    }
+
+    /**
+     * Gets the number of data values seen so far.
+     *
+     * @return the number of data values seen so far
+     */
+    public long getCount() {
+        return total().count;
+    }
+
+    /** {@inheritDoc} */
+    public Long getAccumulator() {
+        return total().accumulator;
+    }
+
+    /** {@inheritDoc} */
+    public Long getSquaredAccumulator() {
+        return total().squaredAccumulator;
+    }
+
+    /** {@inheritDoc} */
+    public Long getMin() {
+        return total().min;
+    }
+
+    /** {@inheritDoc} */
+    public Long getMax() {
+        return total().max;
+    }
+
+    /** {@inheritDoc} */
+    public double getMean(final long n) {
+        return total().accumulator * 1.0 / n;
+    }
+
+    /** {@inheritDoc} */
+    public double getVariance(final long n) {
+        final Cell total = total();
+        final double mean = total.accumulator * 1.0 / n;
+        return Math.max(0.0, (total.squaredAccumulator * 1.0 / n) - (mean * mean));
+    }
+
+    /** {@inheritDoc} */
+    public double getStdDeviation(final long n) {
+        return Math.sqrt(getVariance(n));
+    }
+
+    /**
+     * Gets the mean of the data seen so far, using the internal count.
+     *
+     * @return the mean of the data seen so far, or NaN if there is no data
+     */
+    public double getMean() {
+        final Cell total = total();
+        return total.count == 0L ? Double.NaN : total.accumulator * 1.0 / total.count;
+    }
+
+    /**
+     * Gets the variance of the data seen so far, using the internal count.
+     *
+     * @return the variance of the data seen so far, or NaN if there is no data
+     */
+    public double getVariance() {
+        final Cell total = total();
+        if (total.count == 0L)
+            return Double.NaN;
+        final double mean = total.accumulator * 1.0 / total.count;
+        return Math.max(0.0, (total.squaredAccumulator * 1.0 / total.count) - (mean * mean));
+    }
+
+    /**
+     * Gets the standard deviation of the data seen so far, using the internal count.
+     *
+     * @return the standard deviation of the data seen so far, or NaN if there is no data
+     */
+    public double getStdDeviation() {
+        return Math.sqrt(getVariance());
+    }
+
+    /**
+     * Adds a new data value point without boxing.
+     *
+     * @param data the data point to add
+     * @return this same object
+     */
+    public ConcurrentLongStatistics add(final long data) {
+        cells.accumulate(new Cell(1L, data, data * data, data, data));
+        return this;
+    }
+
+    /** {@inheritDoc}
+     * @throws NullPointerException if the data is null
+     */
+    public ConcurrentLongStatistics add(final Long data) {
+        if (data == null)
+            throw new NullPointerException();
+        return add(data.longValue());
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * <p>The internal count is only updated if the statistics object is a {@code ConcurrentLongStatistics},
+     * otherwise use {@link #addAll(Statistics, long)}.</p>
+     *
+     * @throws NullPointerException if the statistics is null
+     */
+    public ConcurrentLongStatistics addAll(final Statistics<Long> statistics) {
+        if (statistics == null)
+            throw new NullPointerException();
+        if (statistics instanceof ConcurrentLongStatistics) {
+            cells.accumulate(((ConcurrentLongStatistics)statistics).total());
+            return this;
+        }
+        return addAll(statistics, 0L);
+    }
+
+    /**
+     * Adds all data from a statistics object to this statistics, with its number of data values.
+     *
+     * @param statistics statistics object to be added to this statistics
+     * @param n the number of data values of the statistics object
+     * @return this same object
+     * @throws NullPointerException if the statistics is null
+     */
+    public ConcurrentLongStatistics addAll(final Statistics<Long> statistics, final long n) {
+        if (statistics == null)
+            throw new NullPointerException();
+        cells.accumulate(new Cell(n, statistics.getAccumulator(), statistics.getSquaredAccumulator(),
+            statistics.getMin(), statistics.getMax()));
+        return this;
+    }
+
+    /** {@inheritDoc} */
+    public String toString() {
+        final Cell total = total();
+        return String.format("{count=%d, accumulator=%d, squaredAccumulator=%d, min=%d, max=%d}",
+            total.count, total.accumulator, total.squaredAccumulator, total.min, total.max);
+    }
+}
@@ -0,0 +1,105 @@
+package io.github.hhromic.uimr.stats;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * This class implements a thread-safe fixed-size uniform sample of a data stream.
+ *
+ * <p>This sampler has the same semantics as {@link ReservoirSampler} but can be shared by many
+ * producer threads. Data elements are numbered with an atomic counter and the position of the next
+ * data element that can enter the sample is published through a {@code volatile} field. Data
+ * elements before that position are skipped without locking, so once the reservoir is full almost
+ * every data element costs a single atomic increment. The remaining data elements are sampled
+ * under a small lock, where the position is checked again: a data element that passed the lock-free
+ * check but is overtaken by a later data element that moves the next position past it is skipped,
+ * exactly as if it had arrived after the position was published. Data elements are never moved to
+ * another position, so every position enters the sample with the probability of the sequential
+ * algorithm, up to the order in which racing data elements take the lock.</p>
+ *
+ * @author Hugo Hromic
+ * @since 4.0
+ * @see ReservoirSampler
+ */
+public class ConcurrentReservoirSampler<E> extends ReservoirSampler<E> {
+    private final AtomicLong counter = new AtomicLong();
+    private final Lock lock = new ReentrantLock();
+    private volatile long nextIndex = 1L;
+
+    /**
+     * Creates a new {@code ConcurrentReservoirSampler} object.
+     *
+     * @param k the size (k) of the sample
+     * @throws IllegalArgumentException if {@code k} is lower than 1
+     */
+    public ConcurrentReservoirSampler(final int k) {
+        super(k);
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * <p>This method is thread-safe.</p>
+     */
+    @Override
+    public long getCount() {
+        return counter.get();
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * <p>This method is thread-safe.</p>
+     */
+    @Override
+    public List<E> getSample() {
+        lock.lock();
+        try {
+            return super.getSample();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * <p>This method is thread-safe. Data elements that can not enter the sample are skipped without locking.</p>
+     */
+    @Override
+    public ConcurrentReservoirSampler<E> add(final E item) {
+        final long index = counter.incrementAndGet();
+        if (index < nextIndex)
+            return this;
+        lock.lock();
+        try {
+            // Another data element may have taken the lock first and moved the next position past this one
+            if (index >= getNextIndex())
+                offer(item, index);
+            nextIndex = getNextIndex();
+        } finally {
+            lock.unlock();
+        }
+        return this;
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * <p>This method is thread-safe. The given sampler must not be modified concurrently.</p>
+     */
+    @Override
+    public ConcurrentReservoirSampler<E> addAll(final ReservoirSampler<E> sampler) {
+        lock.lock();
+        try {
+            super.addAll(sampler);
+            counter.addAndGet(sampler.getCount());
+            nextIndex = getNextIndex();
+        } finally {
+            lock.unlock();
+        }
+        return this;
+    }
+}
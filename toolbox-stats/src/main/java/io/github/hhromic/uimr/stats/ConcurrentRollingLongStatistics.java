@@ -0,0 +1,208 @@
+package io.github.hhromic.uimr.stats;
+
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.LongSupplier;
+
+import io.github.hhromic.uimr.stats.ConcurrentLongStatistics.Cell;
+
+/**
+ * This class implements thread-safe Statistics for {@code long} data values over a rolling time window.
+ *
+ * <p>This class has the same semantics as {@link RollingLongStatistics} but recording never blocks.
+ * The ring is an {@code AtomicReferenceArray} of immutable-epoch buckets, each holding the same
+ * lock-free striped cells as {@link ConcurrentLongStatistics}, with their own count. When a recording thread finds a bucket of an
+ * expired interval, it replaces it with a fresh bucket using a single CAS, so rotation is O(1) and
+ * shared by whichever thread gets there first. A recording thread that raced with such a rotation
+ * and added to the retired bucket records its data value again into the current one. Readers
+ * merge the cells of the buckets of the window on demand, in O(number of buckets), into a single
+ * immutable record.</p>
+ *
+ * @author Hugo Hromic
+ * @since 4.0
+ * @see RollingLongStatistics
+ * @see ConcurrentLongStatistics
+ */
+public class ConcurrentRollingLongStatistics {
+    private final LongSupplier clock;
+    private final long interval;
+    private final int numBuckets;
+    private final AtomicReferenceArray<Bucket> buckets;
+
+    /** Bucket of the data values of one interval. */
+    private static class Bucket {
+        final long epoch;
+        final StripedCells<Cell> cells = new StripedCells<Cell>(Cell.EMPTY, Cell::merge);
+
+        Bucket(final long epoch) {
+            this.epoch = epoch;
+        }
+    }
+
+    /**
+     * Creates a new {@code ConcurrentRollingLongStatistics} object using the system clock in milliseconds.
+     *
+     * @param window the length of the window in milliseconds
+     * @param numBuckets the number of buckets the window is split into
+     * @throws IllegalArgumentException if the window is shorter than the number of buckets
+     */
+    public ConcurrentRollingLongStatistics(final long window, final int numBuckets) {
+        this(window, numBuckets, System::currentTimeMillis);
+    }
+
+    /**
+     * Creates a new {@code ConcurrentRollingLongStatistics} object.
+     *
+     * @param window the length of the window in time units of the clock
+     * @param numBuckets the number of buckets the window is split into
+     * @param clock the time source
+     * @throws IllegalArgumentException if the window is shorter than the number of buckets
+     * @throws NullPointerException if the clock is null
+     */
+    public ConcurrentRollingLongStatistics(final long window, final int numBuckets, final LongSupplier clock) {
+        if (numBuckets < 1 || window < numBuckets)
+            throw new IllegalArgumentException(String.format("window=%d, numBuckets=%d", window, numBuckets));
+        if (clock == null)
+            throw new NullPointerException("clock");
+        this.clock = clock;
+        this.numBuckets = numBuckets;
+        interval = window / numBuckets;
+        buckets = new AtomicReferenceArray<Bucket>(numBuckets);
+    }
+
+    /**
+     * Gets the length of the buckets in time units of the clock.
+     *
+     * @return the length of the buckets
+     */
+    public long getInterval() {
+        return interval;
+    }
+
+    /**
+     * Gets the number of buckets the window is split into.
+     *
+     * @return the number of buckets
+     */
+    public int getNumBuckets() {
+        return numBuckets;
+    }
+
+    /**
+     * Adds a new data value to the current interval.
+     *
+     * <p>This method is thread-safe and lock-free.</p>
+     *
+     * @param data the data value to add
+     * @return this same object
+     */
+    public ConcurrentRollingLongStatistics add(final long data) {
+        while (true) {
+            final long epoch = Math.floorDiv(clock.getAsLong(), interval);
+            final int index = (int)Math.floorMod(epoch, (long)numBuckets);
+            Bucket bucket = buckets.get(index);
+            while (bucket == null || bucket.epoch < epoch) {
+                final Bucket fresh = new Bucket(epoch);
+                if (buckets.compareAndSet(index, bucket, fresh))
+                    bucket = fresh;
+                else
+                    bucket = buckets.get(index);
+            }
+            // A late thread whose bucket was already rotated records into the newer interval
+            bucket.cells.accumulate(new Cell(1L, data, data * data, data, data));
+            // Retry if the bucket was retired while adding, readers would never see the data value
+            if (buckets.get(index) == bucket)
+                return this;
+        }
+    }
+
+    /** Combines the buckets of the current window, with their counts. */
+    private Cell window() {
+        final long epoch = Math.floorDiv(clock.getAsLong(), interval);
+        Cell window = Cell.EMPTY;
+        for (int i=0; i<numBuckets; i++) {
+            final Bucket bucket = buckets.get(i);
+            if (bucket != null && bucket.epoch > epoch - numBuckets)
+                window = window.merge(bucket.cells.get());
+        }
+        return window;
+    }
+
+    /**
+     * Gets the statistics of the data values in the window.
+     *
+     * <p>Use {@link #getCount()} as the number of data values for the returned statistics.</p>
+     *
+     * @return a new statistics object with the data values in the window
+     */
+    public LongStatistics getStatistics() {
+        final Cell window = window();
+        return new LongStatistics(window.accumulator, window.squaredAccumulator, window.min, window.max);
+    }
+
+    /**
+     * Gets the number of data values in the window.
+     *
+     * @return the number of data values in the window
+     */
+    public long getCount() {
+        return window().count;
+    }
+
+    /**
+     * Gets the mean of the data values in the window.
+     *
+     * @return the mean of the data values in the window, or NaN if there are none
+     */
+    public double getMean() {
+        final Cell window = window();
+        return window.count == 0L ? Double.NaN : window.accumulator * 1.0 / window.count;
+    }
+
+    /**
+     * Gets the variance of the data values in the window.
+     *
+     * @return the variance of the data values in the window, or NaN if there are none
+     */
+    public double getVariance() {
+        final Cell window = window();
+        if (window.count == 0L)
+            return Double.NaN;
+        final double mean = window.accumulator * 1.0 / window.count;
+        return Math.max(0.0, (window.squaredAccumulator * 1.0 / window.count) - (mean * mean));
+    }
+
+    /**
+     * Gets the standard deviation of the data values in the window.
+     *
+     * @return the standard deviation of the data values in the window, or NaN if there are none
+     */
+    public double getStdDeviation() {
+        return Math.sqrt(getVariance());
+    }
+
+    /**
+     * Gets the maximum data value in the window.
+     *
+     * @return the maximum data value in the window, or {@code Long.MIN_VALUE} if there are none
+     */
+    public long getMax() {
+        return window().max;
+    }
+
+    /**
+     * Gets the minimum data value in the window.
+     *
+     * @return the minimum data value in the window, or {@code Long.MAX_VALUE} if there are none
+     */
+    public long getMin() {
+        return window().min;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public String toString() {
+        final Cell window = window();
+        return String.format("{interval=%d, numBuckets=%d, count=%d, accumulator=%d, squaredAccumulator=%d, min=%d, max=%d}",
+            interval, numBuckets, window.count, window.accumulator, window.squaredAccumulator, window.min, window.max);
+    }
+}
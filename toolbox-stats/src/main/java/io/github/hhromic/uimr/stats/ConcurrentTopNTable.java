@@ -0,0 +1,145 @@
+package io.github.hhromic.uimr.stats;
+
+import java.util.List;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * This class handles a thread-safe top-n data table.
+ *
+ * <p>This table has the same semantics as {@link TopNTable} but can be shared by many producer
+ * threads. Writers apply their changes under a small lock in O(log n), and then publish an
+ * immutable copy-on-write array of the sorted entries through a {@code volatile} field, in O(n)
+ * array copying per change. Updates that do not change the table (same value for a key in the
+ * table, or new keys whose values are not better than the last entry of a full table) are rejected
+ * against the published array without locking.</p>
+ *
+ * <p>Readers never lock: {@link #getEntry(Comparable)} reads the {@code ConcurrentHashMap} key index
+ * and {@link #getEntries()} copies the last published array, which is always a consistent
+ * snapshot of the table.</p>
+ *
+ * @author Hugo Hromic
+ * @since 4.0
+ * @see TopNTable
+ */
+public class ConcurrentTopNTable<K extends Comparable<K>,V extends Comparable<V>> extends TopNTable<K,V> {
+    private final Lock lock = new ReentrantLock();
+    private volatile Entry<K,V>[] snapshot;
+
+    /** Creates a new {@code ConcurrentTopNTable} object with default cap (n) of 10. */
+    public ConcurrentTopNTable() {
+        this(10);
+    }
+
+    /**
+     * Creates a new {@code ConcurrentTopNTable} object.
+     *
+     * @param n the cap (n) of the top-n data table
+     */
+    @SuppressWarnings("unchecked")
+    public ConcurrentTopNTable(final int n) {
+        super(n, new ConcurrentHashMap<K,Entry<K,V>>());
+        snapshot = (Entry<K,V>[])new Entry[0];
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * <p>This method is thread-safe and does not lock, the returned list is a copy of the last
+     * published snapshot of the table.</p>
+     */
+    @Override
+    public List<Entry<K,V>> getEntries() {
+        return new ArrayList<Entry<K,V>>(Arrays.asList(snapshot));
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * <p>This method is thread-safe and does not lock.</p>
+     */
+    @Override
+    public Entry<K,V> getEntry(final K key) {
+        return super.getEntry(key);
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * <p>This method is thread-safe. Updates that do not change the table are rejected without locking.</p>
+     */
+    @Override
+    public ConcurrentTopNTable<K,V> update(final K key, final V value) {
+        if (key == null || value == null)
+            throw new NullPointerException(key == null ? "key":"value");
+
+        // Lock-free rejection of updates that can not change the table
+        final Entry<K,V> oldEntry = super.getEntry(key);
+        if (oldEntry != null) {
+            if (oldEntry.getValue().equals(value))
+                return this;
+        } else {
+            final Entry<K,V>[] current = snapshot;
+            if (current.length >= getN()) {
+                if (current.length == 0)
+                    return this;
+                final Entry<K,V> lastEntry = current[current.length - 1];
+                final int cmp = value.compareTo(lastEntry.getValue());
+                if (cmp < 0 || (cmp == 0 && key.compareTo(lastEntry.getKey()) < 0))
+                    return this;
+            }
+        }
+
+        lock.lock();
+        try {
+            final Entry<K,V> before = super.getEntry(key);
+            super.update(key, value);
+            // Every change of the table puts a new entry for the updated key
+            final Entry<K,V> after = super.getEntry(key);
+            if (after != before)
+                snapshot = publish(snapshot, before, after);
+        } finally {
+            lock.unlock();
+        }
+        return this;
+    }
+
+    /**
+     * Copies the sorted entries of the table with the entry of a key replaced, evicting the last
+     * entry if the cap of the table is exceeded.
+     */
+    private Entry<K,V>[] publish(final Entry<K,V>[] current, final Entry<K,V> before, final Entry<K,V> after) {
+        final int removed = before == null ? -1 : Arrays.binarySearch(current, before);
+        final int length = before == null ? current.length : current.length - 1;
+        final Entry<K,V>[] remaining = Arrays.copyOf(current, length);
+        if (removed >= 0)
+            System.arraycopy(current, removed + 1, remaining, removed, length - removed);
+        final int inserted = -Arrays.binarySearch(remaining, after) - 1;
+        final Entry<K,V>[] next = Arrays.copyOf(remaining, Math.min(length + 1, getN()));
+        if (inserted < next.length) {
+            System.arraycopy(remaining, inserted, next, inserted + 1, next.length - inserted - 1);
+            next[inserted] = after;
+        }
+        return next;
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * <p>This method is thread-safe.</p>
+     */
+    @Override
+    public ConcurrentTopNTable<K,V> addAll(final TopNTable<K,V> topNTable) {
+        super.addAll(topNTable);
+        return this;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public String toString() {
+        return String.format("{n=%d, entries=%s}", getN(), getEntries());
+    }
+}
@@ -0,0 +1,99 @@
+package io.github.hhromic.uimr.stats;
+
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * This class implements a thread-safe fixed-size weighted sample of a data stream.
+ *
+ * <p>This sampler has the same semantics as {@link WeightedReservoirSampler} but can be shared by
+ * many producer threads. The smallest key of the full sample is published through a {@code volatile}
+ * field, so data elements whose key can not enter the sample are rejected without locking and only
+ * cost a random number and a {@code LongAdder} increment. The remaining data elements are sampled
+ * under a small lock.</p>
+ *
+ * @author Hugo Hromic
+ * @since 4.0
+ * @see WeightedReservoirSampler
+ */
+public class ConcurrentWeightedReservoirSampler<E> extends WeightedReservoirSampler<E> {
+    private final LongAdder counter = new LongAdder();
+    private final Lock lock = new ReentrantLock();
+    private volatile double threshold = Double.NEGATIVE_INFINITY;
+
+    /**
+     * Creates a new {@code ConcurrentWeightedReservoirSampler} object.
+     *
+     * @param k the size (k) of the sample
+     * @throws IllegalArgumentException if {@code k} is lower than 1
+     */
+    public ConcurrentWeightedReservoirSampler(final int k) {
+        super(k);
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * <p>This method is thread-safe.</p>
+     */
+    @Override
+    public long getCount() {
+        return counter.sum();
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * <p>This method is thread-safe.</p>
+     */
+    @Override
+    public List<E> getSample() {
+        lock.lock();
+        try {
+            return super.getSample();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * <p>This method is thread-safe. Data elements that can not enter the sample are rejected without locking.</p>
+     */
+    @Override
+    public ConcurrentWeightedReservoirSampler<E> add(final E item, final double weight) {
+        final double key = nextKey(weight);
+        counter.increment();
+        if (key <= threshold)
+            return this;
+        lock.lock();
+        try {
+            offer(item, key);
+            threshold = getThreshold();
+        } finally {
+            lock.unlock();
+        }
+        return this;
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * <p>This method is thread-safe. The given sampler must not be modified concurrently.</p>
+     */
+    @Override
+    public ConcurrentWeightedReservoirSampler<E> addAll(final WeightedReservoirSampler<E> sampler) {
+        lock.lock();
+        try {
+            super.addAll(sampler);
+            counter.add(sampler.getCount());
+            threshold = getThreshold();
+        } finally {
+            lock.unlock();
+        }
+        return this;
+    }
+}
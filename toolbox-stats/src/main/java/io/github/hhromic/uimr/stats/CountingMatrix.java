@@ -94,6 +94,35 @@ public class CountingMatrix<K1,K2> {
         return 0L;
     }
 
+    /**
+     * Adds all counts from a counting matrix object to this counting matrix.
+     *
+     * @param matrix counting matrix object to be added to this counting matrix
+     * @return this same object
+     * @throws NullPointerException if the counting matrix is null
+     */
+    public CountingMatrix<K1,K2> addAll(final CountingMatrix<K1,K2> matrix) {
+        if (matrix == null)
+            throw new NullPointerException();
+        for (final K1 k1 : matrix.getKeys())
+            for (final K2 k2 : matrix.getKeys(k1))
+                increment(k1, k2, matrix.getCount(k1, k2));
+        return this;
+    }
+
+    /**
+     * Freezes the current contents of this counting matrix into a compressed sparse row form.
+     *
+     * <p>The returned matrix is an immutable copy, further increments to this matrix are not
+     * reflected in it.</p>
+     *
+     * @return a compressed sparse row copy of this counting matrix
+     * @see CompressedCountingMatrix
+     */
+    public CompressedCountingMatrix<K1,K2> compact() {
+        return new CompressedCountingMatrix<K1,K2>(this);
+    }
+
     /** {@inheritDoc} */
     @Override
     public String toString() {
@@ -0,0 +1,192 @@
+package io.github.hhromic.uimr.stats;
+
+import java.util.Arrays;
+import java.util.Map;
+
+/**
+ * Statistical measures computed over {@link Distribution} objects.
+ *
+ * <p>All measures work directly on the internal counts of the distributions and return primitive
+ * values. Apart from {@link #giniCoefficient(Distribution)}, which needs the counts sorted, no
+ * counts are copied. Counts are expected to be non-negative, information measures are in bits.</p>
+ *
+ * <p><strong>Example usage:</strong></p>
+ *
+ * <pre><code>
+ * final double entropy = DistributionMeasures.entropy(hashtags);
+ * final double divergence = DistributionMeasures.jensenShannon(previousHour, currentHour);
+ * </code></pre>
+ *
+ * @author Hugo Hromic
+ * @since 4.0
+ * @see Distribution
+ */
+public class DistributionMeasures {
+    private static final double LN2 = Math.log(2.0);
+
+    private DistributionMeasures() {
+    }
+
+    /** Gets {@code c * ln(c)}, with the convention that {@code 0 * ln(0)} is zero. */
+    private static double xlogx(final long c) {
+        return c == 0L ? 0.0 : c * Math.log(c);
+    }
+
+    /**
+     * Computes the Shannon entropy of a distribution in a single pass.
+     *
+     * @param distribution the distribution
+     * @return the entropy in bits, or zero if the distribution is empty
+     * @throws NullPointerException if the distribution is null
+     */
+    public static double entropy(final Distribution<?> distribution) {
+        final long total = distribution.getTotalCount();
+        if (total == 0L)
+            return 0.0;
+        double sum = 0.0;
+        for (final long count : distribution.getDistribution().values())
+            sum += xlogx(count);
+        // H = ln(T) - sum(c ln c) / T
+        return Math.max(0.0, (Math.log(total) - sum / total) / LN2);
+    }
+
+    /**
+     * Computes the Shannon entropy of a distribution using a parallel stream over its counts.
+     *
+     * <p>Use this method for very large distributions only, for small ones {@link #entropy(Distribution)}
+     * is faster.</p>
+     *
+     * @param distribution the distribution
+     * @return the entropy in bits, or zero if the distribution is empty
+     * @throws NullPointerException if the distribution is null
+     */
+    public static double parallelEntropy(final Distribution<?> distribution) {
+        final long total = distribution.getTotalCount();
+        if (total == 0L)
+            return 0.0;
+        final double sum = distribution.getDistribution().values().parallelStream()
+            .mapToDouble(DistributionMeasures::xlogx)
+            .sum();
+        return Math.max(0.0, (Math.log(total) - sum / total) / LN2);
+    }
+
+    /**
+     * Computes the Gini impurity of a distribution, the probability that two elements drawn with
+     * replacement belong to different classes.
+     *
+     * @param distribution the distribution
+     * @return the Gini impurity, or zero if the distribution is empty
+     * @throws NullPointerException if the distribution is null
+     */
+    public static double giniImpurity(final Distribution<?> distribution) {
+        final long total = distribution.getTotalCount();
+        if (total == 0L)
+            return 0.0;
+        double sum = 0.0;
+        for (final long count : distribution.getDistribution().values()) {
+            final double p = count * 1.0 / total;
+            sum += p * p;
+        }
+        return 1.0 - sum;
+    }
+
+    /**
+     * Computes the Gini coefficient of the counts of a distribution, a measure of how unequally
+     * the counts are spread among the elements.
+     *
+     * <p>The counts are copied into a primitive array to be sorted.</p>
+     *
+     * @param distribution the distribution
+     * @return the Gini coefficient from 0 (all counts equal) to almost 1, or zero if the distribution is empty
+     * @throws NullPointerException if the distribution is null
+     */
+    public static double giniCoefficient(final Distribution<?> distribution) {
+        final long total = distribution.getTotalCount();
+        final Map<?,Long> map = distribution.getDistribution();
+        if (total == 0L || map.isEmpty())
+            return 0.0;
+        final long[] counts = new long[map.size()];
+        int n = 0;
+        for (final long count : map.values())
+            counts[n++] = count;
+        Arrays.sort(counts);
+        // G = sum((2i - n - 1) * c_i) / (n * T), with i from 1 over the ascending counts
+        double sum = 0.0;
+        for (int i=0; i<n; i++)
+            sum += (2.0 * (i + 1) - n - 1) * counts[i];
+        return sum / ((double)n * total);
+    }
+
+    /**
+     * Computes the Kullback-Leibler divergence of a distribution from another distribution.
+     *
+     * <p>Only the elements of {@code p} are visited. If an element of {@code p} is missing in
+     * {@code q}, the computation stops and the divergence is infinite.</p>
+     *
+     * @param <E> the type of the distribution elements
+     * @param p the distribution
+     * @param q the reference distribution
+     * @return the divergence {@code KL(p || q)} in bits, or NaN if any distribution is empty
+     * @throws NullPointerException if any distribution is null
+     */
+    public static <E> double kullbackLeibler(final Distribution<E> p, final Distribution<E> q) {
+        final long pTotal = p.getTotalCount();
+        final long qTotal = q.getTotalCount();
+        if (pTotal == 0L || qTotal == 0L)
+            return Double.NaN;
+        final Map<E,Long> qMap = q.getDistribution();
+        double sum = 0.0;
+        for (final Map.Entry<E,Long> entry : p.getDistribution().entrySet()) {
+            final long pCount = entry.getValue();
+            if (pCount == 0L)
+                continue;
+            final Long qCount = qMap.get(entry.getKey());
+            if (qCount == null || qCount == 0L)
+                return Double.POSITIVE_INFINITY;
+            sum += pCount * Math.log((pCount * 1.0 / pTotal) / (qCount * 1.0 / qTotal));
+        }
+        return Math.max(0.0, sum / pTotal / LN2);
+    }
+
+    /**
+     * Computes the Jensen-Shannon divergence between two distributions.
+     *
+     * <p>Elements present in only one distribution contribute a closed-form term, so only the
+     * smaller of both key sets is visited and looked up in the other distribution.</p>
+     *
+     * @param <E> the type of the distribution elements
+     * @param p the first distribution
+     * @param q the second distribution
+     * @return the divergence {@code JS(p, q)} in bits, from 0 to 1, or NaN if any distribution is empty
+     * @throws NullPointerException if any distribution is null
+     */
+    public static <E> double jensenShannon(final Distribution<E> p, final Distribution<E> q) {
+        final long pTotal = p.getTotalCount();
+        final long qTotal = q.getTotalCount();
+        if (pTotal == 0L || qTotal == 0L)
+            return Double.NaN;
+        final boolean pSmaller = p.getDistribution().size() <= q.getDistribution().size();
+        final Map<E,Long> small = pSmaller ? p.getDistribution() : q.getDistribution();
+        final Map<E,Long> large = pSmaller ? q.getDistribution() : p.getDistribution();
+        final double smallTotal = pSmaller ? pTotal : qTotal;
+        final double largeTotal = pSmaller ? qTotal : pTotal;
+
+        // Shared elements contribute p ln(2p/(p+q)) + q ln(2q/(p+q)), the others (p + q) ln 2
+        double shared = 0.0;
+        double smallSharedMass = 0.0;
+        double largeSharedMass = 0.0;
+        for (final Map.Entry<E,Long> entry : small.entrySet()) {
+            final Long largeCount = large.get(entry.getKey());
+            if (largeCount == null || largeCount == 0L || entry.getValue() == 0L)
+                continue;
+            final double a = entry.getValue() / smallTotal;
+            final double b = largeCount / largeTotal;
+            final double m = (a + b) / 2.0;
+            shared += a * Math.log(a / m) + b * Math.log(b / m);
+            smallSharedMass += a;
+            largeSharedMass += b;
+        }
+        final double exclusive = Math.max(0.0, 2.0 - smallSharedMass - largeSharedMass) * LN2;
+        return Math.max(0.0, Math.min(1.0, (shared + exclusive) / 2.0 / LN2));
+    }
+}
@@ -1,13 +1,21 @@
 package io.github.hhromic.uimr.stats;
 
+import java.nio.DoubleBuffer;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
 /**
  * This class implements Statistics for {@code Double} data values.
  *
  * @author Hugo Hromic
  * @since 4.0
  * @see Statistics
+ * @see MomentStatistics
  */
 public class DoubleStatistics implements Statistics<Double> {
+    /** Minimum number of values for {@link #parallelAddAll(double[],int,int)} to split the work. */
+    public static final int PARALLEL_THRESHOLD = 1 << 16;
+
     private double accumulator;
     private double squaredAccumulator;
     private double min;
@@ -21,6 +29,21 @@ public class DoubleStatistics implements Statistics<Double> {
         max = -Double.MAX_VALUE;
     }
 
+    /**
+     * Creates a new {@code DoubleStatistics} object with given initial values.
+     *
+     * @param accumulator the initial value of the data accumulator
+     * @param squaredAccumulator the initial value of the squared data accumulator
+     * @param min the initial minimum data value
+     * @param max the initial maximum data value
+     */
+    DoubleStatistics(final double accumulator, final double squaredAccumulator, final double min, final double max) {
+        this.accumulator = accumulator;
+        this.squaredAccumulator = squaredAccumulator;
+        this.min = min;
+        this.max = max;
+    }
+
     /** {@inheritDoc} */
     public Double getAccumulator() {
         return accumulator;
@@ -57,6 +80,20 @@ public class DoubleStatistics implements Statistics<Double> {
         return Math.sqrt(getVariance(n));
     }
 
+    /**
+     * Adds a new data value point without boxing.
+     *
+     * @param data the data point to add
+     * @return this same object
+     */
+    public DoubleStatistics add(final double data) {
+        accumulator += data;
+        squaredAccumulator += data * data;
+        min = Math.min(min, data);
+        max = Math.max(max, data);
+        return this;
+    }
+
     /** {@inheritDoc}
      * @throws NullPointerException if the data is null
      */
@@ -70,6 +107,122 @@ public class DoubleStatistics implements Statistics<Double> {
         return this;
     }
 
+    /**
+     * Adds a range of data values from a primitive array.
+     *
+     * <p>This method does not box the data values and its loop is friendly to JIT auto-vectorization.</p>
+     *
+     * @param values the array of data values
+     * @param from the index of the first data value to add (inclusive)
+     * @param to the index of the last data value to add (exclusive)
+     * @return this same object
+     * @throws NullPointerException if the array is null
+     * @throws IndexOutOfBoundsException if the range is out of the array bounds
+     */
+    public DoubleStatistics addAll(final double[] values, final int from, final int to) {
+        if (values == null)
+            throw new NullPointerException();
+        if (from < 0 || to > values.length || from > to)
+            throw new IndexOutOfBoundsException(String.format("from=%d, to=%d, length=%d", from, to, values.length));
+        double sum = 0.0;
+        double squaredSum = 0.0;
+        double localMin = min;
+        double localMax = max;
+        for (int i=from; i<to; i++) {
+            final double data = values[i];
+            sum += data;
+            squaredSum += data * data;
+            localMin = Math.min(localMin, data);
+            localMax = Math.max(localMax, data);
+        }
+        accumulator += sum;
+        squaredAccumulator += squaredSum;
+        min = localMin;
+        max = localMax;
+        return this;
+    }
+
+    /**
+     * Adds all the remaining data values of a buffer.
+     *
+     * <p>The data values from the buffer position to its limit are added. The buffer position is not modified.</p>
+     *
+     * @param buffer the buffer of data values
+     * @return this same object
+     * @throws NullPointerException if the buffer is null
+     */
+    public DoubleStatistics addAll(final DoubleBuffer buffer) {
+        if (buffer == null)
+            throw new NullPointerException();
+        if (buffer.hasArray())
+            return addAll(buffer.array(), buffer.arrayOffset() + buffer.position(), buffer.arrayOffset() + buffer.limit());
+        double sum = 0.0;
+        double squaredSum = 0.0;
+        double localMin = min;
+        double localMax = max;
+        for (int i=buffer.position(); i<buffer.limit(); i++) {
+            final double data = buffer.get(i);
+            sum += data;
+            squaredSum += data * data;
+            localMin = Math.min(localMin, data);
+            localMax = Math.max(localMax, data);
+        }
+        accumulator += sum;
+        squaredAccumulator += squaredSum;
+        min = localMin;
+        max = localMax;
+        return this;
+    }
+
+    /** Fork-join task computing statistics over a range of an array. */
+    private static class AddAllTask extends RecursiveTask<DoubleStatistics> {
+        private static final long serialVersionUID = 1L;
+        private final double[] values;
+        private final int from;
+        private final int to;
+
+        AddAllTask(final double[] values, final int from, final int to) {
+            this.values = values;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected DoubleStatistics compute() {
+            if (to - from <= PARALLEL_THRESHOLD)
+                return new DoubleStatistics().addAll(values, from, to);
+            final int middle = (from + to) >>> 1;
+            final AddAllTask left = new AddAllTask(values, from, middle);
+            left.fork();
+            final DoubleStatistics right = new AddAllTask(values, middle, to).compute();
+            return right.addAll(left.join());
+        }
+    }
+
+    /**
+     * Adds a range of data values from a primitive array using the common {@code ForkJoinPool}.
+     *
+     * <p>Ranges longer than {@link #PARALLEL_THRESHOLD} are recursively split and computed in parallel,
+     * then the partial statistics are combined. Shorter ranges are added sequentially.</p>
+     *
+     * @param values the array of data values
+     * @param from the index of the first data value to add (inclusive)
+     * @param to the index of the last data value to add (exclusive)
+     * @return this same object
+     * @throws NullPointerException if the array is null
+     * @throws IndexOutOfBoundsException if the range is out of the array bounds
+     * @see #addAll(double[],int,int)
+     */
+    public DoubleStatistics parallelAddAll(final double[] values, final int from, final int to) {
+        if (values == null)
+            throw new NullPointerException();
+        if (from < 0 || to > values.length || from > to)
+            throw new IndexOutOfBoundsException(String.format("from=%d, to=%d, length=%d", from, to, values.length));
+        if (to - from <= PARALLEL_THRESHOLD)
+            return addAll(values, from, to);
+        return addAll(ForkJoinPool.commonPool().invoke(new AddAllTask(values, from, to)));
+    }
+
     /** {@inheritDoc}
      * @throws NullPointerException if the statistics is null
      */
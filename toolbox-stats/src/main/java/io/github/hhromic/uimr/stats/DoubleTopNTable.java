@@ -0,0 +1,186 @@
+package io.github.hhromic.uimr.stats;
+
+import java.util.List;
+import java.util.ArrayList;
+import java.util.Collections;
+
+/**
+ * This class handles a top-n data table with primitive {@code double} values.
+ *
+ * <p>This table has the same semantics and ordering as a {@code TopNTable<K,Double>}, but it is
+ * backed by an array min-heap with primitive {@code double} values and an open-addressing key
+ * position index. Therefore, updates are O(log n) and never allocate objects. The entries of the
+ * table are only materialised on demand by {@link #getEntries()} and {@link #getEntry(Comparable)}.</p>
+ *
+ * @author Hugo Hromic
+ * @since 4.0
+ * @see TopNTable
+ * @see LongTopNTable
+ */
+public class DoubleTopNTable<K extends Comparable<K>> {
+    private final int n;
+    private final Object[] keys;
+    private final double[] values;
+    private final KeyIndex<K> positions;
+    private int size;
+
+    /** Creates a new {@code DoubleTopNTable} object with default cap (n) of 10. */
+    public DoubleTopNTable() {
+        this(10);
+    }
+
+    /**
+     * Creates a new {@code DoubleTopNTable} object.
+     *
+     * @param n the cap (n) of the top-n data table
+     */
+    public DoubleTopNTable(final int n) {
+        this.n = n;
+        keys = new Object[n];
+        values = new double[n];
+        positions = new KeyIndex<K>(n);
+        size = 0;
+    }
+
+    @SuppressWarnings("unchecked")
+    private K keyAt(final int i) {
+        return (K)keys[i];
+    }
+
+    /** Checks if an element would be ranked below another element in the table. */
+    private static <K extends Comparable<K>> boolean isWorse(final K key1, final double value1, final K key2, final double value2) {
+        final int cmp = Double.compare(value1, value2);
+        return cmp < 0 || (cmp == 0 && key1.compareTo(key2) < 0);
+    }
+
+    private void set(final int i, final K key, final double value) {
+        keys[i] = key;
+        values[i] = value;
+        positions.put(key, i);
+    }
+
+    private void siftUp(int i) {
+        final K key = keyAt(i);
+        final double value = values[i];
+        while (i > 0) {
+            final int parent = (i - 1) >>> 1;
+            if (!isWorse(key, value, keyAt(parent), values[parent]))
+                break;
+            set(i, keyAt(parent), values[parent]);
+            i = parent;
+        }
+        set(i, key, value);
+    }
+
+    private void siftDown(int i) {
+        final K key = keyAt(i);
+        final double value = values[i];
+        while (true) {
+            int child = (i << 1) + 1;
+            if (child >= size)
+                break;
+            if (child + 1 < size && isWorse(keyAt(child + 1), values[child + 1], keyAt(child), values[child]))
+                child++;
+            if (!isWorse(keyAt(child), values[child], key, value))
+                break;
+            set(i, keyAt(child), values[child]);
+            i = child;
+        }
+        set(i, key, value);
+    }
+
+    /**
+     * Gets the cap (n) of the top-n data table.
+     *
+     * @return the cap (n) of the top-n table
+     */
+    public int getN() {
+        return n;
+    }
+
+    /**
+     * Gets a list of current entries from the top-n data table.
+     *
+     * <p>The returned list is created on demand and sorted like {@link TopNTable#getEntries()},
+     * modifications to this list are not reflected into the internal structure.</p>
+     *
+     * @return the list of current entries from the top-n data table
+     */
+    public List<TopNTable.Entry<K,Double>> getEntries() {
+        final List<TopNTable.Entry<K,Double>> entries = new ArrayList<TopNTable.Entry<K,Double>>(size);
+        for (int i=0; i<size; i++)
+            entries.add(new TopNTable.Entry<K,Double>(keyAt(i), values[i]));
+        Collections.sort(entries);
+        return entries;
+    }
+
+    /**
+     * Gets a particular entry from the top-n data table.
+     *
+     * @param key the key of the entry to get from the top-n data table
+     * @return the desired entry, or {@code null} if the key is not found
+     * @throws NullPointerException if the key is null
+     */
+    public TopNTable.Entry<K,Double> getEntry(final K key) {
+        if (key == null)
+            throw new NullPointerException();
+        final int i = positions.get(key);
+        return i < 0 ? null : new TopNTable.Entry<K,Double>(key, values[i]);
+    }
+
+    /**
+     * Updates a data element in the top-n data table.
+     *
+     * <p>If the data element is not found, it is inserted if it ranks above the current last element.</p>
+     *
+     * @param key the key for the data element to update or add
+     * @param value the value for the data element to update or add
+     * @return this same object
+     * @throws NullPointerException if the key is null
+     */
+    public DoubleTopNTable<K> update(final K key, final double value) {
+        if (key == null)
+            throw new NullPointerException("key");
+        final int i = positions.get(key);
+        if (i >= 0) {
+            final double oldValue = values[i];
+            values[i] = value;
+            final int cmp = Double.compare(value, oldValue);
+            if (cmp < 0)
+                siftUp(i);
+            else if (cmp > 0)
+                siftDown(i);
+        } else if (size < n) {
+            keys[size] = key;
+            values[size] = value;
+            siftUp(size++);
+        } else if (n > 0 && isWorse(keyAt(0), values[0], key, value)) {
+            positions.remove(keys[0]);
+            keys[0] = key;
+            values[0] = value;
+            siftDown(0);
+        }
+        return this;
+    }
+
+    /**
+     * Adds all data from a top-n data table object to this top-n data table.
+     *
+     * @param topNTable top-n data table object to be added to this top-n data table
+     * @return this same object
+     * @throws NullPointerException if the top-n data table is null
+     */
+    public DoubleTopNTable<K> addAll(final DoubleTopNTable<K> topNTable) {
+        if (topNTable == null)
+            throw new NullPointerException();
+        for (int i=0; i<topNTable.size; i++)
+            update(topNTable.keyAt(i), topNTable.values[i]);
+        return this;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public String toString() {
+        return String.format("{n=%d, entries=%s}", n, getEntries());
+    }
+}
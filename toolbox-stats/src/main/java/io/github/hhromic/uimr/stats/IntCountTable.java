@@ -0,0 +1,111 @@
+package io.github.hhromic.uimr.stats;
+
+/**
+ * Open-addressing hash table of {@code int} identifiers to primitive {@code long} counts.
+ *
+ * <p>This is the sparse storage behind {@link IntDistribution} and the rows of
+ * {@link IntCountingMatrix}. Its memory is proportional to the number of identifiers it holds, not
+ * to the largest identifier of the dictionary. Slots are exposed to the classes of this package for
+ * iteration: a slot is used when its key is not zero, and then holds the identifier plus one.</p>
+ *
+ * @author Hugo Hromic
+ * @since 4.0
+ * @see IntDistribution
+ * @see IntCountingMatrix
+ */
+final class IntCountTable {
+    private static final int INITIAL_CAPACITY = 4;
+
+    // Identifiers are stored plus one, so zero marks an empty slot
+    int[] keys;
+    long[] counts;
+    int size;
+    long totalCount;
+
+    /** Creates a new empty {@code IntCountTable} object. */
+    IntCountTable() {
+        keys = new int[INITIAL_CAPACITY];
+        counts = new long[INITIAL_CAPACITY];
+        size = 0;
+        totalCount = 0L;
+    }
+
+    /** Gets the home slot of an identifier for a power of two capacity mask. */
+    static int slot(final int id, final int mask) {
+        final int h = id * 0x9E3779B9;
+        return (h ^ (h >>> 16)) & mask;
+    }
+
+    /**
+     * Gets the slot of an identifier.
+     *
+     * @param id the identifier
+     * @return the slot of the identifier, or {@code -1} if it is not in the table
+     */
+    int indexOf(final int id) {
+        final int mask = keys.length - 1;
+        final int stored = id + 1;
+        int i = slot(id, mask);
+        int k;
+        while ((k = keys[i]) != 0) {
+            if (k == stored)
+                return i;
+            i = (i + 1) & mask;
+        }
+        return -1;
+    }
+
+    /**
+     * Gets the count of an identifier.
+     *
+     * @param id the identifier
+     * @return the count of the identifier, zero if it is not in the table
+     */
+    long getCount(final int id) {
+        final int i = indexOf(id);
+        return i < 0 ? 0L : counts[i];
+    }
+
+    /**
+     * Increments the count of an identifier, inserting it if needed.
+     *
+     * @param id the non-negative identifier
+     * @param amount the amount to increment the count
+     */
+    void increment(final int id, final long amount) {
+        final int mask = keys.length - 1;
+        final int stored = id + 1;
+        int i = slot(id, mask);
+        int k;
+        while ((k = keys[i]) != 0) {
+            if (k == stored) {
+                counts[i] += amount;
+                totalCount += amount;
+                return;
+            }
+            i = (i + 1) & mask;
+        }
+        keys[i] = stored;
+        counts[i] = amount;
+        totalCount += amount;
+        if (++size * 3 > keys.length * 2)
+            resize(keys.length << 1);
+    }
+
+    private void resize(final int capacity) {
+        final int[] oldKeys = keys;
+        final long[] oldCounts = counts;
+        final int mask = capacity - 1;
+        keys = new int[capacity];
+        counts = new long[capacity];
+        for (int j=0; j<oldKeys.length; j++) {
+            if (oldKeys[j] == 0)
+                continue;
+            int i = slot(oldKeys[j] - 1, mask);
+            while (keys[i] != 0)
+                i = (i + 1) & mask;
+            keys[i] = oldKeys[j];
+            counts[i] = oldCounts[j];
+        }
+    }
+}
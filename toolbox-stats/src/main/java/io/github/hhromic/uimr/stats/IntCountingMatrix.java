@@ -0,0 +1,270 @@
+package io.github.hhromic.uimr.stats;
+
+import java.util.Set;
+import java.util.AbstractSet;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Dictionary-encoded Counting Matrix class.
+ *
+ * <p>This class implements a counting sparse matrix whose keys are mapped to dense {@code int}
+ * identifiers by {@link KeyDictionary} objects, which can be shared with other matrices and
+ * distributions, or by both dimensions of this matrix. Rows are stored in an open-addressing table
+ * keyed by the first dimension identifier, and each row is a compact open-addressing table of second
+ * dimension identifiers to primitive {@code long} counts, so the memory of a matrix is proportional
+ * to its own rows and cells even when its dictionaries are shared. Once the keys are in the
+ * dictionaries, counting with {@link #increment(int, int, long)} does not hash any key, box any
+ * count or allocate.</p>
+ *
+ * <p>The generic methods of {@link CountingMatrix} are also supported, they encode the keys on the
+ * fly. Unlike {@link CountingMatrix}, this class does not accept {@code null} keys. This class is
+ * not thread-safe.</p>
+ *
+ * @author Hugo Hromic
+ * @since 4.0
+ * @see CountingMatrix
+ * @see KeyDictionary
+ */
+public class IntCountingMatrix<K1,K2> extends CountingMatrix<K1,K2> {
+    private final KeyDictionary<K1> rowDictionary;
+    private final KeyDictionary<K2> columnDictionary;
+    private final IntObjectTable<IntCountTable> rows;
+
+    /** Creates a new {@code IntCountingMatrix} object with its own dictionaries. */
+    public IntCountingMatrix() {
+        this(new KeyDictionary<K1>(), new KeyDictionary<K2>());
+    }
+
+    /**
+     * Creates a new {@code IntCountingMatrix} object.
+     *
+     * @param rowDictionary the dictionary of the first dimension keys, possibly shared
+     * @param columnDictionary the dictionary of the second dimension keys, possibly shared
+     * @throws NullPointerException if any of the dictionaries is null
+     */
+    public IntCountingMatrix(final KeyDictionary<K1> rowDictionary, final KeyDictionary<K2> columnDictionary) {
+        if (rowDictionary == null || columnDictionary == null)
+            throw new NullPointerException(rowDictionary == null ? "rowDictionary":"columnDictionary");
+        this.rowDictionary = rowDictionary;
+        this.columnDictionary = columnDictionary;
+        rows = new IntObjectTable<IntCountTable>();
+    }
+
+    private IntCountTable getRow(final int id1) {
+        return id1 < 0 ? null : rows.get(id1);
+    }
+
+    /**
+     * Gets the dictionary of the first dimension keys.
+     *
+     * @return the dictionary of the first dimension keys
+     */
+    public KeyDictionary<K1> getRowDictionary() {
+        return rowDictionary;
+    }
+
+    /**
+     * Gets the dictionary of the second dimension keys.
+     *
+     * @return the dictionary of the second dimension keys
+     */
+    public KeyDictionary<K2> getColumnDictionary() {
+        return columnDictionary;
+    }
+
+    /**
+     * Gets the count of a particular (k1,k2) identifier pair.
+     *
+     * @param id1 the identifier of the first dimension key
+     * @param id2 the identifier of the second dimension key
+     * @return the count of the identifier pair, zero if the pair is not found
+     */
+    public long getCount(final int id1, final int id2) {
+        final IntCountTable row = getRow(id1);
+        return row == null || id2 < 0 ? 0L : row.getCount(id2);
+    }
+
+    /**
+     * Increments the count for a particular (k1,k2) identifier pair.
+     *
+     * @param id1 the identifier of the first dimension key, as given by the row dictionary
+     * @param id2 the identifier of the second dimension key, as given by the column dictionary
+     * @param amount the amount to increment the count
+     * @throws IndexOutOfBoundsException if any of the identifiers is negative
+     */
+    public void increment(final int id1, final int id2, final long amount) {
+        if (id1 < 0 || id2 < 0)
+            throw new IndexOutOfBoundsException(String.format("id1=%d, id2=%d", id1, id2));
+        IntCountTable row = rows.get(id1);
+        if (row == null) {
+            row = new IntCountTable();
+            rows.put(id1, row);
+        }
+        row.increment(id2, amount);
+    }
+
+    /**
+     * Gets the total count for a particular first dimension identifier.
+     *
+     * @param id1 the identifier of the first dimension key
+     * @return the total count for the identifier, zero if it is not found
+     */
+    public long getTotalCount(final int id1) {
+        final IntCountTable row = getRow(id1);
+        return row == null ? 0L : row.totalCount;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public Set<K1> getKeys() {
+        return new AbstractSet<K1>() {
+            @Override
+            public int size() {
+                return rows.size;
+            }
+
+            @Override
+            public boolean contains(final Object key) {
+                return getRow(rowDictionary.getId(key)) != null;
+            }
+
+            @Override
+            public Iterator<K1> iterator() {
+                return new Iterator<K1>() {
+                    private final int[] snapshot = rows.keys;
+                    private int next = advance(0);
+
+                    private int advance(int i) {
+                        while (i < snapshot.length && snapshot[i] == 0)
+                            i++;
+                        return i;
+                    }
+
+                    @Override
+                    public boolean hasNext() {
+                        return next < snapshot.length;
+                    }
+
+                    @Override
+                    public K1 next() {
+                        if (next >= snapshot.length)
+                            throw new NoSuchElementException();
+                        final K1 key = rowDictionary.getKey(snapshot[next] - 1);
+                        next = advance(next + 1);
+                        return key;
+                    }
+                };
+            }
+        };
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public Set<K2> getKeys(final K1 k1) {
+        final IntCountTable row = getRow(rowDictionary.getId(k1));
+        if (row == null)
+            return null;
+        return new AbstractSet<K2>() {
+            @Override
+            public int size() {
+                return row.size;
+            }
+
+            @Override
+            public boolean contains(final Object key) {
+                final int id2 = columnDictionary.getId(key);
+                return id2 >= 0 && row.indexOf(id2) >= 0;
+            }
+
+            @Override
+            public Iterator<K2> iterator() {
+                return new Iterator<K2>() {
+                    private final int[] snapshot = row.keys;
+                    private int next = advance(0);
+
+                    private int advance(int i) {
+                        while (i < snapshot.length && snapshot[i] == 0)
+                            i++;
+                        return i;
+                    }
+
+                    @Override
+                    public boolean hasNext() {
+                        return next < snapshot.length;
+                    }
+
+                    @Override
+                    public K2 next() {
+                        if (next >= snapshot.length)
+                            throw new NoSuchElementException();
+                        final K2 key = columnDictionary.getKey(snapshot[next] - 1);
+                        next = advance(next + 1);
+                        return key;
+                    }
+                };
+            }
+        };
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public long getCount(final K1 k1, final K2 k2) {
+        return getCount(rowDictionary.getId(k1), columnDictionary.getId(k2));
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * <p>Keys not yet in the dictionaries are added.</p>
+     *
+     * @throws NullPointerException if any of the keys is null
+     */
+    @Override
+    public void increment(final K1 k1, final K2 k2, final long amount) {
+        if (k1 == null || k2 == null)
+            throw new NullPointerException(k1 == null ? "k1":"k2");
+        increment(rowDictionary.add(k1), columnDictionary.add(k2), amount);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public long getTotalCount(final K1 k1) {
+        return getTotalCount(rowDictionary.getId(k1));
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public String toString() {
+        final StringBuilder sparseMatrix = new StringBuilder("{");
+        final StringBuilder totalCounts = new StringBuilder("{");
+        boolean first = true;
+        for (int j=0; j<rows.keys.length; j++) {
+            if (rows.keys[j] == 0)
+                continue;
+            final IntCountTable row = rows.valueAt(j);
+            if (!first) {
+                sparseMatrix.append(", ");
+                totalCounts.append(", ");
+            }
+            final K1 k1 = rowDictionary.getKey(rows.keys[j] - 1);
+            sparseMatrix.append(k1).append("={");
+            boolean firstCell = true;
+            for (int i=0; i<row.keys.length; i++) {
+                if (row.keys[i] == 0)
+                    continue;
+                if (!firstCell)
+                    sparseMatrix.append(", ");
+                sparseMatrix.append(columnDictionary.getKey(row.keys[i] - 1)).append('=').append(row.counts[i]);
+                firstCell = false;
+            }
+            sparseMatrix.append('}');
+            totalCounts.append(k1).append('=').append(row.totalCount);
+            first = false;
+        }
+        sparseMatrix.append('}');
+        totalCounts.append('}');
+        return String.format("{sparseMatrix=%s, totalCounts=%s}",
+            sparseMatrix, totalCounts);
+    }
+}
@@ -0,0 +1,156 @@
+package io.github.hhromic.uimr.stats;
+
+/**
+ * This class handles a data distribution table over dictionary-encoded elements.
+ *
+ * <p>Elements are mapped to dense {@code int} identifiers by a {@link KeyDictionary}, which can be
+ * shared by many distributions, and the counts are stored in a compact open-addressing table of
+ * identifiers to primitive {@code long} counts. Memory is proportional to the number of elements of
+ * this distribution, not to the size of the shared dictionary. Once an element has been added to the
+ * dictionary, counting it with {@link #increment(int, long)} does not hash any element, box any count
+ * or allocate (apart from growing the table).</p>
+ *
+ * <p>Elements with a zero count are considered absent. This class is not thread-safe.</p>
+ *
+ * @author Hugo Hromic
+ * @since 4.0
+ * @see Distribution
+ * @see KeyDictionary
+ */
+public class IntDistribution<E> {
+    private final KeyDictionary<E> dictionary;
+    private final IntCountTable counts;
+
+    /** Creates a new {@code IntDistribution} object with its own dictionary. */
+    public IntDistribution() {
+        this(new KeyDictionary<E>());
+    }
+
+    /**
+     * Creates a new {@code IntDistribution} object.
+     *
+     * @param dictionary the dictionary of the elements, possibly shared with other objects
+     * @throws NullPointerException if the dictionary is null
+     */
+    public IntDistribution(final KeyDictionary<E> dictionary) {
+        if (dictionary == null)
+            throw new NullPointerException();
+        this.dictionary = dictionary;
+        counts = new IntCountTable();
+    }
+
+    /**
+     * Gets the dictionary of the elements.
+     *
+     * @return the dictionary of the elements
+     */
+    public KeyDictionary<E> getDictionary() {
+        return dictionary;
+    }
+
+    /**
+     * Gets the total count of the data seen so far.
+     *
+     * @return the total count of the data seen so far
+     */
+    public long getTotalCount() {
+        return counts.totalCount;
+    }
+
+    /**
+     * Gets the count of an element by its identifier.
+     *
+     * @param id the identifier of the element
+     * @return the count of the element, zero if it was not seen
+     */
+    public long getCount(final int id) {
+        return id < 0 ? 0L : counts.getCount(id);
+    }
+
+    /**
+     * Gets the count of an element.
+     *
+     * @param element the element
+     * @return the count of the element, zero if it was not seen
+     */
+    public long getCount(final E element) {
+        return getCount(dictionary.getId(element));
+    }
+
+    /**
+     * Increments the count of an element by its identifier.
+     *
+     * @param id the identifier of the element, as given by the dictionary
+     * @param amount the amount to increment the count
+     * @return this same object
+     * @throws IndexOutOfBoundsException if the identifier is negative
+     */
+    public IntDistribution<E> increment(final int id, final long amount) {
+        if (id < 0)
+            throw new IndexOutOfBoundsException("id: " + id);
+        counts.increment(id, amount);
+        return this;
+    }
+
+    /**
+     * Increments the count of an element by some amount.
+     *
+     * <p>If the element is not in the dictionary yet, it is added.</p>
+     *
+     * @param element the element to increment its count
+     * @param amount the amount to increment the count
+     * @return this same object
+     * @throws NullPointerException if the element is null
+     */
+    public IntDistribution<E> increment(final E element, final long amount) {
+        return increment(dictionary.add(element), amount);
+    }
+
+    /**
+     * Adds all data from a distribution object to this distribution.
+     *
+     * <p>If both distributions share the same dictionary, counts are added by identifier without
+     * looking up any element.</p>
+     *
+     * @param distribution distribution object to be added to this distribution
+     * @return this same object
+     * @throws NullPointerException if the distribution is null
+     */
+    public IntDistribution<E> addAll(final IntDistribution<E> distribution) {
+        if (distribution == null)
+            throw new NullPointerException();
+        // Snapshot the arrays, the other distribution may be this same one
+        final int[] keys = distribution.counts.keys;
+        final long[] other = distribution.counts.counts;
+        final boolean shared = distribution.dictionary == dictionary;
+        for (int i=0; i<keys.length; i++) {
+            if (keys[i] == 0 || other[i] == 0L)
+                continue;
+            if (shared)
+                counts.increment(keys[i] - 1, other[i]);
+            else
+                increment(distribution.dictionary.getKey(keys[i] - 1), other[i]);
+        }
+        return this;
+    }
+
+    /**
+     * Converts this distribution to a regular data distribution.
+     *
+     * @return a new distribution object with the elements with non-zero counts
+     */
+    public Distribution<E> toDistribution() {
+        final Distribution<E> distribution = new Distribution<E>();
+        for (int i=0; i<counts.keys.length; i++)
+            if (counts.keys[i] != 0 && counts.counts[i] != 0L)
+                distribution.increment(dictionary.getKey(counts.keys[i] - 1), counts.counts[i]);
+        return distribution;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public String toString() {
+        return String.format("{distribution=%s, totalCount=%d}",
+            toDistribution().getDistribution(), counts.totalCount);
+    }
+}
@@ -0,0 +1,103 @@
+package io.github.hhromic.uimr.stats;
+
+/**
+ * Open-addressing hash table of {@code int} identifiers to objects.
+ *
+ * <p>This is the sparse storage of the rows of {@link IntCountingMatrix}. Like {@link IntCountTable},
+ * its memory is proportional to the number of identifiers it holds, not to the largest identifier
+ * of the dictionary. Slots are exposed to the classes of this package for iteration: a slot is used
+ * when its key is not zero, and then holds the identifier plus one.</p>
+ *
+ * @author Hugo Hromic
+ * @since 4.0
+ * @param <V> the type of the values
+ * @see IntCountTable
+ * @see IntCountingMatrix
+ */
+final class IntObjectTable<V> {
+    private static final int INITIAL_CAPACITY = 16;
+
+    // Identifiers are stored plus one, so zero marks an empty slot
+    int[] keys;
+    Object[] values;
+    int size;
+
+    /** Creates a new empty {@code IntObjectTable} object. */
+    IntObjectTable() {
+        keys = new int[INITIAL_CAPACITY];
+        values = new Object[INITIAL_CAPACITY];
+        size = 0;
+    }
+
+    /**
+     * Gets the value of an identifier.
+     *
+     * @param id the identifier
+     * @return the value of the identifier, or {@code null} if it is not in the table
+     */
+    @SuppressWarnings("unchecked")
+    V get(final int id) {
+        final int mask = keys.length - 1;
+        final int stored = id + 1;
+        int i = IntCountTable.slot(id, mask);
+        int k;
+        while ((k = keys[i]) != 0) {
+            if (k == stored)
+                return (V)values[i];
+            i = (i + 1) & mask;
+        }
+        return null;
+    }
+
+    /**
+     * Gets the value in a slot.
+     *
+     * @param i the used slot
+     * @return the value in the slot
+     */
+    @SuppressWarnings("unchecked")
+    V valueAt(final int i) {
+        return (V)values[i];
+    }
+
+    /**
+     * Sets the value of an identifier, inserting it if needed.
+     *
+     * @param id the non-negative identifier
+     * @param value the non-null value
+     */
+    void put(final int id, final V value) {
+        final int mask = keys.length - 1;
+        final int stored = id + 1;
+        int i = IntCountTable.slot(id, mask);
+        int k;
+        while ((k = keys[i]) != 0) {
+            if (k == stored) {
+                values[i] = value;
+                return;
+            }
+            i = (i + 1) & mask;
+        }
+        keys[i] = stored;
+        values[i] = value;
+        if (++size * 3 > keys.length * 2)
+            resize(keys.length << 1);
+    }
+
+    private void resize(final int capacity) {
+        final int[] oldKeys = keys;
+        final Object[] oldValues = values;
+        final int mask = capacity - 1;
+        keys = new int[capacity];
+        values = new Object[capacity];
+        for (int j=0; j<oldKeys.length; j++) {
+            if (oldKeys[j] == 0)
+                continue;
+            int i = IntCountTable.slot(oldKeys[j] - 1, mask);
+            while (keys[i] != 0)
+                i = (i + 1) & mask;
+            keys[i] = oldKeys[j];
+            values[i] = oldValues[j];
+        }
+    }
+}
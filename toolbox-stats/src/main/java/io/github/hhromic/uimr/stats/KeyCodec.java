@@ -0,0 +1,98 @@
+package io.github.hhromic.uimr.stats;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * This interface defines a binary encoding of keys (and values) for {@link StatsCodec}.
+ *
+ * <p>Implementations for the most common key types are provided as constants. Numbers are written
+ * as variable-length integers, therefore small numbers take fewer bytes.</p>
+ *
+ * @author Hugo Hromic
+ * @since 4.0
+ * @see StatsCodec
+ */
+public interface KeyCodec<K> {
+    /** Codec for {@code String} keys, written as a length-prefixed UTF-8 byte sequence. */
+    public static final KeyCodec<String> STRING = new KeyCodec<String>() {
+        @Override
+        public void write(final DataOutput out, final String key) throws IOException {
+            final byte[] bytes = key.getBytes(StandardCharsets.UTF_8);
+            StatsCodec.writeUnsignedVarLong(out, bytes.length);
+            out.write(bytes);
+        }
+
+        @Override
+        public String read(final DataInput in) throws IOException {
+            final long length = StatsCodec.readUnsignedVarLong(in);
+            if (length < 0 || length > Integer.MAX_VALUE)
+                throw new IOException("invalid string length: " + length);
+            final byte[] bytes = new byte[(int)length];
+            in.readFully(bytes);
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+    };
+
+    /** Codec for {@code Long} keys, written as a zig-zag variable-length integer. */
+    public static final KeyCodec<Long> LONG = new KeyCodec<Long>() {
+        @Override
+        public void write(final DataOutput out, final Long key) throws IOException {
+            StatsCodec.writeVarLong(out, key);
+        }
+
+        @Override
+        public Long read(final DataInput in) throws IOException {
+            return StatsCodec.readVarLong(in);
+        }
+    };
+
+    /** Codec for {@code Integer} keys, written as a zig-zag variable-length integer. */
+    public static final KeyCodec<Integer> INTEGER = new KeyCodec<Integer>() {
+        @Override
+        public void write(final DataOutput out, final Integer key) throws IOException {
+            StatsCodec.writeVarLong(out, key);
+        }
+
+        @Override
+        public Integer read(final DataInput in) throws IOException {
+            final long value = StatsCodec.readVarLong(in);
+            if (value < Integer.MIN_VALUE || value > Integer.MAX_VALUE)
+                throw new IOException("invalid integer: " + value);
+            return (int)value;
+        }
+    };
+
+    /** Codec for {@code Double} keys, written as eight bytes. */
+    public static final KeyCodec<Double> DOUBLE = new KeyCodec<Double>() {
+        @Override
+        public void write(final DataOutput out, final Double key) throws IOException {
+            out.writeDouble(key);
+        }
+
+        @Override
+        public Double read(final DataInput in) throws IOException {
+            return in.readDouble();
+        }
+    };
+
+    /**
+     * Writes a key.
+     *
+     * @param out the output to write to
+     * @param key the key to write, never null
+     * @throws IOException if an I/O error occurs
+     */
+    public void write(final DataOutput out, final K key) throws IOException;
+
+    /**
+     * Reads a key written by {@link #write(DataOutput, Object)}.
+     *
+     * @param in the input to read from
+     * @return the key read
+     * @throws IOException if an I/O error occurs or the data is not a valid key
+     */
+    public K read(final DataInput in) throws IOException;
+}
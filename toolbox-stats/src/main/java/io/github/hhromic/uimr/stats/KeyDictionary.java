@@ -0,0 +1,146 @@
+package io.github.hhromic.uimr.stats;
+
+import java.util.List;
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * This class implements a thread-safe dictionary of keys to dense {@code int} identifiers.
+ *
+ * <p>Keys get consecutive identifiers from zero in order of first sighting, and identifiers can be
+ * decoded back to their keys in O(1). A dictionary can be shared by many {@link IntDistribution}
+ * and {@link IntCountingMatrix} objects (and by both dimensions of a matrix), so every distinct key
+ * is stored and hashed only once, and all counting is done on primitive identifiers.</p>
+ *
+ * <p>Looking up and decoding never lock. Adding a new key takes a small lock to assign its
+ * identifier. Keys are never removed.</p>
+ *
+ * <p><strong>Example usage:</strong></p>
+ *
+ * <pre><code>
+ * final KeyDictionary&lt;String&gt; hashtags = new KeyDictionary&lt;String&gt;();
+ * final IntDistribution&lt;String&gt; lastHour = new IntDistribution&lt;String&gt;(hashtags);
+ * final IntDistribution&lt;String&gt; today = new IntDistribution&lt;String&gt;(hashtags);
+ * final int id = hashtags.add("#java");
+ * lastHour.increment(id, 1L);
+ * today.increment(id, 1L);
+ * </code></pre>
+ *
+ * @author Hugo Hromic
+ * @since 4.0
+ * @see IntDistribution
+ * @see IntCountingMatrix
+ */
+public class KeyDictionary<K> {
+    private final ConcurrentMap<K,Integer> ids;
+    private volatile Object[] keys;
+    private volatile int size;
+
+    /** Creates a new {@code KeyDictionary} object. */
+    public KeyDictionary() {
+        ids = new ConcurrentHashMap<K,Integer>();
+        keys = new Object[16];
+        size = 0;
+    }
+
+    /**
+     * Gets the identifier of a key.
+     *
+     * @param key the key to look up
+     * @return the identifier of the key, or {@code -1} if the key is not in the dictionary
+     */
+    public int getId(final Object key) {
+        if (key == null)
+            return -1;
+        final Integer id = ids.get(key);
+        return id == null ? -1 : id;
+    }
+
+    /**
+     * Adds a key to the dictionary if needed and gets its identifier.
+     *
+     * @param key the key to add
+     * @return the identifier of the key
+     * @throws NullPointerException if the key is null
+     */
+    public int add(final K key) {
+        if (key == null)
+            throw new NullPointerException();
+        final Integer id = ids.get(key);
+        if (id != null)
+            return id;
+        synchronized (this) {
+            final Integer existing = ids.get(key);
+            if (existing != null)
+                return existing;
+            final int newId = size;
+            Object[] current = keys;
+            if (newId == current.length)
+                current = Arrays.copyOf(current, current.length << 1);
+            current[newId] = key;
+            keys = current;
+            size = newId + 1;
+            // The reverse entry is published before the identifier can be seen by other threads
+            ids.put(key, newId);
+            return newId;
+        }
+    }
+
+    /**
+     * Gets the key of an identifier.
+     *
+     * @param id the identifier to decode
+     * @return the key of the identifier
+     * @throws IndexOutOfBoundsException if the identifier is not in the dictionary
+     */
+    @SuppressWarnings("unchecked")
+    public K getKey(final int id) {
+        if (id < 0 || id >= size)
+            throw new IndexOutOfBoundsException("id: " + id);
+        return (K)keys[id];
+    }
+
+    /**
+     * Gets the number of keys in the dictionary.
+     *
+     * @return the number of keys in the dictionary
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Gets the keys of the dictionary, indexed by their identifiers.
+     *
+     * <p>The returned list is an unmodifiable view of the keys present at the time of the call.</p>
+     *
+     * @return the keys of the dictionary
+     */
+    public List<K> getKeys() {
+        // Read the size first, the keys array is always published before the size grows
+        final int snapshotSize = size;
+        final Object[] snapshot = keys;
+        return new AbstractList<K>() {
+            @Override
+            @SuppressWarnings("unchecked")
+            public K get(final int index) {
+                if (index < 0 || index >= snapshotSize)
+                    throw new IndexOutOfBoundsException("index: " + index);
+                return (K)snapshot[index];
+            }
+
+            @Override
+            public int size() {
+                return snapshotSize;
+            }
+        };
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public String toString() {
+        return String.format("{size=%d, keys=%s}", size, getKeys());
+    }
+}
@@ -0,0 +1,139 @@
+package io.github.hhromic.uimr.stats;
+
+/**
+ * Open-addressing hash index from object keys to primitive {@code int} values.
+ *
+ * <p>This index uses linear probing with backward-shift deletion, therefore lookups, insertions
+ * and removals do not allocate any objects unless the table needs to grow.</p>
+ *
+ * @author Hugo Hromic
+ * @since 4.0
+ */
+class KeyIndex<K> {
+    private Object[] keys;
+    private int[] values;
+    private int size;
+
+    /**
+     * Creates a new {@code KeyIndex} object.
+     *
+     * @param expectedSize the expected number of keys, the index does not grow until exceeded
+     */
+    KeyIndex(final int expectedSize) {
+        int capacity = 4;
+        while (capacity < expectedSize * 2)
+            capacity <<= 1;
+        keys = new Object[capacity];
+        values = new int[capacity];
+        size = 0;
+    }
+
+    private static int slot(final Object key, final int mask) {
+        final int h = key.hashCode() * 0x9E3779B9;
+        return (h ^ (h >>> 16)) & mask;
+    }
+
+    private int find(final Object key) {
+        final int mask = keys.length - 1;
+        int i = slot(key, mask);
+        Object k;
+        while ((k = keys[i]) != null) {
+            if (k == key || k.equals(key))
+                return i;
+            i = (i + 1) & mask;
+        }
+        return -1;
+    }
+
+    /**
+     * Gets the number of keys in this index.
+     *
+     * @return the number of keys in this index
+     */
+    int size() {
+        return size;
+    }
+
+    /**
+     * Gets the value of a key.
+     *
+     * @param key the key to look up
+     * @return the value of the key, or {@code -1} if not found
+     */
+    int get(final Object key) {
+        final int i = find(key);
+        return i < 0 ? -1 : values[i];
+    }
+
+    /**
+     * Sets the value of a key, inserting the key if needed.
+     *
+     * @param key the key to set
+     * @param value the value to set
+     */
+    void put(final K key, final int value) {
+        final int mask = keys.length - 1;
+        int i = slot(key, mask);
+        Object k;
+        while ((k = keys[i]) != null) {
+            if (k == key || k.equals(key)) {
+                values[i] = value;
+                return;
+            }
+            i = (i + 1) & mask;
+        }
+        keys[i] = key;
+        values[i] = value;
+        if (++size * 2 > keys.length)
+            resize(keys.length << 1);
+    }
+
+    /**
+     * Removes a key from this index.
+     *
+     * @param key the key to remove
+     * @return the value of the removed key, or {@code -1} if not found
+     */
+    int remove(final Object key) {
+        int i = find(key);
+        if (i < 0)
+            return -1;
+        final int value = values[i];
+        final int mask = keys.length - 1;
+        keys[i] = null;
+        size--;
+
+        // Backward-shift the following keys of the probe sequence
+        int j = i;
+        while (true) {
+            j = (j + 1) & mask;
+            if (keys[j] == null)
+                break;
+            final int home = slot(keys[j], mask);
+            if (i <= j ? (i < home && home <= j) : (i < home || home <= j))
+                continue;
+            keys[i] = keys[j];
+            values[i] = values[j];
+            keys[j] = null;
+            i = j;
+        }
+        return value;
+    }
+
+    private void resize(final int capacity) {
+        final Object[] oldKeys = keys;
+        final int[] oldValues = values;
+        final int mask = capacity - 1;
+        keys = new Object[capacity];
+        values = new int[capacity];
+        for (int j=0; j<oldKeys.length; j++) {
+            if (oldKeys[j] == null)
+                continue;
+            int i = slot(oldKeys[j], mask);
+            while (keys[i] != null)
+                i = (i + 1) & mask;
+            keys[i] = oldKeys[j];
+            values[i] = oldValues[j];
+        }
+    }
+}
@@ -0,0 +1,392 @@
+package io.github.hhromic.uimr.stats;
+
+/**
+ * This class implements a fixed-memory log-linear histogram for {@code long} data values.
+ *
+ * <p>The histogram follows the HDR Histogram bucketing scheme: values from 0 to a highest trackable
+ * value are recorded with a configurable number of significant decimal digits. Buckets double in
+ * width at each power of two, and each bucket is linearly divided into enough sub-buckets to keep the
+ * relative error below the configured precision. All counts live in a flat {@code long[]}, so
+ * recording a value is a couple of bit operations plus an array increment, and percentile queries
+ * need no sorting.</p>
+ *
+ * <p>This class is not thread-safe, use {@link ConcurrentLongHistogram} to record values from many
+ * threads. Histograms with the same configuration can be merged with {@link #addAll(LongHistogram)}.</p>
+ *
+ * <p><strong>Example usage:</strong></p>
+ *
+ * <pre><code>
+ * final LongHistogram histogram = new LongHistogram(3600000000L, 3);  // Up to 1 hour in micros
+ * histogram.recordValue(latencyMicros);
+ * System.out.println("p999=" + histogram.getValueAtPercentile(99.9));
+ * </code></pre>
+ *
+ * @author Hugo Hromic
+ * @since 4.0
+ * @see LongStatistics
+ * @see ConcurrentLongHistogram
+ */
+public class LongHistogram {
+    private final long highestTrackableValue;
+    private final int significantDigits;
+    private final int subBucketHalfCountMagnitude;
+    private final int subBucketHalfCount;
+    private final long subBucketMask;
+    private final int leadingZeroCountBase;
+    private final int countsLength;
+    private final long[] counts;
+    private long totalCount;
+    private long min;
+    private long max;
+
+    /**
+     * Creates a new {@code LongHistogram} object.
+     *
+     * @param highestTrackableValue the highest value to be recorded, at least 2
+     * @param significantDigits the number of significant decimal digits to keep, from 1 to 5
+     * @throws IllegalArgumentException if any of the parameters is out of range
+     */
+    public LongHistogram(final long highestTrackableValue, final int significantDigits) {
+        this(highestTrackableValue, significantDigits, true);
+    }
+
+    /**
+     * Creates a new {@code LongHistogram} object, optionally without its own counts array.
+     *
+     * @param highestTrackableValue the highest value to be recorded, at least 2
+     * @param significantDigits the number of significant decimal digits to keep, from 1 to 5
+     * @param allocateCounts {@code true} to allocate the internal counts array
+     * @throws IllegalArgumentException if any of the parameters is out of range
+     */
+    protected LongHistogram(final long highestTrackableValue, final int significantDigits, final boolean allocateCounts) {
+        if (highestTrackableValue < 2)
+            throw new IllegalArgumentException("highestTrackableValue: " + highestTrackableValue);
+        if (significantDigits < 1 || significantDigits > 5)
+            throw new IllegalArgumentException("significantDigits: " + significantDigits);
+        this.highestTrackableValue = highestTrackableValue;
+        this.significantDigits = significantDigits;
+
+        // Sub-buckets per bucket, enough for single unit resolution up to 2 * 10^digits
+        final long largestSingleUnitValue = 2 * (long)Math.pow(10, significantDigits);
+        final int subBucketCountMagnitude = 64 - Long.numberOfLeadingZeros(largestSingleUnitValue - 1);
+        subBucketHalfCountMagnitude = subBucketCountMagnitude - 1;
+        final int subBucketCount = 1 << subBucketCountMagnitude;
+        subBucketHalfCount = subBucketCount / 2;
+        subBucketMask = subBucketCount - 1;
+        leadingZeroCountBase = 64 - subBucketHalfCountMagnitude - 1;
+
+        // Buckets needed to cover the highest trackable value
+        long smallestUntrackableValue = subBucketCount;
+        int bucketCount = 1;
+        while (smallestUntrackableValue <= highestTrackableValue) {
+            if (smallestUntrackableValue > Long.MAX_VALUE / 2) {
+                bucketCount++;
+                break;
+            }
+            smallestUntrackableValue <<= 1;
+            bucketCount++;
+        }
+        countsLength = (bucketCount + 1) * subBucketHalfCount;
+        counts = allocateCounts ? new long[countsLength] : null;
+        totalCount = 0L;
+        min = Long.MAX_VALUE;
+        max = Long.MIN_VALUE;
+    }
+
+    /**
+     * Gets the index in the counts array for a value.
+     *
+     * @param value the value to get its index
+     * @return the index in the counts array
+     */
+    protected final int getIndex(final long value) {
+        final int bucketIndex = leadingZeroCountBase - Long.numberOfLeadingZeros(value | subBucketMask);
+        final int subBucketIndex = (int)(value >>> bucketIndex);
+        return ((bucketIndex + 1) << subBucketHalfCountMagnitude) + (subBucketIndex - subBucketHalfCount);
+    }
+
+    /**
+     * Gets the lowest value that maps to an index of the counts array.
+     *
+     * @param index the index in the counts array
+     * @return the lowest value that maps to the index
+     */
+    protected final long getLowestValueAt(final int index) {
+        int bucketIndex = (index >> subBucketHalfCountMagnitude) - 1;
+        int subBucketIndex = (index & (subBucketHalfCount - 1)) + subBucketHalfCount;
+        if (bucketIndex < 0) {
+            subBucketIndex -= subBucketHalfCount;
+            bucketIndex = 0;
+        }
+        return (long)subBucketIndex << bucketIndex;
+    }
+
+    /**
+     * Gets the highest value that maps to an index of the counts array.
+     *
+     * @param index the index in the counts array
+     * @return the highest value that maps to the index
+     */
+    protected final long getHighestValueAt(final int index) {
+        final int bucketIndex = Math.max(0, (index >> subBucketHalfCountMagnitude) - 1);
+        return getLowestValueAt(index) + (1L << bucketIndex) - 1;
+    }
+
+    /**
+     * Gets the length of the counts array.
+     *
+     * @return the length of the counts array
+     */
+    protected final int getCountsLength() {
+        return countsLength;
+    }
+
+    /**
+     * Gets the count stored at an index of the counts array.
+     *
+     * @param index the index in the counts array
+     * @return the count stored at the index
+     */
+    protected long getCountAt(final int index) {
+        return counts[index];
+    }
+
+    /**
+     * Adds to the count stored at an index of the counts array and updates the summary values.
+     *
+     * @param index the index in the counts array
+     * @param value the value being recorded
+     * @param count the count to add
+     */
+    protected void addCountAt(final int index, final long value, final long count) {
+        counts[index] += count;
+        totalCount += count;
+        if (value < min)
+            min = value;
+        if (value > max)
+            max = value;
+    }
+
+    /**
+     * Gets the highest trackable value of this histogram.
+     *
+     * @return the highest trackable value of this histogram
+     */
+    public long getHighestTrackableValue() {
+        return highestTrackableValue;
+    }
+
+    /**
+     * Gets the number of significant decimal digits kept by this histogram.
+     *
+     * @return the number of significant decimal digits
+     */
+    public int getSignificantDigits() {
+        return significantDigits;
+    }
+
+    /**
+     * Gets the total count of values recorded so far.
+     *
+     * @return the total count of values recorded so far
+     */
+    public long getTotalCount() {
+        return totalCount;
+    }
+
+    /**
+     * Gets the minimum value recorded so far.
+     *
+     * @return the minimum value recorded so far, {@code Long.MAX_VALUE} if empty
+     */
+    public long getMin() {
+        return min;
+    }
+
+    /**
+     * Gets the maximum value recorded so far.
+     *
+     * @return the maximum value recorded so far, {@code Long.MIN_VALUE} if empty
+     */
+    public long getMax() {
+        return max;
+    }
+
+    /**
+     * Records a value.
+     *
+     * @param value the value to record
+     * @return this same object
+     * @throws IndexOutOfBoundsException if the value is negative or above the highest trackable value
+     */
+    public LongHistogram recordValue(final long value) {
+        return recordValue(value, 1L);
+    }
+
+    /**
+     * Records a value a number of times.
+     *
+     * @param value the value to record
+     * @param count the number of times to record the value
+     * @return this same object
+     * @throws IndexOutOfBoundsException if the value is negative or above the highest trackable value
+     */
+    public LongHistogram recordValue(final long value, final long count) {
+        if (value < 0 || value > highestTrackableValue)
+            throw new IndexOutOfBoundsException("value: " + value);
+        addCountAt(getIndex(value), value, count);
+        return this;
+    }
+
+    /**
+     * Gets the count of recorded values equivalent to a value, within the histogram precision.
+     *
+     * @param value the value to get its count
+     * @return the count of recorded values equivalent to the value
+     */
+    public long getCountAtValue(final long value) {
+        if (value < 0 || value > highestTrackableValue)
+            return 0L;
+        return getCountAt(getIndex(value));
+    }
+
+    /**
+     * Gets the value at a percentile of the recorded values.
+     *
+     * <p>The returned value is the highest value equivalent to the percentile value, within the
+     * histogram precision, but never above the maximum recorded value.</p>
+     *
+     * @param percentile the percentile to get, from 0 to 100
+     * @return the value at the percentile, or zero if empty
+     * @throws IllegalArgumentException if the percentile is out of range
+     */
+    public long getValueAtPercentile(final double percentile) {
+        if (!(percentile >= 0.0 && percentile <= 100.0))
+            throw new IllegalArgumentException("percentile: " + percentile);
+        final long total = getTotalCount();
+        if (total == 0L)
+            return 0L;
+        final long target = Math.max(1L, (long)Math.ceil(percentile / 100.0 * total));
+        long cumulative = 0L;
+        for (int index=0; index<countsLength; index++) {
+            cumulative += getCountAt(index);
+            if (cumulative >= target)
+                return Math.min(getHighestValueAt(index), getMax());
+        }
+        return getMax();
+    }
+
+    /**
+     * Gets the values at several percentiles of the recorded values in a single pass.
+     *
+     * @param percentiles the percentiles to get, from 0 to 100, in ascending order
+     * @return the values at the percentiles
+     * @throws IllegalArgumentException if any percentile is out of range or not in ascending order
+     * @see #getValueAtPercentile(double)
+     */
+    public long[] getValuesAtPercentiles(final double... percentiles) {
+        final long[] values = new long[percentiles.length];
+        for (int p=0; p<percentiles.length; p++)
+            if (!(percentiles[p] >= 0.0 && percentiles[p] <= 100.0) || (p > 0 && percentiles[p] < percentiles[p - 1]))
+                throw new IllegalArgumentException("percentile: " + percentiles[p]);
+        final long total = getTotalCount();
+        if (total == 0L)
+            return values;
+        final long maxValue = getMax();
+        long cumulative = 0L;
+        int p = 0;
+        for (int index=0; index<countsLength && p<percentiles.length; index++) {
+            cumulative += getCountAt(index);
+            while (p < percentiles.length && cumulative >= Math.max(1L, (long)Math.ceil(percentiles[p] / 100.0 * total)))
+                values[p++] = Math.min(getHighestValueAt(index), maxValue);
+        }
+        while (p < percentiles.length)
+            values[p++] = maxValue;
+        return values;
+    }
+
+    /**
+     * Gets the mean of the recorded values, within the histogram precision.
+     *
+     * @return the mean of the recorded values, or NaN if empty
+     */
+    public double getMean() {
+        final long total = getTotalCount();
+        if (total == 0L)
+            return Double.NaN;
+        double sum = 0.0;
+        for (int index=0; index<countsLength; index++) {
+            final long count = getCountAt(index);
+            if (count != 0L)
+                sum += count * ((getLowestValueAt(index) + getHighestValueAt(index)) / 2.0);
+        }
+        return sum / total;
+    }
+
+    /**
+     * Visitor of the non-empty buckets of a histogram.
+     *
+     * @see LongHistogram#forEachBucket(BucketVisitor)
+     */
+    public interface BucketVisitor {
+        /**
+         * Visits a non-empty bucket.
+         *
+         * @param lowestValue the lowest value of the bucket
+         * @param highestValue the highest value of the bucket
+         * @param count the count of the bucket
+         */
+        public void visit(final long lowestValue, final long highestValue, final long count);
+    }
+
+    /**
+     * Visits all the non-empty buckets of this histogram in ascending value order.
+     *
+     * @param visitor the visitor to call for each non-empty bucket
+     * @throws NullPointerException if the visitor is null
+     */
+    public void forEachBucket(final BucketVisitor visitor) {
+        if (visitor == null)
+            throw new NullPointerException();
+        for (int index=0; index<countsLength; index++) {
+            final long count = getCountAt(index);
+            if (count != 0L)
+                visitor.visit(getLowestValueAt(index), getHighestValueAt(index), count);
+        }
+    }
+
+    /**
+     * Adds all data from a histogram to this histogram.
+     *
+     * @param histogram histogram to be added to this histogram
+     * @return this same object
+     * @throws NullPointerException if the histogram is null
+     * @throws IllegalArgumentException if the histograms have different configurations
+     */
+    public LongHistogram addAll(final LongHistogram histogram) {
+        if (histogram == null)
+            throw new NullPointerException();
+        if (histogram.highestTrackableValue != highestTrackableValue || histogram.significantDigits != significantDigits)
+            throw new IllegalArgumentException("histogram configurations differ");
+        final long histogramMin = histogram.getMin();
+        final long histogramMax = histogram.getMax();
+        for (int index=0; index<countsLength; index++) {
+            final long count = histogram.getCountAt(index);
+            if (count != 0L) {
+                final long value = Math.max(histogramMin, Math.min(histogramMax, getLowestValueAt(index)));
+                addCountAt(index, value, count);
+            }
+        }
+        // Lowest values are clamped to the histogram range, so only the exact maximum is missing
+        if (histogram.getTotalCount() != 0L)
+            addCountAt(getIndex(histogramMax), histogramMax, 0L);
+        return this;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public String toString() {
+        return String.format("{highestTrackableValue=%d, significantDigits=%d, totalCount=%d, min=%d, max=%d}",
+            highestTrackableValue, significantDigits, getTotalCount(), getMin(), getMax());
+    }
+}
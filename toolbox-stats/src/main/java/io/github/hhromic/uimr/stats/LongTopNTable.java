@@ -0,0 +1,184 @@
+package io.github.hhromic.uimr.stats;
+
+import java.util.List;
+import java.util.ArrayList;
+import java.util.Collections;
+
+/**
+ * This class handles a top-n data table with primitive {@code long} values.
+ *
+ * <p>This table has the same semantics and ordering as a {@code TopNTable<K,Long>}, but it is
+ * backed by an array min-heap with primitive {@code long} values and an open-addressing key
+ * position index. Therefore, updates are O(log n) and never allocate objects. The entries of the
+ * table are only materialised on demand by {@link #getEntries()} and {@link #getEntry(Comparable)}.</p>
+ *
+ * @author Hugo Hromic
+ * @since 4.0
+ * @see TopNTable
+ * @see DoubleTopNTable
+ */
+public class LongTopNTable<K extends Comparable<K>> {
+    private final int n;
+    private final Object[] keys;
+    private final long[] values;
+    private final KeyIndex<K> positions;
+    private int size;
+
+    /** Creates a new {@code LongTopNTable} object with default cap (n) of 10. */
+    public LongTopNTable() {
+        this(10);
+    }
+
+    /**
+     * Creates a new {@code LongTopNTable} object.
+     *
+     * @param n the cap (n) of the top-n data table
+     */
+    public LongTopNTable(final int n) {
+        this.n = n;
+        keys = new Object[n];
+        values = new long[n];
+        positions = new KeyIndex<K>(n);
+        size = 0;
+    }
+
+    @SuppressWarnings("unchecked")
+    private K keyAt(final int i) {
+        return (K)keys[i];
+    }
+
+    /** Checks if an element would be ranked below another element in the table. */
+    private static <K extends Comparable<K>> boolean isWorse(final K key1, final long value1, final K key2, final long value2) {
+        return value1 < value2 || (value1 == value2 && key1.compareTo(key2) < 0);
+    }
+
+    private void set(final int i, final K key, final long value) {
+        keys[i] = key;
+        values[i] = value;
+        positions.put(key, i);
+    }
+
+    private void siftUp(int i) {
+        final K key = keyAt(i);
+        final long value = values[i];
+        while (i > 0) {
+            final int parent = (i - 1) >>> 1;
+            if (!isWorse(key, value, keyAt(parent), values[parent]))
+                break;
+            set(i, keyAt(parent), values[parent]);
+            i = parent;
+        }
+        set(i, key, value);
+    }
+
+    private void siftDown(int i) {
+        final K key = keyAt(i);
+        final long value = values[i];
+        while (true) {
+            int child = (i << 1) + 1;
+            if (child >= size)
+                break;
+            if (child + 1 < size && isWorse(keyAt(child + 1), values[child + 1], keyAt(child), values[child]))
+                child++;
+            if (!isWorse(keyAt(child), values[child], key, value))
+                break;
+            set(i, keyAt(child), values[child]);
+            i = child;
+        }
+        set(i, key, value);
+    }
+
+    /**
+     * Gets the cap (n) of the top-n data table.
+     *
+     * @return the cap (n) of the top-n table
+     */
+    public int getN() {
+        return n;
+    }
+
+    /**
+     * Gets a list of current entries from the top-n data table.
+     *
+     * <p>The returned list is created on demand and sorted like {@link TopNTable#getEntries()},
+     * modifications to this list are not reflected into the internal structure.</p>
+     *
+     * @return the list of current entries from the top-n data table
+     */
+    public List<TopNTable.Entry<K,Long>> getEntries() {
+        final List<TopNTable.Entry<K,Long>> entries = new ArrayList<TopNTable.Entry<K,Long>>(size);
+        for (int i=0; i<size; i++)
+            entries.add(new TopNTable.Entry<K,Long>(keyAt(i), values[i]));
+        Collections.sort(entries);
+        return entries;
+    }
+
+    /**
+     * Gets a particular entry from the top-n data table.
+     *
+     * @param key the key of the entry to get from the top-n data table
+     * @return the desired entry, or {@code null} if the key is not found
+     * @throws NullPointerException if the key is null
+     */
+    public TopNTable.Entry<K,Long> getEntry(final K key) {
+        if (key == null)
+            throw new NullPointerException();
+        final int i = positions.get(key);
+        return i < 0 ? null : new TopNTable.Entry<K,Long>(key, values[i]);
+    }
+
+    /**
+     * Updates a data element in the top-n data table.
+     *
+     * <p>If the data element is not found, it is inserted if it ranks above the current last element.</p>
+     *
+     * @param key the key for the data element to update or add
+     * @param value the value for the data element to update or add
+     * @return this same object
+     * @throws NullPointerException if the key is null
+     */
+    public LongTopNTable<K> update(final K key, final long value) {
+        if (key == null)
+            throw new NullPointerException("key");
+        final int i = positions.get(key);
+        if (i >= 0) {
+            final long oldValue = values[i];
+            values[i] = value;
+            if (value < oldValue)
+                siftUp(i);
+            else if (value > oldValue)
+                siftDown(i);
+        } else if (size < n) {
+            keys[size] = key;
+            values[size] = value;
+            siftUp(size++);
+        } else if (n > 0 && isWorse(keyAt(0), values[0], key, value)) {
+            positions.remove(keys[0]);
+            keys[0] = key;
+            values[0] = value;
+            siftDown(0);
+        }
+        return this;
+    }
+
+    /**
+     * Adds all data from a top-n data table object to this top-n data table.
+     *
+     * @param topNTable top-n data table object to be added to this top-n data table
+     * @return this same object
+     * @throws NullPointerException if the top-n data table is null
+     */
+    public LongTopNTable<K> addAll(final LongTopNTable<K> topNTable) {
+        if (topNTable == null)
+            throw new NullPointerException();
+        for (int i=0; i<topNTable.size; i++)
+            update(topNTable.keyAt(i), topNTable.values[i]);
+        return this;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public String toString() {
+        return String.format("{n=%d, entries=%s}", n, getEntries());
+    }
+}
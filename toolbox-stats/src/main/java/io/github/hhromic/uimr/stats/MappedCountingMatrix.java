@@ -0,0 +1,452 @@
+package io.github.hhromic.uimr.stats;
+
+import java.io.File;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Serializable;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+import java.util.List;
+import java.util.ArrayList;
+import java.util.Map;
+import java.util.HashMap;
+import java.util.Set;
+import java.util.AbstractSet;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Collections;
+import java.util.Arrays;
+
+/**
+ * Memory-mapped Counting Matrix class.
+ *
+ * <p>This class implements a counting sparse matrix whose cells live outside of the Java heap, in
+ * memory-mapped files inside a given directory. Keys of both dimensions are interned into dense
+ * {@code int} ids and cells are stored in an open-addressing hash table of packed (id1,id2) keys
+ * and {@code long} counts. The total counts of the first dimension are stored in a separate
+ * memory-mapped {@code long} array indexed by id. Therefore, {@link #getCount(Object,Object)} and
+ * {@link #increment(Object,Object,long)} are O(1) and do not create garbage once keys are interned.</p>
+ *
+ * <p>The key dictionaries are kept on the heap and written to disk on {@link #flush()} and
+ * {@link #close()}. Opening a directory with existing files restores the matrix, so counts persist
+ * across restarts as long as the matrix was flushed or closed properly.</p>
+ *
+ * <p>The second dimension keys of every row are served by an on-heap index of column ids grouped by
+ * row, built lazily with a single pass over the cell table and kept until a new cell is added. Row-wise
+ * consumers such as {@link #addAll(CountingMatrix)} or {@link #compact()} therefore scan the cell
+ * table once, not once per row. Note that this class is not thread-safe.</p>
+ *
+ * <p><strong>Example usage:</strong></p>
+ *
+ * <pre><code>
+ * try (MappedCountingMatrix&lt;String,String&gt; matrix = new MappedCountingMatrix&lt;String,String&gt;(new File("cooc"))) {
+ *     matrix.increment("#java", "#jvm", 1);
+ *     System.out.println(matrix.getCount("#java", "#jvm"));
+ * }
+ * </code></pre>
+ *
+ * @author Hugo Hromic
+ * @since 4.0
+ * @see CountingMatrix
+ * @see FileChannel#map
+ */
+public class MappedCountingMatrix<K1 extends Serializable,K2 extends Serializable> extends CountingMatrix<K1,K2> implements Closeable {
+    /** File name of the cells hash table. */
+    public static final String CELLS_FILE = "cells.dat";
+
+    /** File name of the first dimension total counts. */
+    public static final String TOTALS_FILE = "totals.dat";
+
+    /** File name of the first dimension key dictionary. */
+    public static final String ROW_KEYS_FILE = "rows.keys";
+
+    /** File name of the second dimension key dictionary. */
+    public static final String COLUMN_KEYS_FILE = "columns.keys";
+
+    private static final int HEADER_BYTES = 16;
+    private static final int SLOT_BYTES = 16;
+    private static final int SEGMENT_SHIFT = 26;
+    private static final long SEGMENT_SLOTS = 1L << SEGMENT_SHIFT;
+    private static final long INITIAL_CAPACITY = 1L << 12;
+    private static final int INITIAL_ROWS = 1 << 10;
+    private static final int MAX_ROWS = 1 << 27;
+
+    private final File directory;
+    private final List<K1> rowKeys;
+    private final Map<K1,Integer> rowIds;
+    private final List<K2> columnKeys;
+    private final Map<K2,Integer> columnIds;
+
+    private FileChannel cellsChannel;
+    private MappedByteBuffer cellsHeader;
+    private MappedByteBuffer[] cellSegments;
+    private long capacity;
+    private long size;
+
+    private final FileChannel totalsChannel;
+    private MappedByteBuffer totals;
+
+    // Column ids grouped by row id (compressed sparse row), null when stale
+    private int[] rowOffsets;
+    private int[] rowColumns;
+
+    /**
+     * Creates a new {@code MappedCountingMatrix} object backed by files in a directory.
+     *
+     * <p>If the directory already contains a matrix, it is opened and its counts are restored.</p>
+     *
+     * @param directory the directory where to store the matrix files
+     * @throws IOException if the matrix files can not be created or opened
+     * @throws NullPointerException if the directory is null
+     */
+    public MappedCountingMatrix(final File directory) throws IOException {
+        if (directory == null)
+            throw new NullPointerException();
+        if (!directory.isDirectory() && !directory.mkdirs())
+            throw new IOException("unable to create directory: " + directory);
+        this.directory = directory;
+
+        // Key dictionaries
+        rowKeys = readKeys(new File(directory, ROW_KEYS_FILE));
+        rowIds = new HashMap<K1,Integer>();
+        for (int id=0; id<rowKeys.size(); id++)
+            rowIds.put(rowKeys.get(id), id);
+        columnKeys = readKeys(new File(directory, COLUMN_KEYS_FILE));
+        columnIds = new HashMap<K2,Integer>();
+        for (int id=0; id<columnKeys.size(); id++)
+            columnIds.put(columnKeys.get(id), id);
+
+        // Cells hash table
+        final File cellsFile = new File(directory, CELLS_FILE);
+        final boolean existing = cellsFile.length() >= HEADER_BYTES;
+        cellsChannel = openChannel(cellsFile, false);
+        cellsHeader = cellsChannel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_BYTES);
+        if (existing) {
+            capacity = cellsHeader.getLong(0);
+            size = cellsHeader.getLong(8);
+        } else {
+            capacity = INITIAL_CAPACITY;
+            size = 0L;
+            cellsHeader.putLong(0, capacity);
+            cellsHeader.putLong(8, size);
+        }
+        cellSegments = mapSegments(cellsChannel, capacity);
+
+        // First dimension total counts
+        totalsChannel = openChannel(new File(directory, TOTALS_FILE), false);
+        final long totalsBytes = Math.max(totalsChannel.size(), (long)Math.max(INITIAL_ROWS, rowKeys.size()) * 8);
+        totals = totalsChannel.map(FileChannel.MapMode.READ_WRITE, 0, totalsBytes);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <K> List<K> readKeys(final File file) throws IOException {
+        if (!file.isFile())
+            return new ArrayList<K>();
+        try (final ObjectInputStream ois = new ObjectInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+            return (List<K>)ois.readObject();
+        } catch (ClassNotFoundException e) {
+            throw new IOException("unable to read keys: " + file, e);
+        }
+    }
+
+    private static void writeKeys(final File file, final List<?> keys) throws IOException {
+        final File tmpFile = new File(file.getPath() + ".tmp");
+        try (final ObjectOutputStream oos = new ObjectOutputStream(new BufferedOutputStream(new FileOutputStream(tmpFile)))) {
+            oos.writeObject(keys);
+        }
+        Files.move(tmpFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private static FileChannel openChannel(final File file, final boolean truncate) throws IOException {
+        if (truncate)
+            return FileChannel.open(file.toPath(), StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+        return FileChannel.open(file.toPath(), StandardOpenOption.CREATE, StandardOpenOption.READ,
+            StandardOpenOption.WRITE);
+    }
+
+    private static MappedByteBuffer[] mapSegments(final FileChannel channel, final long capacity) throws IOException {
+        final int count = (int)Math.max(1L, capacity >>> SEGMENT_SHIFT);
+        final long segmentBytes = Math.min(capacity, SEGMENT_SLOTS) * SLOT_BYTES;
+        final MappedByteBuffer[] segments = new MappedByteBuffer[count];
+        for (int i=0; i<count; i++)
+            segments[i] = channel.map(FileChannel.MapMode.READ_WRITE, HEADER_BYTES + i * segmentBytes, segmentBytes);
+        return segments;
+    }
+
+    private static long pack(final int id1, final int id2) {
+        return ((long)(id1 + 1) << 32) | (id2 & 0xffffffffL);
+    }
+
+    private static long mix(long key) {
+        key ^= key >>> 33;
+        key *= 0xff51afd7ed558ccdL;
+        key ^= key >>> 33;
+        key *= 0xc4ceb9fe1a85ec53L;
+        key ^= key >>> 33;
+        return key;
+    }
+
+    private static long getSlotKey(final MappedByteBuffer[] segments, final long slot) {
+        return segments[(int)(slot >>> SEGMENT_SHIFT)].getLong((int)(slot & (SEGMENT_SLOTS - 1)) * SLOT_BYTES);
+    }
+
+    private static long getSlotCount(final MappedByteBuffer[] segments, final long slot) {
+        return segments[(int)(slot >>> SEGMENT_SHIFT)].getLong((int)(slot & (SEGMENT_SLOTS - 1)) * SLOT_BYTES + 8);
+    }
+
+    private static void putSlot(final MappedByteBuffer[] segments, final long slot, final long key, final long count) {
+        final MappedByteBuffer segment = segments[(int)(slot >>> SEGMENT_SHIFT)];
+        final int offset = (int)(slot & (SEGMENT_SLOTS - 1)) * SLOT_BYTES;
+        segment.putLong(offset, key);
+        segment.putLong(offset + 8, count);
+    }
+
+    /** Finds the slot holding a packed key, or the empty slot where it should be inserted. */
+    private static long findSlot(final MappedByteBuffer[] segments, final long capacity, final long key) {
+        final long mask = capacity - 1;
+        long slot = mix(key) & mask;
+        long slotKey;
+        while ((slotKey = getSlotKey(segments, slot)) != 0L && slotKey != key)
+            slot = (slot + 1) & mask;
+        return slot;
+    }
+
+    private void resize(final long newCapacity) throws IOException {
+        final File cellsFile = new File(directory, CELLS_FILE);
+        final File tmpFile = new File(directory, CELLS_FILE + ".tmp");
+        final FileChannel newChannel = openChannel(tmpFile, true);
+        final MappedByteBuffer newHeader = newChannel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_BYTES);
+        final MappedByteBuffer[] newSegments = mapSegments(newChannel, newCapacity);
+        for (long slot=0; slot<capacity; slot++) {
+            final long key = getSlotKey(cellSegments, slot);
+            if (key != 0L)
+                putSlot(newSegments, findSlot(newSegments, newCapacity, key), key, getSlotCount(cellSegments, slot));
+        }
+        newHeader.putLong(0, newCapacity);
+        newHeader.putLong(8, size);
+        for (final MappedByteBuffer segment : newSegments)
+            segment.force();
+        newHeader.force();
+
+        // Old mappings are released by the garbage collector once unreachable
+        cellsChannel.close();
+        Files.move(tmpFile.toPath(), cellsFile.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        cellsChannel = newChannel;
+        cellsHeader = newHeader;
+        cellSegments = newSegments;
+        capacity = newCapacity;
+    }
+
+    private int internRow(final K1 k1) throws IOException {
+        final Integer id = rowIds.get(k1);
+        if (id != null)
+            return id;
+        final int newId = rowKeys.size();
+        if (newId >= MAX_ROWS)
+            throw new IllegalStateException("too many first dimension keys");
+        if ((long)(newId + 1) * 8 > totals.capacity())
+            totals = totalsChannel.map(FileChannel.MapMode.READ_WRITE, 0, (long)totals.capacity() * 2);
+        rowKeys.add(k1);
+        rowIds.put(k1, newId);
+        return newId;
+    }
+
+    private int internColumn(final K2 k2) {
+        final Integer id = columnIds.get(k2);
+        if (id != null)
+            return id;
+        final int newId = columnKeys.size();
+        columnKeys.add(k2);
+        columnIds.put(k2, newId);
+        return newId;
+    }
+
+    /**
+     * Gets all the keys stored for the first dimension.
+     *
+     * @return an unmodifiable view of the keys of the first dimension
+     */
+    @Override
+    public Set<K1> getKeys() {
+        return Collections.unmodifiableSet(rowIds.keySet());
+    }
+
+    /** Builds the row index with one counting pass and one filling pass over the cell table. */
+    private void buildRowIndex() {
+        if (size > Integer.MAX_VALUE - 8)
+            throw new IllegalStateException("too many cells to index: " + size);
+        final int[] offsets = new int[rowKeys.size() + 1];
+        for (long slot=0; slot<capacity; slot++) {
+            final long key = getSlotKey(cellSegments, slot);
+            if (key != 0L)
+                offsets[(int)(key >>> 32)]++;
+        }
+        // Prefix sums, row id1 then spans from offsets[id1] to offsets[id1 + 1]
+        for (int id1=1; id1<offsets.length; id1++)
+            offsets[id1] += offsets[id1 - 1];
+        final int[] columns = new int[(int)size];
+        final int[] next = Arrays.copyOf(offsets, offsets.length - 1);
+        for (long slot=0; slot<capacity; slot++) {
+            final long key = getSlotKey(cellSegments, slot);
+            if (key != 0L)
+                columns[next[(int)(key >>> 32) - 1]++] = (int)key;
+        }
+        rowOffsets = offsets;
+        rowColumns = columns;
+    }
+
+    /**
+     * Gets all the keys stored for the second dimension for a particular first dimension key.
+     *
+     * <p>The returned set is an unmodifiable view of the keys at the time of the call. The first call
+     * after new cells were added rebuilds the row index with one pass over the cell table.</p>
+     *
+     * @param k1 the key for the first dimension
+     * @return the keys of the second dimension, {@code null} if the key is not found
+     */
+    @Override
+    public Set<K2> getKeys(final K1 k1) {
+        final Integer id1 = rowIds.get(k1);
+        if (id1 == null)
+            return null;
+        if (rowOffsets == null)
+            buildRowIndex();
+        final int[] columns = rowColumns;
+        final int start = rowOffsets[id1];
+        final int end = rowOffsets[id1 + 1];
+        return new AbstractSet<K2>() {
+            @Override
+            public int size() {
+                return end - start;
+            }
+
+            @Override
+            public boolean contains(final Object key) {
+                final Integer id2 = columnIds.get(key);
+                if (id2 == null)
+                    return false;
+                final long packed = pack(id1, id2);
+                return getSlotKey(cellSegments, findSlot(cellSegments, capacity, packed)) == packed;
+            }
+
+            @Override
+            public Iterator<K2> iterator() {
+                return new Iterator<K2>() {
+                    private int next = start;
+
+                    @Override
+                    public boolean hasNext() {
+                        return next < end;
+                    }
+
+                    @Override
+                    public K2 next() {
+                        if (next >= end)
+                            throw new NoSuchElementException();
+                        return columnKeys.get(columns[next++]);
+                    }
+                };
+            }
+        };
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public long getCount(final K1 k1, final K2 k2) {
+        final Integer id1 = rowIds.get(k1);
+        final Integer id2 = columnIds.get(k2);
+        if (id1 == null || id2 == null)
+            return 0L;
+        final long key = pack(id1, id2);
+        final long slot = findSlot(cellSegments, capacity, key);
+        return getSlotKey(cellSegments, slot) == key ? getSlotCount(cellSegments, slot) : 0L;
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @throws UncheckedIOException if the cell table can not be grown
+     */
+    @Override
+    public void increment(final K1 k1, final K2 k2, final long amount) {
+        try {
+            final int id1 = internRow(k1);
+            final long key = pack(id1, internColumn(k2));
+            final long slot = findSlot(cellSegments, capacity, key);
+            if (getSlotKey(cellSegments, slot) == key) {
+                putSlot(cellSegments, slot, key, getSlotCount(cellSegments, slot) + amount);
+            } else {
+                putSlot(cellSegments, slot, key, amount);
+                cellsHeader.putLong(8, ++size);
+                rowOffsets = null;
+                rowColumns = null;
+                if (size * 10 > capacity * 7)
+                    resize(capacity << 1);
+            }
+            totals.putLong(id1 * 8, totals.getLong(id1 * 8) + amount);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public long getTotalCount(final K1 k1) {
+        final Integer id1 = rowIds.get(k1);
+        return id1 == null ? 0L : totals.getLong(id1 * 8);
+    }
+
+    /**
+     * Gets the number of non-empty cells stored in this matrix.
+     *
+     * @return the number of non-empty cells
+     */
+    public long getCellCount() {
+        return size;
+    }
+
+    /**
+     * Writes all pending changes of this matrix to disk.
+     *
+     * @throws IOException if the matrix files can not be written
+     */
+    public void flush() throws IOException {
+        for (final MappedByteBuffer segment : cellSegments)
+            segment.force();
+        cellsHeader.force();
+        totals.force();
+        writeKeys(new File(directory, ROW_KEYS_FILE), rowKeys);
+        writeKeys(new File(directory, COLUMN_KEYS_FILE), columnKeys);
+    }
+
+    /**
+     * Flushes and closes this matrix.
+     *
+     * @throws IOException if the matrix files can not be written or closed
+     */
+    @Override
+    public void close() throws IOException {
+        flush();
+        cellsChannel.close();
+        totalsChannel.close();
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public String toString() {
+        return String.format("{directory=%s, rows=%d, columns=%d, cells=%d, capacity=%d}",
+            directory, rowKeys.size(), columnKeys.size(), size, capacity);
+    }
+}
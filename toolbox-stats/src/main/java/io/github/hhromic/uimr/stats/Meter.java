@@ -0,0 +1,191 @@
+package io.github.hhromic.uimr.stats;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * This class implements a thread-safe meter of event rates.
+ *
+ * <p>Events are counted with a {@code LongAdder}, so marking an event is a single uncontended
+ * increment. Every {@link #TICK_INTERVAL} seconds the events marked since the previous tick are
+ * folded into exponentially-weighted moving averages (EWMA) of the rate over 1, 5 and 15 minutes,
+ * like the UNIX load averages. Ticks are applied lazily when a rate is read, or explicitly with
+ * {@link #tick()}, so no background thread is needed. All rates are in events per second.</p>
+ *
+ * <p><strong>Example usage:</strong></p>
+ *
+ * <pre><code>
+ * final Meter meter = new Meter();
+ * meter.mark();
+ * System.out.println("1-minute rate: " + meter.getOneMinuteRate() + " events/s");
+ * </code></pre>
+ *
+ * @author Hugo Hromic
+ * @since 4.0
+ */
+public class Meter {
+    /** Interval between rate updates, in seconds. */
+    public static final int TICK_INTERVAL = 5;
+
+    private static final long TICK_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(TICK_INTERVAL);
+    private static final double M1_ALPHA = 1 - Math.exp(-TICK_INTERVAL / 60.0);
+    private static final double M5_ALPHA = 1 - Math.exp(-TICK_INTERVAL / 60.0 / 5);
+    private static final double M15_ALPHA = 1 - Math.exp(-TICK_INTERVAL / 60.0 / 15);
+
+    private final LongSupplier clock;
+    private final long startTime;
+    private final LongAdder count;
+    private final AtomicLong lastTick;
+    private volatile long lastTickCount;
+    private volatile boolean initialized;
+    private volatile double m1Rate;
+    private volatile double m5Rate;
+    private volatile double m15Rate;
+
+    /** Creates a new {@code Meter} object using {@code System.nanoTime()} as the time source. */
+    public Meter() {
+        this(System::nanoTime);
+    }
+
+    /**
+     * Creates a new {@code Meter} object.
+     *
+     * @param clock the time source, in nanoseconds
+     * @throws NullPointerException if the clock is null
+     */
+    public Meter(final LongSupplier clock) {
+        if (clock == null)
+            throw new NullPointerException("clock");
+        this.clock = clock;
+        startTime = clock.getAsLong();
+        count = new LongAdder();
+        lastTick = new AtomicLong(startTime);
+        lastTickCount = 0L;
+        initialized = false;
+        m1Rate = 0.0;
+        m5Rate = 0.0;
+        m15Rate = 0.0;
+    }
+
+    /**
+     * Marks the occurrence of an event.
+     *
+     * @return this same object
+     */
+    public Meter mark() {
+        count.increment();
+        return this;
+    }
+
+    /**
+     * Marks the occurrence of a number of events.
+     *
+     * @param n the number of events
+     * @return this same object
+     */
+    public Meter mark(final long n) {
+        count.add(n);
+        return this;
+    }
+
+    /**
+     * Updates the moving averages with every tick interval elapsed since the last update.
+     *
+     * <p>This method is called by every rate getter, call it explicitly to update the moving
+     * averages of meters that are not read regularly.</p>
+     */
+    public void tick() {
+        final long oldTick = lastTick.get();
+        final long age = clock.getAsLong() - oldTick;
+        if (age < TICK_INTERVAL_NANOS)
+            return;
+        // Only the thread that moves the last tick forward updates the averages
+        final long newTick = oldTick + age - age % TICK_INTERVAL_NANOS;
+        if (!lastTick.compareAndSet(oldTick, newTick))
+            return;
+        final long currentCount = count.sum();
+        final double rate = (currentCount - lastTickCount) * 1.0 / TICK_INTERVAL;
+        lastTickCount = currentCount;
+        double m1 = m1Rate;
+        double m5 = m5Rate;
+        double m15 = m15Rate;
+        if (!initialized) {
+            m1 = rate;
+            m5 = rate;
+            m15 = rate;
+            initialized = true;
+        } else {
+            m1 += M1_ALPHA * (rate - m1);
+            m5 += M5_ALPHA * (rate - m5);
+            m15 += M15_ALPHA * (rate - m15);
+        }
+        // Missed intervals had no new events, each one decays the averages by (1 - alpha)
+        final long missedTicks = age / TICK_INTERVAL_NANOS - 1;
+        if (missedTicks > 0) {
+            m1 *= Math.pow(1.0 - M1_ALPHA, missedTicks);
+            m5 *= Math.pow(1.0 - M5_ALPHA, missedTicks);
+            m15 *= Math.pow(1.0 - M15_ALPHA, missedTicks);
+        }
+        m1Rate = m1;
+        m5Rate = m5;
+        m15Rate = m15;
+    }
+
+    /**
+     * Gets the number of events marked so far.
+     *
+     * @return the number of events marked so far
+     */
+    public long getCount() {
+        return count.sum();
+    }
+
+    /**
+     * Gets the mean rate of events since this meter was created.
+     *
+     * @return the mean rate of events, in events per second
+     */
+    public double getMeanRate() {
+        final long elapsed = clock.getAsLong() - startTime;
+        return elapsed <= 0L ? 0.0 : count.sum() * 1.0 / elapsed * TimeUnit.SECONDS.toNanos(1);
+    }
+
+    /**
+     * Gets the exponentially-weighted moving average rate of events over one minute.
+     *
+     * @return the one-minute rate of events, in events per second
+     */
+    public double getOneMinuteRate() {
+        tick();
+        return m1Rate;
+    }
+
+    /**
+     * Gets the exponentially-weighted moving average rate of events over five minutes.
+     *
+     * @return the five-minute rate of events, in events per second
+     */
+    public double getFiveMinuteRate() {
+        tick();
+        return m5Rate;
+    }
+
+    /**
+     * Gets the exponentially-weighted moving average rate of events over fifteen minutes.
+     *
+     * @return the fifteen-minute rate of events, in events per second
+     */
+    public double getFifteenMinuteRate() {
+        tick();
+        return m15Rate;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public String toString() {
+        return String.format("{count=%d, meanRate=%f, m1Rate=%f, m5Rate=%f, m15Rate=%f}",
+            getCount(), getMeanRate(), getOneMinuteRate(), getFiveMinuteRate(), getFifteenMinuteRate());
+    }
+}
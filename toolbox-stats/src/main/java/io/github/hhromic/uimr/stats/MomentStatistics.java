@@ -0,0 +1,247 @@
+package io.github.hhromic.uimr.stats;
+
+/**
+ * This class implements numerically stable streaming moments for {@code double} data values.
+ *
+ * <p>Unlike {@link DoubleStatistics} and {@link LongStatistics}, this class keeps its own count of
+ * data values and updates the mean and the central moments incrementally (Welford's algorithm
+ * extended to the third and fourth moments), so it does not lose precision on large-magnitude data
+ * values such as timestamps and it can not overflow on large {@code long} values.</p>
+ *
+ * <p>Partial results, for example computed by different fork-join workers, can be combined exactly
+ * in one step with {@link #addAll(MomentStatistics)}, which uses the pairwise update formulas of
+ * Chan et al. and Pébay.</p>
+ *
+ * @author Hugo Hromic
+ * @since 4.0
+ * @see DoubleStatistics
+ * @see LongStatistics
+ */
+public class MomentStatistics {
+    private long count;
+    private double mean;
+    private double m2;
+    private double m3;
+    private double m4;
+    private double min;
+    private double max;
+
+    /** Creates a new {@code MomentStatistics} object. */
+    public MomentStatistics() {
+        count = 0L;
+        mean = 0.0;
+        m2 = 0.0;
+        m3 = 0.0;
+        m4 = 0.0;
+        min = Double.MAX_VALUE;
+        max = -Double.MAX_VALUE;
+    }
+
+    /**
+     * Creates a new {@code MomentStatistics} object with given initial values.
+     *
+     * @param count the initial number of data values
+     * @param mean the initial mean
+     * @param m2 the initial sum of squared deviations from the mean
+     * @param m3 the initial sum of cubed deviations from the mean
+     * @param m4 the initial sum of fourth power deviations from the mean
+     * @param min the initial minimum data value
+     * @param max the initial maximum data value
+     */
+    MomentStatistics(final long count, final double mean, final double m2, final double m3,
+            final double m4, final double min, final double max) {
+        this.count = count;
+        this.mean = mean;
+        this.m2 = m2;
+        this.m3 = m3;
+        this.m4 = m4;
+        this.min = min;
+        this.max = max;
+    }
+
+    /** Gets the sum of squared deviations from the mean. */
+    double getM2() {
+        return m2;
+    }
+
+    /** Gets the sum of cubed deviations from the mean. */
+    double getM3() {
+        return m3;
+    }
+
+    /** Gets the sum of fourth power deviations from the mean. */
+    double getM4() {
+        return m4;
+    }
+
+    /**
+     * Gets the number of data values seen so far.
+     *
+     * @return the number of data values seen so far
+     */
+    public long getCount() {
+        return count;
+    }
+
+    /**
+     * Gets the sum of the data values seen so far.
+     *
+     * @return the sum of the data values seen so far
+     */
+    public double getSum() {
+        return mean * count;
+    }
+
+    /**
+     * Gets the minimum data value seen so far.
+     *
+     * @return the minimum data value seen so far
+     */
+    public double getMin() {
+        return min;
+    }
+
+    /**
+     * Gets the maximum data value seen so far.
+     *
+     * @return the maximum data value seen so far
+     */
+    public double getMax() {
+        return max;
+    }
+
+    /**
+     * Gets the mean of the data seen so far.
+     *
+     * @return the mean of the data seen so far, or NaN if empty
+     */
+    public double getMean() {
+        return count == 0L ? Double.NaN : mean;
+    }
+
+    /**
+     * Gets the population variance of the data seen so far.
+     *
+     * @return the population variance of the data seen so far, or NaN if empty
+     */
+    public double getVariance() {
+        return count == 0L ? Double.NaN : m2 / count;
+    }
+
+    /**
+     * Gets the sample (unbiased) variance of the data seen so far.
+     *
+     * @return the sample variance of the data seen so far, or NaN if less than two data values
+     */
+    public double getSampleVariance() {
+        return count < 2L ? Double.NaN : m2 / (count - 1);
+    }
+
+    /**
+     * Gets the population standard deviation of the data seen so far.
+     *
+     * @return the population standard deviation of the data seen so far, or NaN if empty
+     */
+    public double getStdDeviation() {
+        return Math.sqrt(getVariance());
+    }
+
+    /**
+     * Gets the skewness of the data seen so far.
+     *
+     * @return the population skewness of the data seen so far, or NaN if undefined
+     */
+    public double getSkewness() {
+        if (count == 0L || m2 == 0.0)
+            return Double.NaN;
+        return Math.sqrt(count) * m3 / Math.pow(m2, 1.5);
+    }
+
+    /**
+     * Gets the excess kurtosis of the data seen so far.
+     *
+     * @return the population excess kurtosis of the data seen so far, or NaN if undefined
+     */
+    public double getKurtosis() {
+        if (count == 0L || m2 == 0.0)
+            return Double.NaN;
+        return count * m4 / (m2 * m2) - 3.0;
+    }
+
+    /**
+     * Adds a new data value point.
+     *
+     * @param data the data point to add
+     * @return this same object
+     */
+    public MomentStatistics add(final double data) {
+        final long n1 = count;
+        count++;
+        final double delta = data - mean;
+        final double deltaN = delta / count;
+        final double deltaN2 = deltaN * deltaN;
+        final double term1 = delta * deltaN * n1;
+        mean += deltaN;
+        m4 += term1 * deltaN2 * ((double)count * count - 3.0 * count + 3.0) + 6.0 * deltaN2 * m2 - 4.0 * deltaN * m3;
+        m3 += term1 * deltaN * (count - 2.0) - 3.0 * deltaN * m2;
+        m2 += term1;
+        min = Math.min(min, data);
+        max = Math.max(max, data);
+        return this;
+    }
+
+    /**
+     * Adds all data from a moment statistics object to this statistics.
+     *
+     * <p>The result is the same, up to floating-point rounding, as adding all the data values of both
+     * objects to a single object.</p>
+     *
+     * @param statistics moment statistics object to be added to this statistics
+     * @return this same object
+     * @throws NullPointerException if the statistics is null
+     */
+    public MomentStatistics addAll(final MomentStatistics statistics) {
+        if (statistics == null)
+            throw new NullPointerException();
+        if (statistics.count == 0L)
+            return this;
+        if (count == 0L) {
+            count = statistics.count;
+            mean = statistics.mean;
+            m2 = statistics.m2;
+            m3 = statistics.m3;
+            m4 = statistics.m4;
+            min = statistics.min;
+            max = statistics.max;
+            return this;
+        }
+        final double na = count;
+        final double nb = statistics.count;
+        final double n = na + nb;
+        final double delta = statistics.mean - mean;
+        final double delta2 = delta * delta;
+        final double newM2 = m2 + statistics.m2 + delta2 * na * nb / n;
+        final double newM3 = m3 + statistics.m3 +
+            delta2 * delta * na * nb * (na - nb) / (n * n) +
+            3.0 * delta * (na * statistics.m2 - nb * m2) / n;
+        final double newM4 = m4 + statistics.m4 +
+            delta2 * delta2 * na * nb * (na * na - na * nb + nb * nb) / (n * n * n) +
+            6.0 * delta2 * (na * na * statistics.m2 + nb * nb * m2) / (n * n) +
+            4.0 * delta * (na * statistics.m3 - nb * m3) / n;
+        count += statistics.count;
+        mean += delta * nb / n;
+        m2 = newM2;
+        m3 = newM3;
+        m4 = newM4;
+        min = Math.min(min, statistics.min);
+        max = Math.max(max, statistics.max);
+        return this;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public String toString() {
+        return String.format("{count=%d, mean=%f, m2=%f, m3=%f, m4=%f, min=%f, max=%f}",
+            count, mean, m2, m3, m4, min, max);
+    }
+}
@@ -0,0 +1,380 @@
+package io.github.hhromic.uimr.stats;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * This class implements a mergeable streaming quantile sketch for {@code double} data values.
+ *
+ * <p>The sketch is a KLL sketch (Karnin, Lang and Liberty, 2016): a hierarchy of compactors where
+ * level {@code h} holds items of weight {@code 2^h}. When the sketch is full, the lowest level over
+ * its capacity is sorted and every other item (starting at a random offset) is promoted to the next
+ * level. Memory is bounded by roughly {@code 3k} items regardless of the number of data values seen,
+ * adding a value is O(1) amortized and the rank error is about {@code 1.7/k} with high probability.</p>
+ *
+ * <p>Sketches can be merged with {@link #addAll(QuantileSketch)}, for example to combine partial
+ * sketches computed by different workers or nodes, and can be serialized to a compact binary form
+ * with {@link #writeTo(DataOutput)} and {@link #readFrom(DataInput)}. The minimum and maximum values
+ * are tracked exactly. This class is not thread-safe.</p>
+ *
+ * <p><strong>Example usage:</strong></p>
+ *
+ * <pre><code>
+ * final QuantileSketch sketch = new QuantileSketch();
+ * for (final double latency : latencies)
+ *     sketch.add(latency);
+ * System.out.println("p99=" + sketch.getQuantile(0.99));
+ * </code></pre>
+ *
+ * @author Hugo Hromic
+ * @since 4.0
+ * @see Statistics
+ */
+public class QuantileSketch {
+    /** Default accuracy parameter (k) of the sketch. */
+    public static final int DEFAULT_K = 200;
+
+    private static final byte VERSION = 1;
+    private static final double CAPACITY_DECAY = 2.0 / 3.0;
+
+    private final int k;
+    private double[][] levels;
+    private int[] sizes;
+    private int numLevels;
+    private int size;
+    private int maxSize;
+    private long count;
+    private double min;
+    private double max;
+
+    /** Creates a new {@code QuantileSketch} object with the default accuracy parameter. */
+    public QuantileSketch() {
+        this(DEFAULT_K);
+    }
+
+    /**
+     * Creates a new {@code QuantileSketch} object.
+     *
+     * @param k the accuracy parameter of the sketch, larger is more accurate but uses more memory
+     * @throws IllegalArgumentException if {@code k} is lower than 8
+     */
+    public QuantileSketch(final int k) {
+        if (k < 8)
+            throw new IllegalArgumentException("k: " + k);
+        this.k = k;
+        levels = new double[0][];
+        sizes = new int[0];
+        numLevels = 0;
+        size = 0;
+        maxSize = 0;
+        count = 0L;
+        min = Double.MAX_VALUE;
+        max = -Double.MAX_VALUE;
+        grow();
+    }
+
+    private int getCapacity(final int level) {
+        return (int)Math.ceil(Math.pow(CAPACITY_DECAY, numLevels - level - 1) * k) + 1;
+    }
+
+    private void grow() {
+        levels = Arrays.copyOf(levels, numLevels + 1);
+        sizes = Arrays.copyOf(sizes, numLevels + 1);
+        levels[numLevels] = new double[numLevels == 0 ? k + 1 : 8];
+        numLevels++;
+        maxSize = 0;
+        for (int level=0; level<numLevels; level++)
+            maxSize += getCapacity(level);
+    }
+
+    private void append(final int level, final double[] items, final int from, final int to) {
+        final int length = to - from;
+        if (sizes[level] + length > levels[level].length)
+            levels[level] = Arrays.copyOf(levels[level], Math.max(levels[level].length * 2, sizes[level] + length));
+        System.arraycopy(items, from, levels[level], sizes[level], length);
+        sizes[level] += length;
+    }
+
+    private void compact(final int level) {
+        if (level + 1 >= numLevels)
+            grow();
+        final double[] items = levels[level];
+        final int length = sizes[level];
+        Arrays.sort(items, 0, length);
+
+        // For odd lengths, the smallest item stays at this level
+        final int start = length & 1;
+        final int promoted = (length - start) >>> 1;
+        final int offset = ThreadLocalRandom.current().nextBoolean() ? 1 : 0;
+        if (sizes[level + 1] + promoted > levels[level + 1].length)
+            levels[level + 1] = Arrays.copyOf(levels[level + 1], Math.max(levels[level + 1].length * 2, sizes[level + 1] + promoted));
+        final double[] next = levels[level + 1];
+        for (int i=0; i<promoted; i++)
+            next[sizes[level + 1]++] = items[start + offset + (i << 1)];
+        sizes[level] = start;
+        size -= promoted;
+    }
+
+    private void compress() {
+        for (int level=0; level<numLevels; level++) {
+            if (sizes[level] >= getCapacity(level)) {
+                compact(level);
+                if (size < maxSize)
+                    break;
+            }
+        }
+    }
+
+    /**
+     * Gets the accuracy parameter (k) of this sketch.
+     *
+     * @return the accuracy parameter of this sketch
+     */
+    public int getK() {
+        return k;
+    }
+
+    /**
+     * Gets the number of data values seen so far.
+     *
+     * @return the number of data values seen so far
+     */
+    public long getCount() {
+        return count;
+    }
+
+    /**
+     * Gets the number of items currently retained by this sketch.
+     *
+     * @return the number of items retained by this sketch
+     */
+    public int getRetainedCount() {
+        return size;
+    }
+
+    /**
+     * Gets the minimum data value seen so far.
+     *
+     * @return the minimum data value seen so far
+     */
+    public double getMin() {
+        return min;
+    }
+
+    /**
+     * Gets the maximum data value seen so far.
+     *
+     * @return the maximum data value seen so far
+     */
+    public double getMax() {
+        return max;
+    }
+
+    /**
+     * Adds a new data value.
+     *
+     * @param data the data value to add
+     * @return this same object
+     * @throws IllegalArgumentException if the data value is NaN
+     */
+    public QuantileSketch add(final double data) {
+        if (Double.isNaN(data))
+            throw new IllegalArgumentException("NaN");
+        if (sizes[0] == levels[0].length)
+            levels[0] = Arrays.copyOf(levels[0], levels[0].length * 2);
+        levels[0][sizes[0]++] = data;
+        size++;
+        count++;
+        if (data < min)
+            min = data;
+        if (data > max)
+            max = data;
+        if (size >= maxSize)
+            compress();
+        return this;
+    }
+
+    /**
+     * Adds all data from a quantile sketch to this sketch.
+     *
+     * <p>The given sketch is not modified.</p>
+     *
+     * @param sketch quantile sketch to be added to this sketch
+     * @return this same object
+     * @throws NullPointerException if the sketch is null
+     */
+    public QuantileSketch addAll(final QuantileSketch sketch) {
+        if (sketch == null)
+            throw new NullPointerException();
+        if (sketch.count == 0L)
+            return this;
+        while (numLevels < sketch.numLevels)
+            grow();
+        for (int level=0; level<sketch.numLevels; level++) {
+            append(level, sketch.levels[level], 0, sketch.sizes[level]);
+            size += sketch.sizes[level];
+        }
+        count += sketch.count;
+        min = Math.min(min, sketch.min);
+        max = Math.max(max, sketch.max);
+        while (size >= maxSize)
+            compress();
+        return this;
+    }
+
+    /** Gets all retained items sorted by value, with their cumulative weights. */
+    private double[][] getSortedView() {
+        final double[][] sorted = new double[numLevels][];
+        for (int level=0; level<numLevels; level++) {
+            sorted[level] = Arrays.copyOf(levels[level], sizes[level]);
+            Arrays.sort(sorted[level]);
+        }
+
+        // Merge the sorted levels, there are only a few dozens of them at most
+        final int[] positions = new int[numLevels];
+        final double[][] view = new double[2][size];
+        double cumulative = 0.0;
+        for (int i=0; i<size; i++) {
+            int minLevel = -1;
+            for (int level=0; level<numLevels; level++)
+                if (positions[level] < sorted[level].length &&
+                        (minLevel < 0 || sorted[level][positions[level]] < sorted[minLevel][positions[minLevel]]))
+                    minLevel = level;
+            view[0][i] = sorted[minLevel][positions[minLevel]++];
+            cumulative += 1L << minLevel;
+            view[1][i] = cumulative;
+        }
+        return view;
+    }
+
+    /**
+     * Gets the approximate normalized rank of a value.
+     *
+     * @param value the value to get its rank
+     * @return the approximate fraction of data values lower or equal than the value, or NaN if empty
+     */
+    public double getRank(final double value) {
+        if (count == 0L)
+            return Double.NaN;
+        long weight = 0L;
+        for (int level=0; level<numLevels; level++)
+            for (int i=0; i<sizes[level]; i++)
+                if (levels[level][i] <= value)
+                    weight += 1L << level;
+        return Math.min(1.0, weight * 1.0 / count);
+    }
+
+    /**
+     * Gets the approximate value at a quantile.
+     *
+     * @param quantile the quantile to get, from 0 to 1
+     * @return the approximate value at the quantile, or NaN if empty
+     * @throws IllegalArgumentException if the quantile is out of range
+     */
+    public double getQuantile(final double quantile) {
+        return getQuantiles(quantile)[0];
+    }
+
+    /**
+     * Gets the approximate values at several quantiles.
+     *
+     * <p>Use this method to get many quantiles at once, as it sorts the retained items only once.</p>
+     *
+     * @param quantiles the quantiles to get, from 0 to 1
+     * @return the approximate values at the quantiles, or NaNs if empty
+     * @throws IllegalArgumentException if any quantile is out of range
+     */
+    public double[] getQuantiles(final double... quantiles) {
+        final double[] values = new double[quantiles.length];
+        for (final double quantile : quantiles)
+            if (!(quantile >= 0.0 && quantile <= 1.0))
+                throw new IllegalArgumentException("quantile: " + quantile);
+        if (count == 0L) {
+            Arrays.fill(values, Double.NaN);
+            return values;
+        }
+        final double[][] view = getSortedView();
+        final double total = view[1][size - 1];
+        for (int q=0; q<quantiles.length; q++) {
+            if (quantiles[q] == 0.0) {
+                values[q] = min;
+            } else if (quantiles[q] == 1.0) {
+                values[q] = max;
+            } else {
+                final double target = quantiles[q] * total;
+                int i = Arrays.binarySearch(view[1], target);
+                if (i < 0)
+                    i = -i - 1;
+                values[q] = view[0][Math.min(i, size - 1)];
+            }
+        }
+        return values;
+    }
+
+    /**
+     * Writes this sketch in compact binary form.
+     *
+     * @param out the output to write to
+     * @throws IOException if an I/O error occurs
+     * @see #readFrom(DataInput)
+     */
+    public void writeTo(final DataOutput out) throws IOException {
+        out.writeByte(VERSION);
+        out.writeInt(k);
+        out.writeLong(count);
+        out.writeDouble(min);
+        out.writeDouble(max);
+        out.writeInt(numLevels);
+        for (int level=0; level<numLevels; level++) {
+            out.writeInt(sizes[level]);
+            for (int i=0; i<sizes[level]; i++)
+                out.writeDouble(levels[level][i]);
+        }
+    }
+
+    /**
+     * Reads a sketch written by {@link #writeTo(DataOutput)}.
+     *
+     * @param in the input to read from
+     * @return the sketch read
+     * @throws IOException if an I/O error occurs or the data is not a valid sketch
+     */
+    public static QuantileSketch readFrom(final DataInput in) throws IOException {
+        final byte version = in.readByte();
+        if (version != VERSION)
+            throw new IOException("unsupported sketch version: " + version);
+        final int k = in.readInt();
+        if (k < 8)
+            throw new IOException("invalid sketch k: " + k);
+        final QuantileSketch sketch = new QuantileSketch(k);
+        sketch.count = in.readLong();
+        sketch.min = in.readDouble();
+        sketch.max = in.readDouble();
+        final int numLevels = in.readInt();
+        if (numLevels < 1 || numLevels > 64)
+            throw new IOException("invalid sketch levels: " + numLevels);
+        while (sketch.numLevels < numLevels)
+            sketch.grow();
+        for (int level=0; level<numLevels; level++) {
+            final int length = in.readInt();
+            if (length < 0)
+                throw new IOException("invalid sketch level size: " + length);
+            final double[] items = new double[length];
+            for (int i=0; i<length; i++)
+                items[i] = in.readDouble();
+            sketch.append(level, items, 0, length);
+            sketch.size += length;
+        }
+        return sketch;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public String toString() {
+        return String.format("{k=%d, count=%d, retained=%d, min=%f, max=%f}",
+            k, count, size, min, max);
+    }
+}
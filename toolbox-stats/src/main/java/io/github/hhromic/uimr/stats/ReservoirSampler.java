@@ -0,0 +1,236 @@
+package io.github.hhromic.uimr.stats;
+
+import java.util.List;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * This class implements a fixed-size uniform sample of a data stream.
+ *
+ * <p>The sample is maintained with Li's Algorithm L (1994): once the reservoir is full, the number
+ * of data elements to skip before the next replacement is drawn directly, therefore most data
+ * elements are only counted and never touch the random number generator. The expected number of
+ * replacements after {@code n} data elements is {@code O(k log(n/k))}.</p>
+ *
+ * <p>Samples of disjoint streams can be merged with {@link #addAll(ReservoirSampler)}, the result
+ * is a uniform sample of the union of the streams. This class is not thread-safe, see
+ * {@link ConcurrentReservoirSampler} for a thread-safe variant.</p>
+ *
+ * <p><strong>Example usage:</strong></p>
+ *
+ * <pre><code>
+ * final ReservoirSampler&lt;SimpleTweet&gt; sampler = new ReservoirSampler&lt;SimpleTweet&gt;(100);
+ * for (final SimpleTweet tweet : tweets)
+ *     sampler.add(tweet);
+ * final List&lt;SimpleTweet&gt; sample = sampler.getSample();
+ * </code></pre>
+ *
+ * @author Hugo Hromic
+ * @since 4.0
+ * @see WeightedReservoirSampler
+ */
+public class ReservoirSampler<E> {
+    private final int k;
+    private final Object[] items;
+    private int size;
+    private long count;
+    private long nextIndex;
+    private double w;
+
+    /**
+     * Creates a new {@code ReservoirSampler} object.
+     *
+     * @param k the size (k) of the sample
+     * @throws IllegalArgumentException if {@code k} is lower than 1
+     */
+    public ReservoirSampler(final int k) {
+        if (k < 1)
+            throw new IllegalArgumentException("k: " + k);
+        this.k = k;
+        items = new Object[k];
+        size = 0;
+        count = 0L;
+        nextIndex = 1L;
+        w = 1.0;
+    }
+
+    /** Draws a uniform random number in the open interval (0, 1). */
+    private static double nextOpenDouble(final Random random) {
+        double u;
+        do {
+            u = random.nextDouble();
+        } while (u == 0.0);
+        return u;
+    }
+
+    /** Draws a gamma random number with a shape of at least one (Marsaglia and Tsang, 2000). */
+    private static double nextGamma(final Random random, final double shape) {
+        final double d = shape - 1.0 / 3.0;
+        final double c = 1.0 / Math.sqrt(9.0 * d);
+        while (true) {
+            final double x = random.nextGaussian();
+            final double v = Math.pow(1.0 + c * x, 3);
+            if (v <= 0.0)
+                continue;
+            final double u = nextOpenDouble(random);
+            if (Math.log(u) < 0.5 * x * x + d - d * v + d * Math.log(v))
+                return d * v;
+        }
+    }
+
+    /** Draws the next index to replace after the element at a given index. */
+    private void skip(final Random random, final long index) {
+        final double s = Math.floor(Math.log(nextOpenDouble(random)) / Math.log1p(-w));
+        nextIndex = s >= Long.MAX_VALUE - index ? Long.MAX_VALUE : index + (long)s + 1L;
+    }
+
+    /**
+     * Offers a data element that was seen at a given position of the stream.
+     *
+     * <p>Subclasses that count the stream themselves use this method to process the data elements
+     * at or after the index returned by {@link #getNextIndex()}.</p>
+     *
+     * @param item the data element to offer
+     * @param index the position (from 1) of the data element in the stream
+     */
+    protected void offer(final E item, final long index) {
+        final Random random = ThreadLocalRandom.current();
+        if (index > count)
+            count = index;
+        if (size < k) {
+            items[size++] = item;
+            if (size == k) {
+                w = Math.exp(Math.log(nextOpenDouble(random)) / k);
+                skip(random, index);
+            }
+        } else if (index >= nextIndex) {
+            items[random.nextInt(k)] = item;
+            w *= Math.exp(Math.log(nextOpenDouble(random)) / k);
+            skip(random, index);
+        }
+    }
+
+    /**
+     * Gets the position (from 1) of the next data element that can enter the sample.
+     *
+     * <p>While the reservoir is not full, every data element enters the sample and this is 1.</p>
+     *
+     * @return the position of the next data element that can enter the sample
+     */
+    protected long getNextIndex() {
+        return nextIndex;
+    }
+
+    /**
+     * Gets the size (k) of the sample.
+     *
+     * @return the size of the sample
+     */
+    public int getK() {
+        return k;
+    }
+
+    /**
+     * Gets the number of data elements seen so far.
+     *
+     * @return the number of data elements seen so far
+     */
+    public long getCount() {
+        return count;
+    }
+
+    /**
+     * Gets the current sample.
+     *
+     * <p>The returned list is created on demand, modifications to this list are not reflected
+     * into the internal structure.</p>
+     *
+     * @return the current sample, with up to {@code k} data elements in no particular order
+     */
+    @SuppressWarnings("unchecked")
+    public List<E> getSample() {
+        final List<E> sample = new ArrayList<E>(size);
+        for (int i=0; i<size; i++)
+            sample.add((E)items[i]);
+        return sample;
+    }
+
+    /**
+     * Adds a new data element.
+     *
+     * @param item the data element to add
+     * @return this same object
+     */
+    public ReservoirSampler<E> add(final E item) {
+        final long index = count + 1L;
+        if (index >= getNextIndex())
+            offer(item, index);
+        else
+            count = index;
+        return this;
+    }
+
+    /**
+     * Adds all data from a reservoir sampler to this sampler.
+     *
+     * <p>Both samplers must have seen disjoint streams. Each data element of the merged sample is
+     * taken from either sample with a probability proportional to the remaining number of data
+     * elements each sampler represents. The given sampler is not modified.</p>
+     *
+     * @param sampler reservoir sampler to be added to this sampler
+     * @return this same object
+     * @throws NullPointerException if the sampler is null
+     * @throws IllegalArgumentException if the samplers have different sizes
+     */
+    public ReservoirSampler<E> addAll(final ReservoirSampler<E> sampler) {
+        if (sampler == null)
+            throw new NullPointerException();
+        if (sampler.k != k)
+            throw new IllegalArgumentException("sampler sizes differ");
+        final long otherCount = sampler.getCount();
+        if (otherCount == 0L)
+            return this;
+        final Random random = ThreadLocalRandom.current();
+        final Object[] mine = Arrays.copyOf(items, size);
+        final Object[] theirs = Arrays.copyOf(sampler.items, sampler.size);
+        long myRemaining = getCount();
+        long theirRemaining = otherCount;
+        int myAvailable = mine.length;
+        int theirAvailable = theirs.length;
+        final int total = Math.min(k, mine.length + theirs.length);
+        for (int i=0; i<total; i++) {
+            // Draw without replacement from the populations the two samples stand for
+            if (theirAvailable == 0 || (myAvailable > 0 &&
+                    random.nextDouble() * (myRemaining + theirRemaining) < myRemaining)) {
+                final int j = random.nextInt(myAvailable--);
+                items[i] = mine[j];
+                mine[j] = mine[myAvailable];
+                myRemaining--;
+            } else {
+                final int j = random.nextInt(theirAvailable--);
+                items[i] = theirs[j];
+                theirs[j] = theirs[theirAvailable];
+                theirRemaining--;
+            }
+        }
+        size = total;
+        count = getCount() + otherCount;
+
+        // The skip threshold of a full reservoir is the k-th smallest of count uniform keys
+        if (size == k) {
+            final double x = nextGamma(random, k);
+            final double y = nextGamma(random, count - k + 1.0);
+            w = x / (x + y);
+            skip(random, count);
+        }
+        return this;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public String toString() {
+        return String.format("{k=%d, count=%d, sample=%s}", k, getCount(), getSample());
+    }
+}
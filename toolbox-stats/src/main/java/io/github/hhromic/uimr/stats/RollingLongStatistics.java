@@ -0,0 +1,251 @@
+package io.github.hhromic.uimr.stats;
+
+import java.util.Arrays;
+import java.util.function.LongSupplier;
+
+/**
+ * This class implements Statistics for {@code long} data values over a rolling time window.
+ *
+ * <p>The window is split into a ring of equally sized time intervals (buckets). Each bucket keeps
+ * the count, the accumulators, the minimum and the maximum of the data values added during its
+ * interval. The running count and accumulators of the whole window are maintained incrementally:
+ * they are increased on every data value and decreased when a bucket expires, so rotating the ring
+ * costs O(1) per elapsed interval. The minimum and maximum of the window are combined from the
+ * buckets on demand.</p>
+ *
+ * <p>The time source is read once per operation. By default it is {@code System.currentTimeMillis()},
+ * and any monotonic {@code LongSupplier} can be given instead (for example {@code System::nanoTime}
+ * with a window in nanoseconds). This class is not thread-safe, see
+ * {@link ConcurrentRollingLongStatistics} for a lock-free variant.</p>
+ *
+ * <p><strong>Example usage:</strong></p>
+ *
+ * <pre><code>
+ * final RollingLongStatistics latencies = new RollingLongStatistics(TimeUnit.MINUTES.toMillis(5), 60);
+ * latencies.add(latency);
+ * System.out.println("mean=" + latencies.getMean() + ", max=" + latencies.getMax());
+ * </code></pre>
+ *
+ * @author Hugo Hromic
+ * @since 4.0
+ * @see LongStatistics
+ */
+public class RollingLongStatistics {
+    private final LongSupplier clock;
+    private final long interval;
+    private final int numBuckets;
+    private final long[] epochs;
+    private final long[] counts;
+    private final long[] accumulators;
+    private final long[] squaredAccumulators;
+    private final long[] mins;
+    private final long[] maxs;
+    private long currentEpoch;
+    private long count;
+    private long accumulator;
+    private long squaredAccumulator;
+
+    /**
+     * Creates a new {@code RollingLongStatistics} object using the system clock in milliseconds.
+     *
+     * @param window the length of the window in milliseconds
+     * @param numBuckets the number of buckets the window is split into
+     * @throws IllegalArgumentException if the window is shorter than the number of buckets
+     */
+    public RollingLongStatistics(final long window, final int numBuckets) {
+        this(window, numBuckets, System::currentTimeMillis);
+    }
+
+    /**
+     * Creates a new {@code RollingLongStatistics} object.
+     *
+     * @param window the length of the window in time units of the clock
+     * @param numBuckets the number of buckets the window is split into
+     * @param clock the time source
+     * @throws IllegalArgumentException if the window is shorter than the number of buckets
+     * @throws NullPointerException if the clock is null
+     */
+    public RollingLongStatistics(final long window, final int numBuckets, final LongSupplier clock) {
+        if (numBuckets < 1 || window < numBuckets)
+            throw new IllegalArgumentException(String.format("window=%d, numBuckets=%d", window, numBuckets));
+        if (clock == null)
+            throw new NullPointerException("clock");
+        this.clock = clock;
+        this.numBuckets = numBuckets;
+        interval = window / numBuckets;
+        epochs = new long[numBuckets];
+        counts = new long[numBuckets];
+        accumulators = new long[numBuckets];
+        squaredAccumulators = new long[numBuckets];
+        mins = new long[numBuckets];
+        maxs = new long[numBuckets];
+        Arrays.fill(epochs, Long.MIN_VALUE);
+        Arrays.fill(mins, Long.MAX_VALUE);
+        Arrays.fill(maxs, Long.MIN_VALUE);
+        currentEpoch = Math.floorDiv(clock.getAsLong(), interval);
+        count = 0L;
+        accumulator = 0L;
+        squaredAccumulator = 0L;
+    }
+
+    /** Expires the buckets that fell out of the window and returns the bucket of the current interval. */
+    private int rotate() {
+        final long epoch = Math.floorDiv(clock.getAsLong(), interval);
+        if (epoch > currentEpoch) {
+            // Only the buckets between the last seen interval and now are stale, at most the whole ring
+            final long stale = Math.min(epoch - currentEpoch, numBuckets);
+            for (long e=epoch-stale+1; e<=epoch; e++)
+                clear((int)Math.floorMod(e, (long)numBuckets));
+            currentEpoch = epoch;
+        }
+        // A clock going backwards keeps recording into the latest interval
+        final int index = (int)Math.floorMod(currentEpoch, (long)numBuckets);
+        if (epochs[index] != currentEpoch) {
+            clear(index);
+            epochs[index] = currentEpoch;
+        }
+        return index;
+    }
+
+    private void clear(final int index) {
+        count -= counts[index];
+        accumulator -= accumulators[index];
+        squaredAccumulator -= squaredAccumulators[index];
+        counts[index] = 0L;
+        accumulators[index] = 0L;
+        squaredAccumulators[index] = 0L;
+        mins[index] = Long.MAX_VALUE;
+        maxs[index] = Long.MIN_VALUE;
+        epochs[index] = Long.MIN_VALUE;
+    }
+
+    /**
+     * Gets the length of the buckets in time units of the clock.
+     *
+     * @return the length of the buckets
+     */
+    public long getInterval() {
+        return interval;
+    }
+
+    /**
+     * Gets the number of buckets the window is split into.
+     *
+     * @return the number of buckets
+     */
+    public int getNumBuckets() {
+        return numBuckets;
+    }
+
+    /**
+     * Adds a new data value to the current interval.
+     *
+     * @param data the data value to add
+     * @return this same object
+     */
+    public RollingLongStatistics add(final long data) {
+        final int index = rotate();
+        final long squared = data * data;
+        counts[index]++;
+        accumulators[index] += data;
+        squaredAccumulators[index] += squared;
+        if (data < mins[index])
+            mins[index] = data;
+        if (data > maxs[index])
+            maxs[index] = data;
+        count++;
+        accumulator += data;
+        squaredAccumulator += squared;
+        return this;
+    }
+
+    /**
+     * Gets the number of data values in the window.
+     *
+     * @return the number of data values in the window
+     */
+    public long getCount() {
+        rotate();
+        return count;
+    }
+
+    /**
+     * Gets the mean of the data values in the window.
+     *
+     * @return the mean of the data values in the window, or NaN if there are none
+     */
+    public double getMean() {
+        rotate();
+        return count == 0L ? Double.NaN : accumulator * 1.0 / count;
+    }
+
+    /**
+     * Gets the variance of the data values in the window.
+     *
+     * @return the variance of the data values in the window, or NaN if there are none
+     */
+    public double getVariance() {
+        rotate();
+        if (count == 0L)
+            return Double.NaN;
+        final double mean = accumulator * 1.0 / count;
+        return (squaredAccumulator * 1.0 / count) - (mean * mean);
+    }
+
+    /**
+     * Gets the standard deviation of the data values in the window.
+     *
+     * @return the standard deviation of the data values in the window, or NaN if there are none
+     */
+    public double getStdDeviation() {
+        return Math.sqrt(getVariance());
+    }
+
+    /**
+     * Gets the minimum data value in the window.
+     *
+     * @return the minimum data value in the window, or {@code Long.MAX_VALUE} if there are none
+     */
+    public long getMin() {
+        rotate();
+        long min = Long.MAX_VALUE;
+        for (int i=0; i<numBuckets; i++)
+            min = Math.min(min, mins[i]);
+        return min;
+    }
+
+    /**
+     * Gets the maximum data value in the window.
+     *
+     * @return the maximum data value in the window, or {@code Long.MIN_VALUE} if there are none
+     */
+    public long getMax() {
+        rotate();
+        long max = Long.MIN_VALUE;
+        for (int i=0; i<numBuckets; i++)
+            max = Math.max(max, maxs[i]);
+        return max;
+    }
+
+    /**
+     * Gets the statistics of the data values in the window.
+     *
+     * <p>Use {@link #getCount()} as the number of data values for the returned statistics.</p>
+     *
+     * @return a new statistics object with the data values in the window
+     */
+    public LongStatistics getStatistics() {
+        final long min = getMin();
+        final long max = getMax();
+        return new LongStatistics(accumulator, squaredAccumulator, min, max);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public String toString() {
+        final LongStatistics statistics = getStatistics();
+        return String.format("{interval=%d, numBuckets=%d, count=%d, accumulator=%d, squaredAccumulator=%d, min=%d, max=%d}",
+            interval, numBuckets, count, statistics.getAccumulator(), statistics.getSquaredAccumulator(),
+            statistics.getMin(), statistics.getMax());
+    }
+}
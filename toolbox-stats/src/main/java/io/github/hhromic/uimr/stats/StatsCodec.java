@@ -0,0 +1,642 @@
+package io.github.hhromic.uimr.stats;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * This class implements a compact and versioned binary format for the statistics classes of this package.
+ *
+ * <p>Every snapshot starts with a type tag and a format version, so snapshots of the wrong type or
+ * of an unsupported version are rejected. Counts are written as zig-zag variable-length integers and
+ * keys are written with a {@link KeyCodec}. Column keys of counting matrices are dictionary-coded:
+ * each distinct column key is written only once and later referenced by its number.</p>
+ *
+ * <p>Snapshots are written and read in a streaming fashion. Reading a snapshot merges it directly
+ * into a target object (like its {@code addAll} method would), so per-node results can be written
+ * to disk and merged back without materializing intermediate objects. To use a
+ * {@code WritableByteChannel} or {@code ReadableByteChannel}, wrap it with
+ * {@code new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(channel)))}
+ * or the equivalent input classes.</p>
+ *
+ * <p><strong>Example usage:</strong></p>
+ *
+ * <pre><code>
+ * try (final DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file)))) {
+ *     StatsCodec.writeDistribution(out, distribution, KeyCodec.STRING);
+ * }
+ * try (final DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+ *     StatsCodec.readDistribution(in, KeyCodec.STRING, merged);
+ * }
+ * </code></pre>
+ *
+ * @author Hugo Hromic
+ * @since 4.0
+ * @see KeyCodec
+ */
+public class StatsCodec {
+    private static final byte VERSION = 2;
+    private static final byte DISTRIBUTION = 1;
+    private static final byte COUNTING_MATRIX = 2;
+    private static final byte TOP_N_TABLE = 3;
+    private static final byte LONG_TOP_N_TABLE = 4;
+    private static final byte DOUBLE_TOP_N_TABLE = 5;
+    private static final byte LONG_STATISTICS = 6;
+    private static final byte DOUBLE_STATISTICS = 7;
+    private static final byte MOMENT_STATISTICS = 8;
+    private static final byte LONG_HISTOGRAM = 9;
+    private static final byte QUANTILE_SKETCH = 10;
+
+    private StatsCodec() {
+    }
+
+    /**
+     * Writes an unsigned variable-length integer (LEB128), using from 1 to 10 bytes.
+     *
+     * @param out the output to write to
+     * @param value the value to write, interpreted as unsigned
+     * @throws IOException if an I/O error occurs
+     */
+    public static void writeUnsignedVarLong(final DataOutput out, long value) throws IOException {
+        while ((value & ~0x7FL) != 0L) {
+            out.writeByte((int)((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.writeByte((int)value);
+    }
+
+    /**
+     * Reads an unsigned variable-length integer written by {@link #writeUnsignedVarLong(DataOutput, long)}.
+     *
+     * @param in the input to read from
+     * @return the value read
+     * @throws IOException if an I/O error occurs or the data is not a valid variable-length integer
+     */
+    public static long readUnsignedVarLong(final DataInput in) throws IOException {
+        long value = 0L;
+        for (int shift=0; shift<64; shift+=7) {
+            final int b = in.readUnsignedByte();
+            value |= (long)(b & 0x7F) << shift;
+            if ((b & 0x80) == 0)
+                return value;
+        }
+        throw new IOException("malformed variable-length integer");
+    }
+
+    /**
+     * Writes a signed variable-length integer, zig-zag encoded so small negative values are also short.
+     *
+     * @param out the output to write to
+     * @param value the value to write
+     * @throws IOException if an I/O error occurs
+     */
+    public static void writeVarLong(final DataOutput out, final long value) throws IOException {
+        writeUnsignedVarLong(out, (value << 1) ^ (value >> 63));
+    }
+
+    /**
+     * Reads a signed variable-length integer written by {@link #writeVarLong(DataOutput, long)}.
+     *
+     * @param in the input to read from
+     * @return the value read
+     * @throws IOException if an I/O error occurs or the data is not a valid variable-length integer
+     */
+    public static long readVarLong(final DataInput in) throws IOException {
+        final long value = readUnsignedVarLong(in);
+        return (value >>> 1) ^ -(value & 1L);
+    }
+
+    private static void writeHeader(final DataOutput out, final byte type) throws IOException {
+        out.writeByte(type);
+        out.writeByte(VERSION);
+    }
+
+    private static void readHeader(final DataInput in, final byte type) throws IOException {
+        final byte actualType = in.readByte();
+        if (actualType != type)
+            throw new IOException("unexpected snapshot type: " + actualType);
+        final byte version = in.readByte();
+        if (version != VERSION)
+            throw new IOException("unsupported snapshot version: " + version);
+    }
+
+    private static int readSize(final DataInput in) throws IOException {
+        final long size = readUnsignedVarLong(in);
+        if (size < 0 || size > Integer.MAX_VALUE)
+            throw new IOException("invalid size: " + size);
+        return (int)size;
+    }
+
+    /**
+     * Writes a data distribution.
+     *
+     * @param <E> the type of the distribution elements
+     * @param out the output to write to
+     * @param distribution the distribution to write
+     * @param codec the codec of the distribution elements
+     * @throws IOException if an I/O error occurs
+     */
+    public static <E> void writeDistribution(final DataOutput out, final Distribution<E> distribution,
+            final KeyCodec<? super E> codec) throws IOException {
+        final Map<E,Long> map = distribution.getDistribution();
+        writeHeader(out, DISTRIBUTION);
+        writeUnsignedVarLong(out, map.size());
+        for (final Map.Entry<E,Long> entry : map.entrySet()) {
+            codec.write(out, entry.getKey());
+            writeVarLong(out, entry.getValue());
+        }
+    }
+
+    /**
+     * Reads a data distribution and adds it to a target distribution.
+     *
+     * @param <E> the type of the distribution elements
+     * @param in the input to read from
+     * @param codec the codec of the distribution elements
+     * @param target the distribution to add the read data to
+     * @return the target distribution
+     * @throws IOException if an I/O error occurs or the data is not a valid snapshot
+     */
+    public static <E> Distribution<E> readDistribution(final DataInput in, final KeyCodec<? extends E> codec,
+            final Distribution<E> target) throws IOException {
+        readHeader(in, DISTRIBUTION);
+        final int size = readSize(in);
+        for (int i=0; i<size; i++) {
+            final E element = codec.read(in);
+            target.increment(element, readVarLong(in));
+        }
+        return target;
+    }
+
+    /**
+     * Writes a counting matrix.
+     *
+     * <p>Rows are written one after the other, so the matrix can be modified concurrently if its
+     * implementation supports it. Column keys are dictionary-coded.</p>
+     *
+     * @param <K1> the type of the first dimension keys
+     * @param <K2> the type of the second dimension keys
+     * @param out the output to write to
+     * @param matrix the counting matrix to write
+     * @param codec1 the codec of the first dimension keys
+     * @param codec2 the codec of the second dimension keys
+     * @throws IOException if an I/O error occurs
+     */
+    public static <K1,K2> void writeCountingMatrix(final DataOutput out, final CountingMatrix<K1,K2> matrix,
+            final KeyCodec<? super K1> codec1, final KeyCodec<? super K2> codec2) throws IOException {
+        final KeyIndex<K2> columns = new KeyIndex<K2>(16);
+        writeHeader(out, COUNTING_MATRIX);
+        for (final K1 k1 : matrix.getKeys()) {
+            @SuppressWarnings("unchecked")
+            final K2[] k2s = (K2[])matrix.getKeys(k1).toArray();
+            out.writeBoolean(true);
+            codec1.write(out, k1);
+            writeUnsignedVarLong(out, k2s.length);
+            for (final K2 k2 : k2s) {
+                // References are the column number plus one, zero introduces a new column key
+                final int column = columns.get(k2);
+                if (column < 0) {
+                    writeUnsignedVarLong(out, 0L);
+                    codec2.write(out, k2);
+                    columns.put(k2, columns.size());
+                } else {
+                    writeUnsignedVarLong(out, column + 1L);
+                }
+                writeVarLong(out, matrix.getCount(k1, k2));
+            }
+        }
+        out.writeBoolean(false);
+    }
+
+    /**
+     * Reads a counting matrix and adds it to a target counting matrix.
+     *
+     * @param <K1> the type of the first dimension keys
+     * @param <K2> the type of the second dimension keys
+     * @param in the input to read from
+     * @param codec1 the codec of the first dimension keys
+     * @param codec2 the codec of the second dimension keys
+     * @param target the counting matrix to add the read data to
+     * @return the target counting matrix
+     * @throws IOException if an I/O error occurs or the data is not a valid snapshot
+     */
+    public static <K1,K2> CountingMatrix<K1,K2> readCountingMatrix(final DataInput in, final KeyCodec<? extends K1> codec1,
+            final KeyCodec<? extends K2> codec2, final CountingMatrix<K1,K2> target) throws IOException {
+        readHeader(in, COUNTING_MATRIX);
+        Object[] columns = new Object[16];
+        int numColumns = 0;
+        while (in.readBoolean()) {
+            final K1 k1 = codec1.read(in);
+            final int cells = readSize(in);
+            for (int i=0; i<cells; i++) {
+                final long reference = readUnsignedVarLong(in);
+                if (reference == 0L) {
+                    if (numColumns == columns.length)
+                        columns = Arrays.copyOf(columns, numColumns * 2);
+                    columns[numColumns++] = codec2.read(in);
+                } else if (reference > numColumns) {
+                    throw new IOException("invalid column reference: " + reference);
+                }
+                @SuppressWarnings("unchecked")
+                final K2 k2 = (K2)columns[reference == 0L ? numColumns - 1 : (int)(reference - 1)];
+                target.increment(k1, k2, readVarLong(in));
+            }
+        }
+        return target;
+    }
+
+    /**
+     * Writes a top-n data table.
+     *
+     * @param <K> the type of the table keys
+     * @param <V> the type of the table values
+     * @param out the output to write to
+     * @param topNTable the top-n data table to write
+     * @param keyCodec the codec of the table keys
+     * @param valueCodec the codec of the table values
+     * @throws IOException if an I/O error occurs
+     */
+    public static <K extends Comparable<K>,V extends Comparable<V>> void writeTopNTable(final DataOutput out,
+            final TopNTable<K,V> topNTable, final KeyCodec<? super K> keyCodec, final KeyCodec<? super V> valueCodec)
+            throws IOException {
+        final List<TopNTable.Entry<K,V>> entries = topNTable.getEntries();
+        writeHeader(out, TOP_N_TABLE);
+        for (final TopNTable.Entry<K,V> entry : entries) {
+            out.writeBoolean(true);
+            keyCodec.write(out, entry.getKey());
+            valueCodec.write(out, entry.getValue());
+        }
+        out.writeBoolean(false);
+    }
+
+    /**
+     * Reads a top-n data table and updates a target top-n data table with it.
+     *
+     * @param <K> the type of the table keys
+     * @param <V> the type of the table values
+     * @param in the input to read from
+     * @param keyCodec the codec of the table keys
+     * @param valueCodec the codec of the table values
+     * @param target the top-n data table to update with the read data
+     * @return the target top-n data table
+     * @throws IOException if an I/O error occurs or the data is not a valid snapshot
+     */
+    public static <K extends Comparable<K>,V extends Comparable<V>> TopNTable<K,V> readTopNTable(final DataInput in,
+            final KeyCodec<? extends K> keyCodec, final KeyCodec<? extends V> valueCodec, final TopNTable<K,V> target)
+            throws IOException {
+        readHeader(in, TOP_N_TABLE);
+        while (in.readBoolean()) {
+            final K key = keyCodec.read(in);
+            target.update(key, valueCodec.read(in));
+        }
+        return target;
+    }
+
+    /**
+     * Writes a top-n data table with primitive {@code long} values.
+     *
+     * @param <K> the type of the table keys
+     * @param out the output to write to
+     * @param topNTable the top-n data table to write
+     * @param codec the codec of the table keys
+     * @throws IOException if an I/O error occurs
+     */
+    public static <K extends Comparable<K>> void writeLongTopNTable(final DataOutput out, final LongTopNTable<K> topNTable,
+            final KeyCodec<? super K> codec) throws IOException {
+        final List<TopNTable.Entry<K,Long>> entries = topNTable.getEntries();
+        writeHeader(out, LONG_TOP_N_TABLE);
+        for (final TopNTable.Entry<K,Long> entry : entries) {
+            out.writeBoolean(true);
+            codec.write(out, entry.getKey());
+            writeVarLong(out, entry.getValue());
+        }
+        out.writeBoolean(false);
+    }
+
+    /**
+     * Reads a top-n data table with primitive {@code long} values and updates a target table with it.
+     *
+     * @param <K> the type of the table keys
+     * @param in the input to read from
+     * @param codec the codec of the table keys
+     * @param target the top-n data table to update with the read data
+     * @return the target top-n data table
+     * @throws IOException if an I/O error occurs or the data is not a valid snapshot
+     */
+    public static <K extends Comparable<K>> LongTopNTable<K> readLongTopNTable(final DataInput in,
+            final KeyCodec<? extends K> codec, final LongTopNTable<K> target) throws IOException {
+        readHeader(in, LONG_TOP_N_TABLE);
+        while (in.readBoolean()) {
+            final K key = codec.read(in);
+            target.update(key, readVarLong(in));
+        }
+        return target;
+    }
+
+    /**
+     * Writes a top-n data table with primitive {@code double} values.
+     *
+     * @param <K> the type of the table keys
+     * @param out the output to write to
+     * @param topNTable the top-n data table to write
+     * @param codec the codec of the table keys
+     * @throws IOException if an I/O error occurs
+     */
+    public static <K extends Comparable<K>> void writeDoubleTopNTable(final DataOutput out, final DoubleTopNTable<K> topNTable,
+            final KeyCodec<? super K> codec) throws IOException {
+        final List<TopNTable.Entry<K,Double>> entries = topNTable.getEntries();
+        writeHeader(out, DOUBLE_TOP_N_TABLE);
+        for (final TopNTable.Entry<K,Double> entry : entries) {
+            out.writeBoolean(true);
+            codec.write(out, entry.getKey());
+            out.writeDouble(entry.getValue());
+        }
+        out.writeBoolean(false);
+    }
+
+    /**
+     * Reads a top-n data table with primitive {@code double} values and updates a target table with it.
+     *
+     * @param <K> the type of the table keys
+     * @param in the input to read from
+     * @param codec the codec of the table keys
+     * @param target the top-n data table to update with the read data
+     * @return the target top-n data table
+     * @throws IOException if an I/O error occurs or the data is not a valid snapshot
+     */
+    public static <K extends Comparable<K>> DoubleTopNTable<K> readDoubleTopNTable(final DataInput in,
+            final KeyCodec<? extends K> codec, final DoubleTopNTable<K> target) throws IOException {
+        readHeader(in, DOUBLE_TOP_N_TABLE);
+        while (in.readBoolean()) {
+            final K key = codec.read(in);
+            target.update(key, in.readDouble());
+        }
+        return target;
+    }
+
+    /**
+     * Writes statistics for {@code long} data values.
+     *
+     * <p>The number of data values is taken from the internal count of {@link ConcurrentLongStatistics},
+     * and written as zero for other statistics, use {@link #writeLongStatistics(DataOutput, Statistics, long)}
+     * to give it explicitly.</p>
+     *
+     * @param out the output to write to
+     * @param statistics the statistics to write
+     * @throws IOException if an I/O error occurs
+     */
+    public static void writeLongStatistics(final DataOutput out, final Statistics<Long> statistics) throws IOException {
+        if (statistics instanceof ConcurrentLongStatistics) {
+            // Take the count and the accumulators from the same reading
+            final ConcurrentLongStatistics.Cell total = ((ConcurrentLongStatistics)statistics).total();
+            writeLongStatistics(out, new LongStatistics(total.accumulator, total.squaredAccumulator, total.min, total.max), total.count);
+        }
+        else
+            writeLongStatistics(out, statistics, 0L);
+    }
+
+    /**
+     * Writes statistics for {@code long} data values with their number of data values.
+     *
+     * @param out the output to write to
+     * @param statistics the statistics to write
+     * @param n the number of data values of the statistics
+     * @throws IOException if an I/O error occurs
+     */
+    public static void writeLongStatistics(final DataOutput out, final Statistics<Long> statistics, final long n) throws IOException {
+        final LongStatistics snapshot = new LongStatistics().addAll(statistics);
+        writeHeader(out, LONG_STATISTICS);
+        writeUnsignedVarLong(out, n);
+        writeVarLong(out, snapshot.getAccumulator());
+        writeVarLong(out, snapshot.getSquaredAccumulator());
+        writeVarLong(out, snapshot.getMin());
+        writeVarLong(out, snapshot.getMax());
+    }
+
+    /**
+     * Reads statistics for {@code long} data values and adds them to target statistics.
+     *
+     * <p>The number of data values is added to the internal count of a {@link ConcurrentLongStatistics}
+     * target.</p>
+     *
+     * @param <S> the type of the target statistics
+     * @param in the input to read from
+     * @param target the statistics to add the read data to
+     * @return the target statistics
+     * @throws IOException if an I/O error occurs or the data is not a valid snapshot
+     */
+    public static <S extends Statistics<Long>> S readLongStatistics(final DataInput in, final S target) throws IOException {
+        readHeader(in, LONG_STATISTICS);
+        final long n = readUnsignedVarLong(in);
+        final long accumulator = readVarLong(in);
+        final long squaredAccumulator = readVarLong(in);
+        final long min = readVarLong(in);
+        final long max = readVarLong(in);
+        final LongStatistics statistics = new LongStatistics(accumulator, squaredAccumulator, min, max);
+        if (target instanceof ConcurrentLongStatistics)
+            ((ConcurrentLongStatistics)target).addAll(statistics, n);
+        else
+            target.addAll(statistics);
+        return target;
+    }
+
+    /**
+     * Writes statistics for {@code double} data values.
+     *
+     * <p>The number of data values is taken from the internal count of {@link ConcurrentDoubleStatistics},
+     * and written as zero for other statistics, use {@link #writeDoubleStatistics(DataOutput, Statistics, long)}
+     * to give it explicitly.</p>
+     *
+     * @param out the output to write to
+     * @param statistics the statistics to write
+     * @throws IOException if an I/O error occurs
+     */
+    public static void writeDoubleStatistics(final DataOutput out, final Statistics<Double> statistics) throws IOException {
+        if (statistics instanceof ConcurrentDoubleStatistics) {
+            // Take the count and the accumulators from the same reading
+            final ConcurrentDoubleStatistics.Cell total = ((ConcurrentDoubleStatistics)statistics).total();
+            writeDoubleStatistics(out, new DoubleStatistics(total.accumulator, total.squaredAccumulator, total.min, total.max), total.count);
+        }
+        else
+            writeDoubleStatistics(out, statistics, 0L);
+    }
+
+    /**
+     * Writes statistics for {@code double} data values with their number of data values.
+     *
+     * @param out the output to write to
+     * @param statistics the statistics to write
+     * @param n the number of data values of the statistics
+     * @throws IOException if an I/O error occurs
+     */
+    public static void writeDoubleStatistics(final DataOutput out, final Statistics<Double> statistics, final long n) throws IOException {
+        final DoubleStatistics snapshot = new DoubleStatistics().addAll(statistics);
+        writeHeader(out, DOUBLE_STATISTICS);
+        writeUnsignedVarLong(out, n);
+        out.writeDouble(snapshot.getAccumulator());
+        out.writeDouble(snapshot.getSquaredAccumulator());
+        out.writeDouble(snapshot.getMin());
+        out.writeDouble(snapshot.getMax());
+    }
+
+    /**
+     * Reads statistics for {@code double} data values and adds them to target statistics.
+     *
+     * <p>The number of data values is added to the internal count of a {@link ConcurrentDoubleStatistics}
+     * target.</p>
+     *
+     * @param <S> the type of the target statistics
+     * @param in the input to read from
+     * @param target the statistics to add the read data to
+     * @return the target statistics
+     * @throws IOException if an I/O error occurs or the data is not a valid snapshot
+     */
+    public static <S extends Statistics<Double>> S readDoubleStatistics(final DataInput in, final S target) throws IOException {
+        readHeader(in, DOUBLE_STATISTICS);
+        final long n = readUnsignedVarLong(in);
+        final double accumulator = in.readDouble();
+        final double squaredAccumulator = in.readDouble();
+        final double min = in.readDouble();
+        final double max = in.readDouble();
+        final DoubleStatistics statistics = new DoubleStatistics(accumulator, squaredAccumulator, min, max);
+        if (target instanceof ConcurrentDoubleStatistics)
+            ((ConcurrentDoubleStatistics)target).addAll(statistics, n);
+        else
+            target.addAll(statistics);
+        return target;
+    }
+
+    /**
+     * Writes moment statistics.
+     *
+     * @param out the output to write to
+     * @param statistics the moment statistics to write
+     * @throws IOException if an I/O error occurs
+     */
+    public static void writeMomentStatistics(final DataOutput out, final MomentStatistics statistics) throws IOException {
+        writeHeader(out, MOMENT_STATISTICS);
+        writeUnsignedVarLong(out, statistics.getCount());
+        if (statistics.getCount() == 0L)
+            return;
+        out.writeDouble(statistics.getMean());
+        out.writeDouble(statistics.getM2());
+        out.writeDouble(statistics.getM3());
+        out.writeDouble(statistics.getM4());
+        out.writeDouble(statistics.getMin());
+        out.writeDouble(statistics.getMax());
+    }
+
+    /**
+     * Reads moment statistics and adds them to target moment statistics.
+     *
+     * @param in the input to read from
+     * @param target the moment statistics to add the read data to
+     * @return the target moment statistics
+     * @throws IOException if an I/O error occurs or the data is not a valid snapshot
+     */
+    public static MomentStatistics readMomentStatistics(final DataInput in, final MomentStatistics target) throws IOException {
+        readHeader(in, MOMENT_STATISTICS);
+        final long count = readUnsignedVarLong(in);
+        if (count < 0L)
+            throw new IOException("invalid count: " + count);
+        if (count == 0L)
+            return target;
+        final double mean = in.readDouble();
+        final double m2 = in.readDouble();
+        final double m3 = in.readDouble();
+        final double m4 = in.readDouble();
+        final double min = in.readDouble();
+        final double max = in.readDouble();
+        return target.addAll(new MomentStatistics(count, mean, m2, m3, m4, min, max));
+    }
+
+    /**
+     * Writes a histogram.
+     *
+     * <p>Only the non-empty buckets are written, as gaps between bucket indexes and counts.</p>
+     *
+     * @param out the output to write to
+     * @param histogram the histogram to write
+     * @throws IOException if an I/O error occurs
+     */
+    public static void writeLongHistogram(final DataOutput out, final LongHistogram histogram) throws IOException {
+        writeHeader(out, LONG_HISTOGRAM);
+        writeUnsignedVarLong(out, histogram.getHighestTrackableValue());
+        out.writeByte(histogram.getSignificantDigits());
+        writeUnsignedVarLong(out, histogram.getMin());
+        writeUnsignedVarLong(out, histogram.getMax());
+        int previous = -1;
+        for (int index=0; index<histogram.getCountsLength(); index++) {
+            final long count = histogram.getCountAt(index);
+            if (count != 0L) {
+                writeUnsignedVarLong(out, index - previous);
+                writeUnsignedVarLong(out, count);
+                previous = index;
+            }
+        }
+        writeUnsignedVarLong(out, 0L);
+    }
+
+    /**
+     * Reads a histogram and adds it to a target histogram.
+     *
+     * @param in the input to read from
+     * @param target the histogram to add the read data to
+     * @return the target histogram
+     * @throws IOException if an I/O error occurs or the data is not a valid snapshot
+     * @throws IllegalArgumentException if the histograms have different configurations
+     */
+    public static LongHistogram readLongHistogram(final DataInput in, final LongHistogram target) throws IOException {
+        readHeader(in, LONG_HISTOGRAM);
+        final long highestTrackableValue = readUnsignedVarLong(in);
+        final int significantDigits = in.readByte();
+        if (highestTrackableValue != target.getHighestTrackableValue() || significantDigits != target.getSignificantDigits())
+            throw new IllegalArgumentException("histogram configurations differ");
+        final long min = readUnsignedVarLong(in);
+        final long max = readUnsignedVarLong(in);
+        boolean empty = true;
+        int index = -1;
+        for (long gap=readUnsignedVarLong(in); gap!=0L; gap=readUnsignedVarLong(in)) {
+            if (gap < 0L || index + gap >= target.getCountsLength())
+                throw new IOException("invalid bucket gap: " + gap);
+            index += (int)gap;
+            final long value = Math.max(min, Math.min(max, target.getLowestValueAt(index)));
+            target.addCountAt(index, value, readUnsignedVarLong(in));
+            empty = false;
+        }
+        // Same as addAll(), lowest values are clamped to the histogram range so only the exact maximum is missing
+        if (!empty)
+            target.addCountAt(target.getIndex(max), max, 0L);
+        return target;
+    }
+
+    /**
+     * Writes a quantile sketch.
+     *
+     * @param out the output to write to
+     * @param sketch the quantile sketch to write
+     * @throws IOException if an I/O error occurs
+     * @see QuantileSketch#writeTo(DataOutput)
+     */
+    public static void writeQuantileSketch(final DataOutput out, final QuantileSketch sketch) throws IOException {
+        writeHeader(out, QUANTILE_SKETCH);
+        sketch.writeTo(out);
+    }
+
+    /**
+     * Reads a quantile sketch and adds it to a target quantile sketch.
+     *
+     * @param in the input to read from
+     * @param target the quantile sketch to add the read data to
+     * @return the target quantile sketch
+     * @throws IOException if an I/O error occurs or the data is not a valid snapshot
+     * @see QuantileSketch#readFrom(DataInput)
+     */
+    public static QuantileSketch readQuantileSketch(final DataInput in, final QuantileSketch target) throws IOException {
+        readHeader(in, QUANTILE_SKETCH);
+        return target.addAll(QuantileSketch.readFrom(in));
+    }
+}
@@ -0,0 +1,300 @@
+package io.github.hhromic.uimr.stats;
+
+import java.util.function.Function;
+import java.util.function.ToDoubleFunction;
+import java.util.function.ToLongFunction;
+import java.util.stream.Collector;
+
+/**
+ * Implementations of {@code Collector} for the statistics classes of this package.
+ *
+ * <p>Every collector combines partial results with the {@code addAll} merge of the target class,
+ * so parallel streams scale with the available cores. Collectors into order-insensitive results
+ * are {@code UNORDERED}, and collectors into thread-safe classes are also {@code CONCURRENT}, so a
+ * single result object is shared by all the threads of an unordered parallel stream. Collectors
+ * into top-n tables are not {@code UNORDERED}, as later updates of a same key override earlier ones.
+ * Their parallel results match the sequential ones when every key occurs at most once in the
+ * stream. When a key repeats, a partial table may have evicted the latest value of the key, and
+ * merging then keeps an earlier value from another partial table.</p>
+ *
+ * <p><strong>Example usage:</strong></p>
+ *
+ * <pre><code>
+ * import io.github.hhromic.uimr.stats.StatsCollectors;
+ *
+ * final Distribution&lt;String&gt; languages = tweets.parallelStream()
+ *     .collect(StatsCollectors.toDistribution(SimpleTweet::getLanguage));
+ * final LongStatistics lengths = tweets.parallelStream()
+ *     .collect(StatsCollectors.toLongStatistics(tweet -&gt; tweet.getText().length()));
+ * </code></pre>
+ *
+ * @author Hugo Hromic
+ * @since 4.0
+ * @see Collector
+ */
+public class StatsCollectors {
+    private StatsCollectors() {
+    }
+
+    /**
+     * Returns a collector that counts elements by a classifier into a {@link Distribution}.
+     *
+     * @param <T> the type of the input elements
+     * @param <E> the type of the distribution elements
+     * @param classifier the function mapping input elements to distribution elements
+     * @return the collector
+     */
+    public static <T,E> Collector<T,?,Distribution<E>> toDistribution(final Function<? super T,? extends E> classifier) {
+        return toDistribution(classifier, element -> 1L);
+    }
+
+    /**
+     * Returns a collector that sums amounts by a classifier into a {@link Distribution}.
+     *
+     * @param <T> the type of the input elements
+     * @param <E> the type of the distribution elements
+     * @param classifier the function mapping input elements to distribution elements
+     * @param amount the function mapping input elements to the amounts to count
+     * @return the collector
+     */
+    public static <T,E> Collector<T,?,Distribution<E>> toDistribution(final Function<? super T,? extends E> classifier,
+            final ToLongFunction<? super T> amount) {
+        return Collector.of(Distribution<E>::new,
+            (distribution, element) -> distribution.increment(classifier.apply(element), amount.applyAsLong(element)),
+            (left, right) -> left.addAll(right),
+            Collector.Characteristics.UNORDERED);
+    }
+
+    /**
+     * Returns a collector that counts elements by a pair of keys into a {@link CountingMatrix}.
+     *
+     * <p>The resulting matrix is a {@link CompactCountingMatrix}.</p>
+     *
+     * @param <T> the type of the input elements
+     * @param <K1> the type of the first dimension keys
+     * @param <K2> the type of the second dimension keys
+     * @param k1 the function mapping input elements to first dimension keys
+     * @param k2 the function mapping input elements to second dimension keys
+     * @param amount the function mapping input elements to the amounts to count
+     * @return the collector
+     */
+    public static <T,K1,K2> Collector<T,?,CountingMatrix<K1,K2>> toCountingMatrix(final Function<? super T,? extends K1> k1,
+            final Function<? super T,? extends K2> k2, final ToLongFunction<? super T> amount) {
+        return Collector.<T,CountingMatrix<K1,K2>>of(CompactCountingMatrix<K1,K2>::new,
+            (matrix, element) -> matrix.increment(k1.apply(element), k2.apply(element), amount.applyAsLong(element)),
+            (left, right) -> left.addAll(right),
+            Collector.Characteristics.UNORDERED);
+    }
+
+    /**
+     * Returns a concurrent collector that counts elements by a pair of keys into a {@link ConcurrentCountingMatrix}.
+     *
+     * @param <T> the type of the input elements
+     * @param <K1> the type of the first dimension keys
+     * @param <K2> the type of the second dimension keys
+     * @param k1 the function mapping input elements to first dimension keys
+     * @param k2 the function mapping input elements to second dimension keys
+     * @param amount the function mapping input elements to the amounts to count
+     * @return the collector
+     */
+    public static <T,K1,K2> Collector<T,?,ConcurrentCountingMatrix<K1,K2>> toConcurrentCountingMatrix(
+            final Function<? super T,? extends K1> k1, final Function<? super T,? extends K2> k2,
+            final ToLongFunction<? super T> amount) {
+        return Collector.of(ConcurrentCountingMatrix<K1,K2>::new,
+            (matrix, element) -> matrix.increment(k1.apply(element), k2.apply(element), amount.applyAsLong(element)),
+            (left, right) -> left.addAll(right),
+            Collector.Characteristics.CONCURRENT, Collector.Characteristics.UNORDERED);
+    }
+
+    /**
+     * Returns a collector that updates a {@link TopNTable} with a key and a value per element.
+     *
+     * @param <T> the type of the input elements
+     * @param <K> the type of the table keys
+     * @param <V> the type of the table values
+     * @param n the cap (n) of the top-n data table
+     * @param key the function mapping input elements to table keys
+     * @param value the function mapping input elements to table values
+     * @return the collector
+     */
+    public static <T,K extends Comparable<K>,V extends Comparable<V>> Collector<T,?,TopNTable<K,V>> toTopNTable(final int n,
+            final Function<? super T,? extends K> key, final Function<? super T,? extends V> value) {
+        return Collector.of(() -> new TopNTable<K,V>(n),
+            (table, element) -> table.update(key.apply(element), value.apply(element)),
+            (left, right) -> left.addAll(right));
+    }
+
+    /**
+     * Returns a concurrent collector that updates a {@link ConcurrentTopNTable} with a key and a value per element.
+     *
+     * @param <T> the type of the input elements
+     * @param <K> the type of the table keys
+     * @param <V> the type of the table values
+     * @param n the cap (n) of the top-n data table
+     * @param key the function mapping input elements to table keys
+     * @param value the function mapping input elements to table values
+     * @return the collector
+     */
+    public static <T,K extends Comparable<K>,V extends Comparable<V>> Collector<T,?,ConcurrentTopNTable<K,V>> toConcurrentTopNTable(
+            final int n, final Function<? super T,? extends K> key, final Function<? super T,? extends V> value) {
+        return Collector.of(() -> new ConcurrentTopNTable<K,V>(n),
+            (table, element) -> table.update(key.apply(element), value.apply(element)),
+            (left, right) -> left.addAll(right),
+            Collector.Characteristics.CONCURRENT);
+    }
+
+    /**
+     * Returns a collector that updates a {@link LongTopNTable} with a key and a value per element.
+     *
+     * @param <T> the type of the input elements
+     * @param <K> the type of the table keys
+     * @param n the cap (n) of the top-n data table
+     * @param key the function mapping input elements to table keys
+     * @param value the function mapping input elements to table values
+     * @return the collector
+     */
+    public static <T,K extends Comparable<K>> Collector<T,?,LongTopNTable<K>> toLongTopNTable(final int n,
+            final Function<? super T,? extends K> key, final ToLongFunction<? super T> value) {
+        return Collector.of(() -> new LongTopNTable<K>(n),
+            (table, element) -> table.update(key.apply(element), value.applyAsLong(element)),
+            (left, right) -> left.addAll(right));
+    }
+
+    /**
+     * Returns a collector that updates a {@link DoubleTopNTable} with a key and a value per element.
+     *
+     * @param <T> the type of the input elements
+     * @param <K> the type of the table keys
+     * @param n the cap (n) of the top-n data table
+     * @param key the function mapping input elements to table keys
+     * @param value the function mapping input elements to table values
+     * @return the collector
+     */
+    public static <T,K extends Comparable<K>> Collector<T,?,DoubleTopNTable<K>> toDoubleTopNTable(final int n,
+            final Function<? super T,? extends K> key, final ToDoubleFunction<? super T> value) {
+        return Collector.of(() -> new DoubleTopNTable<K>(n),
+            (table, element) -> table.update(key.apply(element), value.applyAsDouble(element)),
+            (left, right) -> left.addAll(right));
+    }
+
+    /**
+     * Returns a collector that adds a value per element into a {@link LongStatistics}.
+     *
+     * @param <T> the type of the input elements
+     * @param mapper the function mapping input elements to data values
+     * @return the collector
+     */
+    public static <T> Collector<T,?,LongStatistics> toLongStatistics(final ToLongFunction<? super T> mapper) {
+        return Collector.of(LongStatistics::new,
+            (statistics, element) -> statistics.add(mapper.applyAsLong(element)),
+            (left, right) -> left.addAll(right),
+            Collector.Characteristics.UNORDERED);
+    }
+
+    /**
+     * Returns a concurrent collector that adds a value per element into a {@link ConcurrentLongStatistics}.
+     *
+     * @param <T> the type of the input elements
+     * @param mapper the function mapping input elements to data values
+     * @return the collector
+     */
+    public static <T> Collector<T,?,ConcurrentLongStatistics> toConcurrentLongStatistics(final ToLongFunction<? super T> mapper) {
+        return Collector.of(ConcurrentLongStatistics::new,
+            (statistics, element) -> statistics.add(mapper.applyAsLong(element)),
+            (left, right) -> left.addAll(right),
+            Collector.Characteristics.CONCURRENT, Collector.Characteristics.UNORDERED);
+    }
+
+    /**
+     * Returns a collector that adds a value per element into a {@link DoubleStatistics}.
+     *
+     * @param <T> the type of the input elements
+     * @param mapper the function mapping input elements to data values
+     * @return the collector
+     */
+    public static <T> Collector<T,?,DoubleStatistics> toDoubleStatistics(final ToDoubleFunction<? super T> mapper) {
+        return Collector.of(DoubleStatistics::new,
+            (statistics, element) -> statistics.add(mapper.applyAsDouble(element)),
+            (left, right) -> left.addAll(right),
+            Collector.Characteristics.UNORDERED);
+    }
+
+    /**
+     * Returns a concurrent collector that adds a value per element into a {@link ConcurrentDoubleStatistics}.
+     *
+     * @param <T> the type of the input elements
+     * @param mapper the function mapping input elements to data values
+     * @return the collector
+     */
+    public static <T> Collector<T,?,ConcurrentDoubleStatistics> toConcurrentDoubleStatistics(final ToDoubleFunction<? super T> mapper) {
+        return Collector.of(ConcurrentDoubleStatistics::new,
+            (statistics, element) -> statistics.add(mapper.applyAsDouble(element)),
+            (left, right) -> left.addAll(right),
+            Collector.Characteristics.CONCURRENT, Collector.Characteristics.UNORDERED);
+    }
+
+    /**
+     * Returns a collector that adds a value per element into a {@link MomentStatistics}.
+     *
+     * @param <T> the type of the input elements
+     * @param mapper the function mapping input elements to data values
+     * @return the collector
+     */
+    public static <T> Collector<T,?,MomentStatistics> toMomentStatistics(final ToDoubleFunction<? super T> mapper) {
+        return Collector.of(MomentStatistics::new,
+            (statistics, element) -> statistics.add(mapper.applyAsDouble(element)),
+            (left, right) -> left.addAll(right),
+            Collector.Characteristics.UNORDERED);
+    }
+
+    /**
+     * Returns a collector that adds a value per element into a {@link QuantileSketch}.
+     *
+     * @param <T> the type of the input elements
+     * @param mapper the function mapping input elements to data values
+     * @return the collector
+     */
+    public static <T> Collector<T,?,QuantileSketch> toQuantileSketch(final ToDoubleFunction<? super T> mapper) {
+        return Collector.of(QuantileSketch::new,
+            (sketch, element) -> sketch.add(mapper.applyAsDouble(element)),
+            (left, right) -> left.addAll(right),
+            Collector.Characteristics.UNORDERED);
+    }
+
+    /**
+     * Returns a collector that records a value per element into a {@link LongHistogram}.
+     *
+     * @param <T> the type of the input elements
+     * @param highestTrackableValue the highest value to be recorded
+     * @param significantDigits the number of significant decimal digits to keep
+     * @param mapper the function mapping input elements to data values
+     * @return the collector
+     */
+    public static <T> Collector<T,?,LongHistogram> toLongHistogram(final long highestTrackableValue,
+            final int significantDigits, final ToLongFunction<? super T> mapper) {
+        return Collector.of(() -> new LongHistogram(highestTrackableValue, significantDigits),
+            (histogram, element) -> histogram.recordValue(mapper.applyAsLong(element)),
+            (left, right) -> left.addAll(right),
+            Collector.Characteristics.UNORDERED);
+    }
+
+    /**
+     * Returns a concurrent collector that records a value per element into a {@link ConcurrentLongHistogram}.
+     *
+     * @param <T> the type of the input elements
+     * @param highestTrackableValue the highest value to be recorded
+     * @param significantDigits the number of significant decimal digits to keep
+     * @param mapper the function mapping input elements to data values
+     * @return the collector
+     */
+    public static <T> Collector<T,?,ConcurrentLongHistogram> toConcurrentLongHistogram(final long highestTrackableValue,
+            final int significantDigits, final ToLongFunction<? super T> mapper) {
+        return Collector.of(() -> new ConcurrentLongHistogram(highestTrackableValue, significantDigits),
+            (histogram, element) -> histogram.recordValue(mapper.applyAsLong(element)),
+            (left, right) -> {
+                left.addAll(right);
+                return left;
+            },
+            Collector.Characteristics.CONCURRENT, Collector.Characteristics.UNORDERED);
+    }
+}
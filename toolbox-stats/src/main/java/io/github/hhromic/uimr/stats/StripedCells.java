@@ -0,0 +1,113 @@
+package io.github.hhromic.uimr.stats;
+
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.BinaryOperator;
+
+/**
+ * Lock-free striped accumulator of immutable cells.
+ *
+ * <p>This is the storage behind {@link ConcurrentLongStatistics} and {@link ConcurrentDoubleStatistics}.
+ * Values are merged into an immutable cell and published with a single CAS, so a reader sees every
+ * accumulated value either fully or not at all. Without contention a single base cell is used. The
+ * first failed CAS allocates a table of stripes spaced one cache line apart, and a thread that fails
+ * again moves to another stripe, in the same way as {@code LongAdder}. Writers never block and
+ * readers merge the base cell with every stripe.</p>
+ *
+ * @author Hugo Hromic
+ * @since 4.0
+ * @param <C> the type of the immutable cells
+ */
+final class StripedCells<C> {
+    // Stripes are 16 references apart, at least one cache line with or without compressed references
+    private static final int SPACING_SHIFT = 4;
+    private static final int NUM_STRIPES = getNumStripes();
+    private static final ThreadLocal<int[]> PROBE = ThreadLocal.withInitial(StripedCells::getInitialProbe);
+
+    private final C identity;
+    private final BinaryOperator<C> merge;
+    private final AtomicReference<C> base;
+    private final AtomicReference<AtomicReferenceArray<C>> stripes;
+
+    /**
+     * Creates a new {@code StripedCells} object.
+     *
+     * @param identity the empty cell
+     * @param merge the function merging two cells into a new one
+     */
+    StripedCells(final C identity, final BinaryOperator<C> merge) {
+        this.identity = identity;
+        this.merge = merge;
+        base = new AtomicReference<C>(identity);
+        stripes = new AtomicReference<AtomicReferenceArray<C>>();
+    }
+
+    /** Gets the number of stripes, a power of two of at least twice the number of processors. */
+    private static int getNumStripes() {
+        final int target = Runtime.getRuntime().availableProcessors() * 2;
+        int stripes = 1;
+        while (stripes < target)
+            stripes <<= 1;
+        return stripes;
+    }
+
+    /** Gets a non-zero starting probe for the current thread from its identifier. */
+    private static int[] getInitialProbe() {
+        long h = Thread.currentThread().getId();
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        return new int[] {(int)h == 0 ? 1 : (int)h};
+    }
+
+    /**
+     * Merges a cell into the accumulated cells.
+     *
+     * @param delta the cell to merge
+     */
+    void accumulate(final C delta) {
+        AtomicReferenceArray<C> table = stripes.get();
+        if (table == null) {
+            final C cell = base.get();
+            if (base.compareAndSet(cell, merge.apply(cell, delta)))
+                return;
+            // Contended, threads that lose the race to create the table use the winner's
+            table = stripes.get();
+            if (table == null) {
+                stripes.compareAndSet(null, new AtomicReferenceArray<C>(NUM_STRIPES << SPACING_SHIFT));
+                table = stripes.get();
+            }
+        }
+        final int[] probe = PROBE.get();
+        int p = probe[0];
+        while (true) {
+            final int index = (p & (NUM_STRIPES - 1)) << SPACING_SHIFT;
+            final C cell = table.get(index);
+            if (table.compareAndSet(index, cell, merge.apply(cell == null ? identity : cell, delta)))
+                return;
+            // Xorshift to another stripe on contention
+            p ^= p << 13;
+            p ^= p >>> 17;
+            p ^= p << 5;
+            probe[0] = p;
+        }
+    }
+
+    /**
+     * Gets all the accumulated cells merged into one.
+     *
+     * @return the merged cell
+     */
+    C get() {
+        C total = base.get();
+        final AtomicReferenceArray<C> table = stripes.get();
+        if (table != null) {
+            for (int i=0; i<table.length(); i+=1<<SPACING_SHIFT) {
+                final C cell = table.get(i);
+                if (cell != null)
+                    total = merge.apply(total, cell);
+            }
+        }
+        return total;
+    }
+}
@@ -3,6 +3,8 @@ package io.github.hhromic.uimr.stats;
 import java.util.TreeSet;
 import java.util.List;
 import java.util.ArrayList;
+import java.util.Map;
+import java.util.HashMap;
 
 /**
  * This class handles a top-n data table.
@@ -11,7 +13,8 @@ import java.util.ArrayList;
  * the top-n data table sorts its entries by value in descending order. For same values,
  * the entries are then sorted by the key in ascending order.</p>
  *
- * <p>The top-n table is internally backed by a {@code TreeSet} object.</p>
+ * <p>The top-n table is internally backed by a {@code TreeSet} object, plus a {@code HashMap}
+ * key index kept in sync with it. Therefore, lookups, updates and evictions are O(log n).</p>
  *
  * @author Hugo Hromic
  * @since 4.0
@@ -19,6 +22,7 @@ import java.util.ArrayList;
 public class TopNTable<K extends Comparable<K>,V extends Comparable<V>> {
     private final int n;
     private final TreeSet<Entry<K,V>> entries;
+    private final Map<K,Entry<K,V>> index;
 
     /** Table Entry class. */
     public static class Entry<K extends Comparable<K>,V extends Comparable<V>> implements Comparable<Entry<K,V>> {
@@ -115,8 +119,19 @@ public class TopNTable<K extends Comparable<K>,V extends Comparable<V>> {
      * @param n the cap (n) of the top-n data table
      */
     public TopNTable(final int n) {
+        this(n, new HashMap<K,Entry<K,V>>());
+    }
+
+    /**
+     * Creates a new {@code TopNTable} object with the given (empty) key index map.
+     *
+     * @param n the cap (n) of the top-n data table
+     * @param index the map to use as key index
+     */
+    TopNTable(final int n, final Map<K,Entry<K,V>> index) {
         this.n = n;
         entries = new TreeSet<Entry<K,V>>();
+        this.index = index;
     }
 
     /**
@@ -150,16 +165,14 @@ public class TopNTable<K extends Comparable<K>,V extends Comparable<V>> {
     public Entry<K,V> getEntry(final K key) {
         if (key == null)
             throw new NullPointerException();
-        for (final Entry<K,V> entry : entries)
-            if (entry.getKey().equals(key))
-                return entry;
-        return null;
+        return index.get(key);
     }
 
     /**
      * Updates a data element in the top-n data table.
      *
-     * <p>If the data element is not found, it is created and inserted.</p>
+     * <p>If the data element is not found, it is created and inserted. When the table is full,
+     * new data elements that would be evicted right away are rejected without modifying the table.</p>
      *
      * @param key the key for the data element to update or add
      * @param value the value for the data element to update or add
@@ -169,15 +182,25 @@ public class TopNTable<K extends Comparable<K>,V extends Comparable<V>> {
     public TopNTable<K,V> update(final K key, final V value) {
         if (key == null || value == null)
             throw new NullPointerException(key == null ? "key":"value");
-        final Entry<K,V> oldEntry = getEntry(key);
+        final Entry<K,V> oldEntry = index.get(key);
         if (oldEntry != null) {
             if (oldEntry.getValue().equals(value))
                 return this;
             entries.remove(oldEntry);
+        } else if (entries.size() >= n) {
+            // Fast rejection of new entries not better than the current last entry
+            if (entries.isEmpty())
+                return this;
+            final Entry<K,V> lastEntry = entries.last();
+            final int cmp = value.compareTo(lastEntry.getValue());
+            if (cmp < 0 || (cmp == 0 && key.compareTo(lastEntry.getKey()) < 0))
+                return this;
         }
-        entries.add(new Entry<K,V>(key, value));
+        final Entry<K,V> newEntry = new Entry<K,V>(key, value);
+        entries.add(newEntry);
+        index.put(key, newEntry);
         if (entries.size() > n)
-            entries.remove(entries.last());
+            index.remove(entries.pollLast().getKey());
         return this;
     }
 
@@ -0,0 +1,185 @@
+package io.github.hhromic.uimr.stats;
+
+import java.util.List;
+import java.util.ArrayList;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * This class implements a fixed-size weighted sample of a data stream.
+ *
+ * <p>The sample is maintained with the A-Res algorithm of Efraimidis and Spirakis (2006): every
+ * data element gets a random key {@code u^(1/weight)} and the sample keeps the {@code k} data
+ * elements with the largest keys, so heavier data elements are proportionally more likely to be
+ * sampled. Keys are kept in logarithmic form ({@code log(u)/weight}) to avoid underflow, in an
+ * array min-heap. Data elements whose key can not enter a full sample are rejected with a single
+ * comparison.</p>
+ *
+ * <p>Samples of disjoint streams can be merged exactly with {@link #addAll(WeightedReservoirSampler)}.
+ * This class is not thread-safe, see {@link ConcurrentWeightedReservoirSampler} for a thread-safe
+ * variant.</p>
+ *
+ * @author Hugo Hromic
+ * @since 4.0
+ * @see ReservoirSampler
+ */
+public class WeightedReservoirSampler<E> {
+    private final int k;
+    private final Object[] items;
+    private final double[] keys;
+    private int size;
+    private long count;
+
+    /**
+     * Creates a new {@code WeightedReservoirSampler} object.
+     *
+     * @param k the size (k) of the sample
+     * @throws IllegalArgumentException if {@code k} is lower than 1
+     */
+    public WeightedReservoirSampler(final int k) {
+        if (k < 1)
+            throw new IllegalArgumentException("k: " + k);
+        this.k = k;
+        items = new Object[k];
+        keys = new double[k];
+        size = 0;
+        count = 0L;
+    }
+
+    /**
+     * Draws the random key of a data element.
+     *
+     * @param weight the weight of the data element
+     * @return the random key, in logarithmic form
+     * @throws IllegalArgumentException if the weight is not positive and finite
+     */
+    protected static double nextKey(final double weight) {
+        if (!(weight > 0.0 && weight < Double.POSITIVE_INFINITY))
+            throw new IllegalArgumentException("weight: " + weight);
+        double u;
+        do {
+            u = ThreadLocalRandom.current().nextDouble();
+        } while (u == 0.0);
+        return Math.log(u) / weight;
+    }
+
+    /**
+     * Gets the key that a data element must exceed to enter the sample.
+     *
+     * @return the smallest key of a full sample, or negative infinity if the sample is not full
+     */
+    protected double getThreshold() {
+        return size < k ? Double.NEGATIVE_INFINITY : keys[0];
+    }
+
+    /**
+     * Offers a data element with an already drawn random key.
+     *
+     * @param item the data element to offer
+     * @param key the random key of the data element, in logarithmic form
+     */
+    protected void offer(final Object item, final double key) {
+        if (size < k) {
+            int i = size++;
+            while (i > 0) {
+                final int parent = (i - 1) >>> 1;
+                if (keys[parent] <= key)
+                    break;
+                items[i] = items[parent];
+                keys[i] = keys[parent];
+                i = parent;
+            }
+            items[i] = item;
+            keys[i] = key;
+        } else if (key > keys[0]) {
+            int i = 0;
+            while (true) {
+                int child = (i << 1) + 1;
+                if (child >= size)
+                    break;
+                if (child + 1 < size && keys[child + 1] < keys[child])
+                    child++;
+                if (keys[child] >= key)
+                    break;
+                items[i] = items[child];
+                keys[i] = keys[child];
+                i = child;
+            }
+            items[i] = item;
+            keys[i] = key;
+        }
+    }
+
+    /**
+     * Gets the size (k) of the sample.
+     *
+     * @return the size of the sample
+     */
+    public int getK() {
+        return k;
+    }
+
+    /**
+     * Gets the number of data elements seen so far.
+     *
+     * @return the number of data elements seen so far
+     */
+    public long getCount() {
+        return count;
+    }
+
+    /**
+     * Gets the current sample.
+     *
+     * <p>The returned list is created on demand, modifications to this list are not reflected
+     * into the internal structure.</p>
+     *
+     * @return the current sample, with up to {@code k} data elements in no particular order
+     */
+    @SuppressWarnings("unchecked")
+    public List<E> getSample() {
+        final List<E> sample = new ArrayList<E>(size);
+        for (int i=0; i<size; i++)
+            sample.add((E)items[i]);
+        return sample;
+    }
+
+    /**
+     * Adds a new data element.
+     *
+     * @param item the data element to add
+     * @param weight the weight of the data element
+     * @return this same object
+     * @throws IllegalArgumentException if the weight is not positive and finite
+     */
+    public WeightedReservoirSampler<E> add(final E item, final double weight) {
+        offer(item, nextKey(weight));
+        count++;
+        return this;
+    }
+
+    /**
+     * Adds all data from a weighted reservoir sampler to this sampler.
+     *
+     * <p>Both samplers must have seen disjoint streams. As the random keys are independent for every
+     * data element, the merged sample is exactly the sample of the union of the streams. The given
+     * sampler is not modified.</p>
+     *
+     * @param sampler weighted reservoir sampler to be added to this sampler
+     * @return this same object
+     * @throws NullPointerException if the sampler is null
+     */
+    public WeightedReservoirSampler<E> addAll(final WeightedReservoirSampler<E> sampler) {
+        if (sampler == null)
+            throw new NullPointerException();
+        for (int i=0; i<sampler.size; i++)
+            offer(sampler.items[i], sampler.keys[i]);
+        count += sampler.getCount();
+        return this;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public String toString() {
+        return String.format("{k=%d, count=%d, sample=%s}", k, getCount(), getSample());
+    }
+}
@@ -0,0 +1,208 @@
+package io.github.hhromic.uimr.stats;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.nio.file.Files;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicLong;
+
+import junit.framework.TestCase;
+
+public class CountingMatrixTest extends TestCase {
+    public static final int ROWS = 50;
+    public static final int COLUMNS = 200;
+    public static final int INCREMENTS = 20000;
+
+    public CountingMatrixTest(final String name) {
+        super(name);
+    }
+
+    private static void fill(final CountingMatrix<String,String> matrix, final long seed) {
+        final Random random = new Random(seed);
+        for (int i=0; i<INCREMENTS; i++)
+            matrix.increment("r" + random.nextInt(ROWS), "c" + random.nextInt(COLUMNS), 1 + random.nextInt(5));
+    }
+
+    private static void assertSameCounts(final CountingMatrix<String,String> expected, final CountingMatrix<String,String> actual) {
+        assertEquals(expected.getKeys(), actual.getKeys());
+        for (final String k1 : expected.getKeys()) {
+            assertEquals(expected.getKeys(k1), actual.getKeys(k1));
+            assertEquals(expected.getTotalCount(k1), actual.getTotalCount(k1));
+            for (final String k2 : expected.getKeys(k1))
+                assertEquals(expected.getCount(k1, k2), actual.getCount(k1, k2));
+        }
+        assertEquals(0L, actual.getCount("missing", "c0"));
+        assertEquals(0L, actual.getTotalCount("missing"));
+        assertNull(actual.getKeys("missing"));
+    }
+
+    public void testCompactCountingMatrix() throws Exception {
+        final CountingMatrix<String,String> expected = new CountingMatrix<String,String>();
+        final CountingMatrix<String,String> actual = new CompactCountingMatrix<String,String>();
+        fill(expected, 42L);
+        fill(actual, 42L);
+        assertSameCounts(expected, actual);
+    }
+
+    public void testIntCountingMatrix() throws Exception {
+        // Both dimensions share the same dictionary
+        final KeyDictionary<String> dictionary = new KeyDictionary<String>();
+        final CountingMatrix<String,String> expected = new CountingMatrix<String,String>();
+        final IntCountingMatrix<String,String> actual = new IntCountingMatrix<String,String>(dictionary, dictionary);
+        fill(expected, 7L);
+        fill(actual, 7L);
+        assertSameCounts(expected, actual);
+        assertEquals(ROWS + COLUMNS, dictionary.size());
+        for (int id=0; id<dictionary.size(); id++)
+            assertEquals(id, dictionary.getId(dictionary.getKey(id)));
+        final int id1 = dictionary.getId("r0");
+        final int id2 = dictionary.getId("c0");
+        assertEquals(expected.getCount("r0", "c0"), actual.getCount(id1, id2));
+        assertEquals(expected.getTotalCount("r0"), actual.getTotalCount(id1));
+
+        // A small matrix over a large shared dictionary only holds its own rows
+        for (int i=0; i<100000; i++)
+            dictionary.add("k" + i);
+        final CountingMatrix<String,String> smallExpected = new CountingMatrix<String,String>();
+        final IntCountingMatrix<String,String> smallActual = new IntCountingMatrix<String,String>(dictionary, dictionary);
+        for (int i=0; i<100; i++) {
+            smallExpected.increment("k" + (99999 - i * 997), "k" + i, i);
+            smallActual.increment("k" + (99999 - i * 997), "k" + i, i);
+        }
+        assertSameCounts(smallExpected, smallActual);
+        assertEquals(100, smallActual.getKeys().size());
+    }
+
+    public void testIntDistribution() throws Exception {
+        final KeyDictionary<String> dictionary = new KeyDictionary<String>();
+        for (int i=0; i<10000; i++)
+            dictionary.add("k" + i);
+        final IntDistribution<String> first = new IntDistribution<String>(dictionary);
+        final IntDistribution<String> second = new IntDistribution<String>(dictionary);
+        final Distribution<String> expected = new Distribution<String>();
+        final Random random = new Random(42L);
+        for (int i=0; i<INCREMENTS; i++) {
+            final int id = random.nextInt(dictionary.size());
+            final long amount = 1 + random.nextInt(5);
+            (i % 2 == 0 ? first : second).increment(id, amount);
+            expected.increment(dictionary.getKey(id), amount);
+        }
+        first.addAll(second);
+        assertEquals(expected.getDistribution(), first.toDistribution().getDistribution());
+        assertEquals(expected.getTotalCount(), first.getTotalCount());
+        assertEquals(0L, first.getCount("missing"));
+
+        final IntDistribution<String> other = new IntDistribution<String>().addAll(first);
+        assertEquals(expected.getDistribution(), other.toDistribution().getDistribution());
+    }
+
+    public void testCachedCountingMatrix() throws Exception {
+        final CountingMatrix<String,String> expected = new CountingMatrix<String,String>();
+        final CountingMatrix<String,String> wrapped = new CountingMatrix<String,String>();
+        final CachedCountingMatrix<String,String> actual = new CachedCountingMatrix<String,String>(wrapped);
+        fill(expected, 42L);
+        fill(actual, 42L);
+        assertSameCounts(expected, actual);
+        final double probability = actual.getConditionalProbability("r0", "c0");
+        assertEquals(expected.getCount("r0", "c0") * 1.0 / expected.getTotalCount("r0"), probability, 1e-12);
+
+        // Rejected increments leave both the wrapped matrix and the cache untouched
+        try {
+            actual.increment("r0", null, 1L);
+            fail("null key accepted");
+        } catch (NullPointerException e) {
+            // expected
+        }
+        assertSameCounts(expected, wrapped);
+        assertEquals(probability, actual.getConditionalProbability("r0", "c0"), 0.0);
+    }
+
+    public void testConcurrentCountingMatrix() throws Exception {
+        final CountingMatrix<String,String> expected = new CountingMatrix<String,String>();
+        final ConcurrentCountingMatrix<String,String> actual = new ConcurrentCountingMatrix<String,String>();
+        final Thread[] threads = new Thread[4];
+        for (int t=0; t<threads.length; t++) {
+            final long seed = t;
+            fill(expected, seed);
+            threads[t] = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    fill(actual, seed);
+                }
+            });
+            threads[t].start();
+        }
+        for (final Thread thread : threads)
+            thread.join();
+        assertSameCounts(expected, actual);
+
+        final CountingMatrix<String,String> merged = new CountingMatrix<String,String>().addAll(actual);
+        assertSameCounts(expected, merged);
+    }
+
+    public void testMappedCountingMatrix() throws Exception {
+        final File directory = Files.createTempDirectory("matrix").toFile();
+        final CountingMatrix<String,String> expected = new CountingMatrix<String,String>();
+        fill(expected, 42L);
+        try (final MappedCountingMatrix<String,String> actual = new MappedCountingMatrix<String,String>(directory)) {
+            fill(actual, 42L);
+            assertSameCounts(expected, actual);
+            // New cells after a row-wise read must show up in the rows
+            expected.increment("r0", "new", 3L);
+            actual.increment("r0", "new", 3L);
+            assertSameCounts(expected, actual);
+            assertSameCounts(expected, actual.compact());
+        }
+        try (final MappedCountingMatrix<String,String> reopened = new MappedCountingMatrix<String,String>(directory)) {
+            assertSameCounts(expected, reopened);
+        }
+        for (final File file : directory.listFiles())
+            file.delete();
+        directory.delete();
+    }
+
+    public void testCompressedCountingMatrix() throws Exception {
+        final CountingMatrix<String,String> expected = new CountingMatrix<String,String>();
+        fill(expected, 42L);
+        final CompressedCountingMatrix<String,String> actual = expected.compact();
+        assertSameCounts(expected, actual);
+
+        long total = 0L;
+        final CompressedCountingMatrix<String,String>.RowCursor cursor = actual.newCursor();
+        for (int row=0; row<actual.getRowCount(); row++)
+            for (cursor.reset(row); cursor.next();) {
+                assertEquals(expected.getCount(actual.getRowKey(row), actual.getColumnKey(cursor.getColumn())), cursor.getCount());
+                total += cursor.getCount();
+            }
+
+        final AtomicLong parallelTotal = new AtomicLong();
+        actual.parallelForEachCell(new CompressedCountingMatrix.CellConsumer() {
+            @Override
+            public void accept(final int row, final int column, final long count) {
+                parallelTotal.addAndGet(count);
+            }
+        });
+        assertEquals(total, parallelTotal.get());
+    }
+
+    public void testStatsCodec() throws Exception {
+        final CountingMatrix<String,String> expected = new CountingMatrix<String,String>();
+        fill(expected, 6L);
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        final DataOutputStream out = new DataOutputStream(bytes);
+        StatsCodec.writeCountingMatrix(out, expected, KeyCodec.STRING, KeyCodec.STRING);
+        StatsCodec.writeCountingMatrix(out, expected, KeyCodec.STRING, KeyCodec.STRING);
+        out.close();
+
+        // Reading twice into the same target merges both snapshots
+        final DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes.toByteArray()));
+        final CountingMatrix<String,String> actual = new CompactCountingMatrix<String,String>();
+        StatsCodec.readCountingMatrix(in, KeyCodec.STRING, KeyCodec.STRING, actual);
+        StatsCodec.readCountingMatrix(in, KeyCodec.STRING, KeyCodec.STRING, actual);
+        assertSameCounts(expected.addAll(expected.compact()), actual);
+        assertEquals(-1, in.read());
+    }
+}
@@ -0,0 +1,112 @@
+package io.github.hhromic.uimr.stats;
+
+import java.util.Random;
+
+import junit.framework.TestCase;
+
+public class DistributionMeasuresTest extends TestCase {
+    public static final double EPSILON = 1e-12;
+
+    public DistributionMeasuresTest(final String name) {
+        super(name);
+    }
+
+    private static Distribution<String> distribution(final Object... elementsAndCounts) {
+        final Distribution<String> distribution = new Distribution<String>();
+        for (int i=0; i<elementsAndCounts.length; i+=2)
+            distribution.increment((String)elementsAndCounts[i], ((Number)elementsAndCounts[i + 1]).longValue());
+        return distribution;
+    }
+
+    private static double log2(final double x) {
+        return Math.log(x) / Math.log(2.0);
+    }
+
+    /** Computes the Jensen-Shannon divergence from its definition over the union of elements. */
+    private static double bruteForceJensenShannon(final Distribution<String> p, final Distribution<String> q) {
+        final Distribution<String> union = new Distribution<String>().addAll(p).addAll(q);
+        double sum = 0.0;
+        for (final String element : union.getDistribution().keySet()) {
+            final Long pCount = p.getDistribution().get(element);
+            final Long qCount = q.getDistribution().get(element);
+            final double a = pCount == null ? 0.0 : pCount * 1.0 / p.getTotalCount();
+            final double b = qCount == null ? 0.0 : qCount * 1.0 / q.getTotalCount();
+            final double m = (a + b) / 2.0;
+            if (a > 0.0)
+                sum += a * log2(a / m);
+            if (b > 0.0)
+                sum += b * log2(b / m);
+        }
+        return sum / 2.0;
+    }
+
+    public void testEntropy() throws Exception {
+        final Distribution<String> uniform = distribution("a", 5, "b", 5, "c", 5, "d", 5);
+        assertEquals(2.0, DistributionMeasures.entropy(uniform), EPSILON);
+        assertEquals(2.0, DistributionMeasures.parallelEntropy(uniform), EPSILON);
+
+        // Probabilities 1/4, 1/4 and 1/2 give 1.5 bits
+        final Distribution<String> skewed = distribution("a", 1, "b", 1, "c", 2);
+        assertEquals(1.5, DistributionMeasures.entropy(skewed), EPSILON);
+        assertEquals(1.5, DistributionMeasures.parallelEntropy(skewed), EPSILON);
+
+        assertEquals(0.0, DistributionMeasures.entropy(distribution("a", 7)), EPSILON);
+        assertEquals(0.0, DistributionMeasures.entropy(new Distribution<String>()));
+        assertEquals(0.0, DistributionMeasures.parallelEntropy(new Distribution<String>()));
+    }
+
+    public void testGini() throws Exception {
+        final Distribution<String> uniform = distribution("a", 5, "b", 5, "c", 5, "d", 5);
+        assertEquals(0.75, DistributionMeasures.giniImpurity(uniform), EPSILON);
+        assertEquals(0.0, DistributionMeasures.giniCoefficient(uniform), EPSILON);
+
+        // Sorted counts 1, 1, 2: impurity 1 - (1/16 + 1/16 + 1/4), coefficient (-2 + 0 + 4) / (3 * 4)
+        final Distribution<String> skewed = distribution("a", 1, "b", 1, "c", 2);
+        assertEquals(0.625, DistributionMeasures.giniImpurity(skewed), EPSILON);
+        assertEquals(1.0 / 6.0, DistributionMeasures.giniCoefficient(skewed), EPSILON);
+
+        assertEquals(0.0, DistributionMeasures.giniImpurity(new Distribution<String>()));
+        assertEquals(0.0, DistributionMeasures.giniCoefficient(new Distribution<String>()));
+    }
+
+    public void testKullbackLeibler() throws Exception {
+        // p = (1/2, 1/2) and q = (1/4, 3/4)
+        final Distribution<String> p = distribution("a", 1, "b", 1);
+        final Distribution<String> q = distribution("a", 1, "b", 3);
+        assertEquals(0.5 * log2(2.0) + 0.5 * log2(2.0 / 3.0), DistributionMeasures.kullbackLeibler(p, q), EPSILON);
+        assertEquals(0.25 * log2(0.5) + 0.75 * log2(1.5), DistributionMeasures.kullbackLeibler(q, p), EPSILON);
+        assertEquals(0.0, DistributionMeasures.kullbackLeibler(p, distribution("a", 3, "b", 3)), EPSILON);
+
+        // Elements of p missing in q make the divergence infinite, the converse does not
+        final Distribution<String> wider = distribution("a", 1, "b", 1, "c", 2);
+        assertEquals(Double.POSITIVE_INFINITY, DistributionMeasures.kullbackLeibler(wider, p));
+        assertFalse(Double.isInfinite(DistributionMeasures.kullbackLeibler(p, wider)));
+
+        assertTrue(Double.isNaN(DistributionMeasures.kullbackLeibler(p, new Distribution<String>())));
+        assertTrue(Double.isNaN(DistributionMeasures.kullbackLeibler(new Distribution<String>(), q)));
+    }
+
+    public void testJensenShannon() throws Exception {
+        final Distribution<String> p = distribution("a", 1, "b", 1);
+        final Distribution<String> q = distribution("a", 1, "b", 3);
+        assertEquals(0.0, DistributionMeasures.jensenShannon(p, distribution("b", 4, "a", 4)), EPSILON);
+        assertEquals(1.0, DistributionMeasures.jensenShannon(p, distribution("c", 1, "d", 9)), EPSILON);
+        assertEquals(bruteForceJensenShannon(p, q), DistributionMeasures.jensenShannon(p, q), EPSILON);
+        assertEquals(DistributionMeasures.jensenShannon(q, p), DistributionMeasures.jensenShannon(p, q), EPSILON);
+
+        // Partially overlapping distributions of different sizes
+        final Random random = new Random(42L);
+        final Distribution<String> first = new Distribution<String>();
+        final Distribution<String> second = new Distribution<String>();
+        for (int i=0; i<1000; i++) {
+            first.increment("e" + random.nextInt(50), 1L);
+            second.increment("e" + (30 + random.nextInt(200)), 1L);
+        }
+        final double expected = bruteForceJensenShannon(first, second);
+        assertEquals(expected, DistributionMeasures.jensenShannon(first, second), 1e-9);
+        assertEquals(expected, DistributionMeasures.jensenShannon(second, first), 1e-9);
+
+        assertTrue(Double.isNaN(DistributionMeasures.jensenShannon(p, new Distribution<String>())));
+        assertTrue(Double.isNaN(DistributionMeasures.jensenShannon(new Distribution<String>(), q)));
+    }
+}
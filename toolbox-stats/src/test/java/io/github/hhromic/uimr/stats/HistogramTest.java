@@ -0,0 +1,242 @@
+package io.github.hhromic.uimr.stats;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import junit.framework.TestCase;
+
+public class HistogramTest extends TestCase {
+    public static final long HIGHEST = 3600000000L;
+    public static final int DIGITS = 3;
+    public static final int VALUES = 100000;
+    public static final double[] PERCENTILES = {1.0, 25.0, 50.0, 90.0, 99.0, 99.9};
+
+    public HistogramTest(final String name) {
+        super(name);
+    }
+
+    /** Gets log-uniform values from 1 to about HIGHEST. */
+    private static long[] values(final long seed) {
+        final Random random = new Random(seed);
+        final long[] values = new long[VALUES];
+        for (int i=0; i<VALUES; i++)
+            values[i] = (long)Math.exp(random.nextDouble() * Math.log(HIGHEST));
+        return values;
+    }
+
+    /** Asserts the percentiles of a histogram are within its precision of the exact ones. */
+    private static void assertPercentiles(final long[] values, final LongHistogram histogram) {
+        final long[] sorted = values.clone();
+        Arrays.sort(sorted);
+        final long[] actual = histogram.getValuesAtPercentiles(PERCENTILES);
+        for (int p=0; p<PERCENTILES.length; p++) {
+            final long exact = sorted[(int)Math.ceil(PERCENTILES[p] / 100.0 * sorted.length) - 1];
+            // Returned values are the highest equivalent value, at most one sub-bucket above
+            assertTrue("p" + PERCENTILES[p] + "=" + actual[p] + " < " + exact, actual[p] >= exact);
+            assertTrue("p" + PERCENTILES[p] + "=" + actual[p] + " >> " + exact, actual[p] <= exact + exact / 1000 + 1);
+            assertEquals(actual[p], histogram.getValueAtPercentile(PERCENTILES[p]));
+        }
+        assertEquals(sorted[0], histogram.getMin());
+        assertEquals(sorted[sorted.length - 1], histogram.getMax());
+        assertEquals(sorted[sorted.length - 1], histogram.getValueAtPercentile(100.0));
+    }
+
+    public void testLongHistogram() throws Exception {
+        final long[] values = values(42L);
+        final LongHistogram histogram = new LongHistogram(HIGHEST, DIGITS);
+        double sum = 0.0;
+        for (final long value : values) {
+            histogram.recordValue(value);
+            sum += value;
+        }
+        assertEquals(VALUES, histogram.getTotalCount());
+        assertPercentiles(values, histogram);
+        assertEquals(sum / VALUES, histogram.getMean(), sum / VALUES * 1e-3);
+
+        // Small values are recorded exactly
+        final LongHistogram small = new LongHistogram(HIGHEST, DIGITS);
+        for (long value=0; value<2000; value++)
+            small.recordValue(value, value + 1);
+        for (long value=0; value<2000; value++)
+            assertEquals(value + 1, small.getCountAtValue(value));
+
+        try {
+            histogram.recordValue(HIGHEST + 1);
+            fail("value above the highest trackable value accepted");
+        } catch (IndexOutOfBoundsException e) {
+            // expected
+        }
+    }
+
+    public void testMergedLongHistogram() throws Exception {
+        final long[] values = values(7L);
+        final LongHistogram first = new LongHistogram(HIGHEST, DIGITS);
+        final LongHistogram second = new LongHistogram(HIGHEST, DIGITS);
+        for (int i=0; i<VALUES; i++)
+            (i % 2 == 0 ? first : second).recordValue(values[i]);
+        final LongHistogram merged = new LongHistogram(HIGHEST, DIGITS).addAll(first).addAll(second);
+        assertEquals(VALUES, merged.getTotalCount());
+        assertPercentiles(values, merged);
+    }
+
+    public void testConcurrentLongHistogram() throws Exception {
+        final long[] values = values(3L);
+        final LongHistogram expected = new LongHistogram(HIGHEST, DIGITS);
+        for (final long value : values)
+            expected.recordValue(value);
+        final ConcurrentLongHistogram actual = new ConcurrentLongHistogram(HIGHEST, DIGITS);
+        final Thread[] threads = new Thread[4];
+        for (int t=0; t<threads.length; t++) {
+            final int thread = t;
+            threads[t] = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    for (int i=thread; i<VALUES; i+=threads.length)
+                        actual.recordValue(values[i]);
+                }
+            });
+            threads[t].start();
+        }
+        for (final Thread thread : threads)
+            thread.join();
+        assertEquals(VALUES, actual.getTotalCount());
+        assertPercentiles(values, actual);
+        assertTrue(Arrays.equals(expected.getValuesAtPercentiles(PERCENTILES), actual.getValuesAtPercentiles(PERCENTILES)));
+    }
+
+    /** Gets the bin of a data value by a linear scan over the edges. */
+    private static int scanBin(final long[] edges, final long value) {
+        if (value < edges[0])
+            return -1;
+        for (int bin=0; bin<edges.length-1; bin++)
+            if (value < edges[bin + 1])
+                return bin;
+        return edges.length - 1;
+    }
+
+    /** Asserts the bins of the edges, the values next to them and some random values. */
+    private static void assertBins(final BinnedHistogram histogram) {
+        final long[] edges = histogram.getEdges();
+        assertEquals(edges.length - 1, histogram.getNumBins());
+        for (final long edge : edges)
+            for (long value=edge-1; value<=edge+1; value++)
+                assertEquals("value " + value, scanBin(edges, value), histogram.getBin(value));
+        final Random random = new Random(42L);
+        final long range = edges[edges.length - 1] - edges[0];
+        for (int i=0; i<VALUES; i++) {
+            final long value = edges[0] - 10 + (long)(random.nextDouble() * (range + 20));
+            assertEquals("value " + value, scanBin(edges, value), histogram.getBin(value));
+        }
+    }
+
+    public void testBinnedHistogramBins() throws Exception {
+        final BinnedHistogram linear = BinnedHistogram.linear(0, 100, 10);
+        assertTrue(Arrays.equals(new long[] {0, 10, 20, 30, 40, 50, 60, 70, 80, 90, 100}, linear.getEdges()));
+        assertEquals(-1, linear.getBin(-1));
+        assertEquals(0, linear.getBin(0));
+        assertEquals(0, linear.getBin(9));
+        assertEquals(1, linear.getBin(10));
+        assertEquals(9, linear.getBin(99));
+        assertEquals(10, linear.getBin(100));
+        assertBins(linear);
+        // Uneven widths are floored to integer edges
+        assertTrue(Arrays.equals(new long[] {0, 3, 6, 10}, BinnedHistogram.linear(0, 10, 3).getEdges()));
+        assertBins(BinnedHistogram.linear(0, 10, 3));
+        assertBins(BinnedHistogram.linear(-1000, 999, 37));
+
+        final BinnedHistogram logarithmic = BinnedHistogram.logarithmic(1, 1000, 3);
+        assertTrue(Arrays.equals(new long[] {1, 10, 100, 1000}, logarithmic.getEdges()));
+        assertEquals(-1, logarithmic.getBin(0));
+        assertEquals(0, logarithmic.getBin(9));
+        assertEquals(1, logarithmic.getBin(10));
+        assertEquals(2, logarithmic.getBin(100));
+        assertEquals(2, logarithmic.getBin(999));
+        assertEquals(3, logarithmic.getBin(1000));
+        assertBins(logarithmic);
+        assertBins(BinnedHistogram.logarithmic(1, 100000000, 40));
+        assertBins(BinnedHistogram.logarithmic(7, 5000, 20));
+
+        final BinnedHistogram custom = BinnedHistogram.withEdges(-5, 0, 1, 7, 100);
+        assertEquals(-1, custom.getBin(-6));
+        assertEquals(0, custom.getBin(-5));
+        assertEquals(1, custom.getBin(0));
+        assertEquals(2, custom.getBin(1));
+        assertEquals(2, custom.getBin(6));
+        assertEquals(3, custom.getBin(7));
+        assertEquals(4, custom.getBin(100));
+        assertBins(custom);
+
+        custom.add(-6).add(-5).add(0, 3L).add(99).add(100).add(1000);
+        assertEquals(1L, custom.getUnderflowCount());
+        assertEquals(2L, custom.getOverflowCount());
+        assertEquals(1L, custom.getCount(0));
+        assertEquals(3L, custom.getCount(1));
+        assertEquals(0L, custom.getCount(2));
+        assertEquals(1L, custom.getCount(3));
+        assertEquals(8L, custom.getTotalCount());
+        assertEquals(7L, custom.getLowerEdge(3));
+        assertEquals(100L, custom.getUpperEdge(3));
+
+        try {
+            BinnedHistogram.withEdges(0, 5, 5);
+            fail("repeated edges accepted");
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+        try {
+            BinnedHistogram.linear(0, 5, 10);
+            fail("too narrow linear range accepted");
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+        try {
+            BinnedHistogram.logarithmic(1, 10, 40);
+            fail("too narrow logarithmic range accepted");
+        } catch (IllegalArgumentException e) {
+            assertTrue(e.getMessage(), e.getMessage().startsWith("range too narrow"));
+        }
+    }
+
+    public void testMergedBinnedHistogram() throws Exception {
+        final Random random = new Random(7L);
+        final BinnedHistogram first = BinnedHistogram.logarithmic(1, 1000000, 30);
+        final BinnedHistogram second = BinnedHistogram.logarithmic(1, 1000000, 30);
+        final BinnedHistogram single = BinnedHistogram.logarithmic(1, 1000000, 30);
+        for (int i=0; i<VALUES; i++) {
+            final long value = (long)Math.exp(random.nextDouble() * Math.log(2000000.0)) - 1;
+            (i % 2 == 0 ? first : second).add(value);
+            single.add(value);
+        }
+        first.addAll(second);
+        assertEquals(single.toString(), first.toString());
+        assertEquals(VALUES, first.getTotalCount());
+        assertTrue(first.getUnderflowCount() > 0L);
+        assertTrue(first.getOverflowCount() > 0L);
+
+        try {
+            first.addAll(BinnedHistogram.logarithmic(1, 1000000, 31));
+            fail("histogram with different edges accepted");
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+        try {
+            BinnedHistogram.linear(0, 100, 10).addAll(BinnedHistogram.withEdges(0, 10, 20, 30, 40, 50, 60, 70, 80, 90, 101));
+            fail("histogram with different edges accepted");
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+        // Same edges merge even when created differently
+        BinnedHistogram.linear(0, 100, 10).addAll(BinnedHistogram.withEdges(0, 10, 20, 30, 40, 50, 60, 70, 80, 90, 100));
+
+        // Distributions keyed by the lower edges round trip, underflow and overflow are left out
+        final Distribution<Long> distribution = single.toDistribution();
+        assertEquals(single.getTotalCount() - single.getUnderflowCount() - single.getOverflowCount(),
+            distribution.getTotalCount());
+        final BinnedHistogram read = BinnedHistogram.logarithmic(1, 1000000, 30).addAll(distribution);
+        for (int bin=0; bin<single.getNumBins(); bin++)
+            assertEquals(single.getCount(bin), read.getCount(bin));
+        assertEquals(0L, read.getUnderflowCount());
+        assertEquals(0L, read.getOverflowCount());
+        assertEquals(distribution.getDistribution(), read.toDistribution().getDistribution());
+    }
+}
@@ -0,0 +1,39 @@
+package io.github.hhromic.uimr.stats;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import junit.framework.TestCase;
+
+public class MeterTest extends TestCase {
+    public static final long TICK = TimeUnit.SECONDS.toNanos(Meter.TICK_INTERVAL);
+
+    public MeterTest(final String name) {
+        super(name);
+    }
+
+    public void testMeter() throws Exception {
+        final AtomicLong clock = new AtomicLong(0L);
+        final Meter meter = new Meter(clock::get);
+        meter.mark(50);
+        clock.set(TICK);
+        assertEquals(10.0, meter.getOneMinuteRate(), 1e-12);
+        assertEquals(10.0, meter.getFifteenMinuteRate(), 1e-12);
+        assertEquals(50L, meter.getCount());
+        assertEquals(10.0, meter.getMeanRate(), 1e-12);
+
+        // A long idle gap decays the averages like the same number of empty ticks
+        final AtomicLong tickingClock = new AtomicLong(0L);
+        final Meter ticking = new Meter(tickingClock::get);
+        ticking.mark(50);
+        for (long tick=1; tick<=1000; tick++) {
+            tickingClock.set(tick * TICK);
+            ticking.tick();
+        }
+        clock.set(1000 * TICK + TICK / 2);
+        assertEquals(ticking.getOneMinuteRate(), meter.getOneMinuteRate(), 1e-12);
+        assertEquals(ticking.getFiveMinuteRate(), meter.getFiveMinuteRate(), 1e-12);
+        assertEquals(ticking.getFifteenMinuteRate(), meter.getFifteenMinuteRate(), 1e-12);
+        assertEquals(10.0 * Math.exp(-999.0 * Meter.TICK_INTERVAL / 900.0), meter.getFifteenMinuteRate(), 1e-9);
+    }
+}
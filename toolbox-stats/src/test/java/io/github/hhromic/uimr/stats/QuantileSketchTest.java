@@ -0,0 +1,89 @@
+package io.github.hhromic.uimr.stats;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.util.Arrays;
+import java.util.Random;
+
+import junit.framework.TestCase;
+
+public class QuantileSketchTest extends TestCase {
+    public static final int VALUES = 100000;
+    public static final int K = 200;
+    // The expected rank error is about 1.7/k, leave room for unlucky compactions
+    public static final double RANK_ERROR = 4.0 / K;
+    public static final double[] QUANTILES = {0.01, 0.1, 0.25, 0.5, 0.75, 0.9, 0.99};
+
+    public QuantileSketchTest(final String name) {
+        super(name);
+    }
+
+    /** Gets the values from 0 to VALUES-1 in random order. */
+    private static double[] shuffled(final long seed) {
+        final double[] values = new double[VALUES];
+        for (int i=0; i<VALUES; i++)
+            values[i] = i;
+        final Random random = new Random(seed);
+        for (int i=VALUES-1; i>0; i--) {
+            final int j = random.nextInt(i + 1);
+            final double value = values[i];
+            values[i] = values[j];
+            values[j] = value;
+        }
+        return values;
+    }
+
+    private static void assertRankError(final QuantileSketch sketch) {
+        final double[] values = sketch.getQuantiles(QUANTILES);
+        for (int q=0; q<QUANTILES.length; q++) {
+            // The true normalized rank of value v in 0..VALUES-1 is about v/VALUES
+            assertEquals("quantile " + QUANTILES[q], QUANTILES[q], values[q] / VALUES, RANK_ERROR);
+            assertEquals("rank " + QUANTILES[q], QUANTILES[q], sketch.getRank(QUANTILES[q] * VALUES), RANK_ERROR);
+        }
+    }
+
+    public void testQuantileSketch() throws Exception {
+        final QuantileSketch sketch = new QuantileSketch(K);
+        for (final double value : shuffled(42L))
+            sketch.add(value);
+        assertEquals(VALUES, sketch.getCount());
+        assertEquals(0.0, sketch.getMin());
+        assertEquals(VALUES - 1.0, sketch.getMax());
+        assertEquals(0.0, sketch.getQuantile(0.0));
+        assertEquals(VALUES - 1.0, sketch.getQuantile(1.0));
+        assertTrue("retained " + sketch.getRetainedCount(), sketch.getRetainedCount() <= 3 * K + 64);
+        assertRankError(sketch);
+        assertTrue(Double.isNaN(new QuantileSketch(K).getQuantile(0.5)));
+    }
+
+    public void testMergedQuantileSketch() throws Exception {
+        final double[] values = shuffled(7L);
+        final QuantileSketch[] parts = new QuantileSketch[4];
+        for (int p=0; p<parts.length; p++) {
+            parts[p] = new QuantileSketch(K);
+            for (int i=p; i<VALUES; i+=parts.length)
+                parts[p].add(values[i]);
+        }
+        final QuantileSketch merged = new QuantileSketch(K);
+        for (final QuantileSketch part : parts)
+            merged.addAll(part);
+        assertEquals(VALUES, merged.getCount());
+        assertEquals(0.0, merged.getMin());
+        assertEquals(VALUES - 1.0, merged.getMax());
+        assertRankError(merged);
+    }
+
+    public void testQuantileSketchSerialization() throws Exception {
+        final QuantileSketch sketch = new QuantileSketch(K);
+        for (final double value : shuffled(3L))
+            sketch.add(value);
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        sketch.writeTo(new DataOutputStream(bytes));
+        final QuantileSketch read = QuantileSketch.readFrom(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())));
+        assertEquals(sketch.getCount(), read.getCount());
+        assertEquals(sketch.getRetainedCount(), read.getRetainedCount());
+        assertTrue(Arrays.equals(sketch.getQuantiles(QUANTILES), read.getQuantiles(QUANTILES)));
+    }
+}
@@ -0,0 +1,156 @@
+package io.github.hhromic.uimr.stats;
+
+import java.util.List;
+import java.util.HashSet;
+
+import junit.framework.TestCase;
+
+public class SamplerTest extends TestCase {
+    public static final int TRIALS = 20000;
+    public static final int K = 5;
+    public static final int ITEMS = 100;
+
+    public SamplerTest(final String name) {
+        super(name);
+    }
+
+    /** Asserts an observed count is within six standard deviations of a binomial expectation. */
+    private static void assertBinomial(final String message, final long trials, final double p, final long observed) {
+        final double expected = trials * p;
+        final double tolerance = 6.0 * Math.sqrt(trials * p * (1.0 - p));
+        assertEquals(message, expected, observed, tolerance);
+    }
+
+    public void testReservoirSampler() throws Exception {
+        final ReservoirSampler<Integer> sampler = new ReservoirSampler<Integer>(K);
+        for (int i=0; i<3; i++)
+            sampler.add(i);
+        assertEquals(3, sampler.getSample().size());
+        for (int i=3; i<10000; i++)
+            sampler.add(i);
+        final List<Integer> sample = sampler.getSample();
+        assertEquals(10000L, sampler.getCount());
+        assertEquals(K, sample.size());
+        assertEquals(K, new HashSet<Integer>(sample).size());
+
+        // Every item is sampled with probability k/n
+        final long[] hits = new long[ITEMS];
+        for (int t=0; t<TRIALS; t++) {
+            final ReservoirSampler<Integer> trial = new ReservoirSampler<Integer>(K);
+            for (int i=0; i<ITEMS; i++)
+                trial.add(i);
+            for (final int item : trial.getSample())
+                hits[item]++;
+        }
+        for (int i=0; i<ITEMS; i++)
+            assertBinomial("item " + i, TRIALS, K * 1.0 / ITEMS, hits[i]);
+    }
+
+    public void testMergedReservoirSampler() throws Exception {
+        // Streams of 30 and 30 items are merged, then 40 more items are added to the merged sampler
+        final long[] groupHits = new long[3];
+        for (int t=0; t<TRIALS; t++) {
+            final ReservoirSampler<Integer> first = new ReservoirSampler<Integer>(K);
+            final ReservoirSampler<Integer> second = new ReservoirSampler<Integer>(K);
+            for (int i=0; i<30; i++)
+                first.add(i);
+            for (int i=30; i<60; i++)
+                second.add(i);
+            first.addAll(second);
+            for (int i=60; i<ITEMS; i++)
+                first.add(i);
+            assertEquals(ITEMS, first.getCount());
+            final List<Integer> sample = first.getSample();
+            assertEquals(K, new HashSet<Integer>(sample).size());
+            for (final int item : sample)
+                groupHits[item < 30 ? 0 : item < 60 ? 1 : 2]++;
+        }
+        assertBinomial("first stream", TRIALS * K, 0.3, groupHits[0]);
+        assertBinomial("second stream", TRIALS * K, 0.3, groupHits[1]);
+        assertBinomial("later items", TRIALS * K, 0.4, groupHits[2]);
+    }
+
+    public void testWeightedReservoirSampler() throws Exception {
+        // With a sample of one, items are picked with probability proportional to their weight
+        final double[] weights = {1.0, 2.0, 3.0, 4.0};
+        final long[] hits = new long[weights.length];
+        final long[] mergedHits = new long[weights.length];
+        for (int t=0; t<TRIALS; t++) {
+            final WeightedReservoirSampler<Integer> sampler = new WeightedReservoirSampler<Integer>(1);
+            for (int i=0; i<weights.length; i++)
+                sampler.add(i, weights[i]);
+            hits[sampler.getSample().get(0)]++;
+
+            final WeightedReservoirSampler<Integer> first = new WeightedReservoirSampler<Integer>(1);
+            final WeightedReservoirSampler<Integer> second = new WeightedReservoirSampler<Integer>(1);
+            for (int i=0; i<weights.length; i++)
+                (i % 2 == 0 ? first : second).add(i, weights[i]);
+            mergedHits[first.addAll(second).getSample().get(0)]++;
+        }
+        for (int i=0; i<weights.length; i++) {
+            assertBinomial("item " + i, TRIALS, weights[i] / 10.0, hits[i]);
+            assertBinomial("merged item " + i, TRIALS, weights[i] / 10.0, mergedHits[i]);
+        }
+
+        try {
+            new WeightedReservoirSampler<Integer>(K).add(0, 0.0);
+            fail("zero weight accepted");
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+    }
+
+    public void testConcurrentSamplers() throws Exception {
+        final ConcurrentReservoirSampler<Integer> sampler = new ConcurrentReservoirSampler<Integer>(K);
+        final ConcurrentWeightedReservoirSampler<Integer> weightedSampler = new ConcurrentWeightedReservoirSampler<Integer>(K);
+        final Thread[] threads = new Thread[4];
+        for (int t=0; t<threads.length; t++) {
+            final int thread = t;
+            threads[t] = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    for (int i=0; i<10000; i++) {
+                        sampler.add(thread * 10000 + i);
+                        weightedSampler.add(thread * 10000 + i, 1.0 + i % 7);
+                    }
+                }
+            });
+            threads[t].start();
+        }
+        for (final Thread thread : threads)
+            thread.join();
+        assertEquals(40000L, sampler.getCount());
+        assertEquals(40000L, weightedSampler.getCount());
+        assertEquals(K, new HashSet<Integer>(sampler.getSample()).size());
+        assertEquals(K, new HashSet<Integer>(weightedSampler.getSample()).size());
+    }
+
+    public void testConcurrentReservoirSamplerUniformity() throws Exception {
+        final int trials = TRIALS / 10;
+        final long[] inclusions = new long[2 * ITEMS];
+        for (int trial=0; trial<trials; trial++) {
+            final ConcurrentReservoirSampler<Integer> sampler = new ConcurrentReservoirSampler<Integer>(K);
+            final Thread[] threads = new Thread[2];
+            for (int t=0; t<threads.length; t++) {
+                final int thread = t;
+                threads[t] = new Thread(new Runnable() {
+                    @Override
+                    public void run() {
+                        for (int i=0; i<ITEMS; i++)
+                            sampler.add(thread * ITEMS + i);
+                    }
+                });
+                threads[t].start();
+            }
+            for (final Thread thread : threads)
+                thread.join();
+            assertEquals(2L * ITEMS, sampler.getCount());
+            final List<Integer> sample = sampler.getSample();
+            assertEquals(K, new HashSet<Integer>(sample).size());
+            for (final Integer item : sample)
+                inclusions[item]++;
+        }
+        for (int item=0; item<inclusions.length; item++)
+            assertBinomial("item " + item, trials, K * 1.0 / inclusions.length, inclusions[item]);
+    }
+}
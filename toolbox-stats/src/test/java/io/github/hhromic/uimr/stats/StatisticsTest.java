@@ -0,0 +1,245 @@
+package io.github.hhromic.uimr.stats;
+
+import java.nio.ByteBuffer;
+import java.nio.DoubleBuffer;
+import java.nio.LongBuffer;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import junit.framework.TestCase;
+
+public class StatisticsTest extends TestCase {
+    public static final int VALUES = 200000;
+
+    public StatisticsTest(final String name) {
+        super(name);
+    }
+
+    public void testConcurrentStatistics() throws Exception {
+        final ConcurrentLongStatistics longStatistics = new ConcurrentLongStatistics();
+        final ConcurrentDoubleStatistics doubleStatistics = new ConcurrentDoubleStatistics();
+        final LongStatistics expected = new LongStatistics();
+        final AtomicBoolean inconsistent = new AtomicBoolean(false);
+        final Thread[] threads = new Thread[4];
+        for (int t=0; t<threads.length; t++) {
+            for (int i=0; i<VALUES; i++)
+                expected.add(1000000L + i % 3);
+            threads[t] = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    for (int i=0; i<VALUES; i++) {
+                        longStatistics.add(1000000L + i % 3);
+                        doubleStatistics.add(1000000.0 + i % 3);
+                    }
+                }
+            });
+            threads[t].start();
+        }
+        // Readers racing with the writers always see matching counts and sums
+        while (threads[0].isAlive()) {
+            final double variance = longStatistics.getVariance();
+            if (longStatistics.getCount() > 0L && !(variance >= 0.0 && variance < 1.0))
+                inconsistent.set(true);
+        }
+        for (final Thread thread : threads)
+            thread.join();
+        assertFalse(inconsistent.get());
+
+        final long n = threads.length * (long)VALUES;
+        assertEquals(n, longStatistics.getCount());
+        assertEquals(n, doubleStatistics.getCount());
+        assertEquals(expected.getAccumulator(), longStatistics.getAccumulator());
+        assertEquals(expected.getSquaredAccumulator(), longStatistics.getSquaredAccumulator());
+        assertEquals(1000000L, (long)longStatistics.getMin());
+        assertEquals(1000002L, (long)longStatistics.getMax());
+        assertEquals(expected.getMean(n), longStatistics.getMean(), 1e-9);
+        assertEquals(expected.getMean(n), doubleStatistics.getMean(), 1e-6);
+        assertEquals(2.0 / 3.0, longStatistics.getVariance(), 1e-3);
+
+        final ConcurrentLongStatistics merged = new ConcurrentLongStatistics().addAll(longStatistics);
+        assertEquals(n, merged.getCount());
+        assertEquals(longStatistics.toString(), merged.toString());
+        assertTrue(Double.isNaN(new ConcurrentLongStatistics().getMean()));
+    }
+
+    public void testMomentStatistics() throws Exception {
+        final MomentStatistics statistics = new MomentStatistics();
+        for (final double data : new double[] {2, 4, 4, 4, 5, 5, 7, 9})
+            statistics.add(data);
+        assertEquals(8L, statistics.getCount());
+        assertEquals(40.0, statistics.getSum(), 1e-12);
+        assertEquals(5.0, statistics.getMean(), 1e-12);
+        assertEquals(4.0, statistics.getVariance(), 1e-12);
+        assertEquals(32.0 / 7.0, statistics.getSampleVariance(), 1e-12);
+        assertEquals(2.0, statistics.getStdDeviation(), 1e-12);
+        // Central moments: sum(d^3) = 42 and sum(d^4) = 356 over the deviations from 5
+        assertEquals((42.0 / 8.0) / 8.0, statistics.getSkewness(), 1e-12);
+        assertEquals((356.0 / 8.0) / 16.0 - 3.0, statistics.getKurtosis(), 1e-12);
+        assertEquals(2.0, statistics.getMin());
+        assertEquals(9.0, statistics.getMax());
+        assertTrue(Double.isNaN(new MomentStatistics().getMean()));
+    }
+
+    public void testMergedMomentStatistics() throws Exception {
+        final Random random = new Random(42L);
+        final MomentStatistics single = new MomentStatistics();
+        final MomentStatistics[] parts = new MomentStatistics[5];
+        for (int p=0; p<parts.length; p++)
+            parts[p] = new MomentStatistics();
+        for (int i=0; i<VALUES; i++) {
+            // Skewed timestamp-like data, spread over uneven parts (the last part stays empty)
+            final double data = 1.6e12 + 1e6 * Math.exp(random.nextGaussian());
+            single.add(data);
+            parts[Math.min(random.nextInt(7), parts.length - 2)].add(data);
+        }
+        final MomentStatistics merged = new MomentStatistics();
+        for (final MomentStatistics part : parts)
+            merged.addAll(part);
+        assertEquals(single.getCount(), merged.getCount());
+        assertEquals(single.getMean(), merged.getMean(), 1.0);
+        assertEquals(single.getVariance(), merged.getVariance(), single.getVariance() * 1e-6);
+        assertEquals(single.getSkewness(), merged.getSkewness(), 1e-4);
+        assertEquals(single.getKurtosis(), merged.getKurtosis(), 1e-3);
+        assertEquals(single.getMin(), merged.getMin());
+        assertEquals(single.getMax(), merged.getMax());
+        // The log-normal variance is (e - 1) e, recovered despite the large offset
+        assertEquals((Math.E - 1.0) * Math.E * 1e12, single.getVariance(), (Math.E - 1.0) * Math.E * 1e11);
+    }
+
+    public void testConcurrentRollingStatistics() throws Exception {
+        final AtomicLong clock = new AtomicLong(0L);
+        final ConcurrentRollingLongStatistics actual = new ConcurrentRollingLongStatistics(40L, 4, clock::get);
+        final RollingLongStatistics expected = new RollingLongStatistics(40L, 4, clock::get);
+        assertEquals(0L, actual.getCount());
+        assertTrue(Double.isNaN(actual.getVariance()));
+        final Random random = new Random(42L);
+        for (long time=0; time<100; time++) {
+            clock.set(time);
+            for (int i=0; i<3; i++) {
+                final long data = random.nextInt(1000);
+                actual.add(data);
+                expected.add(data);
+            }
+            assertEquals(expected.getCount(), actual.getCount());
+            assertEquals(expected.getMean(), actual.getMean(), 1e-9);
+            assertEquals(expected.getVariance(), actual.getVariance(), 1e-6);
+            assertEquals(expected.getStdDeviation(), actual.getStdDeviation(), 1e-6);
+            assertEquals(expected.getMin(), actual.getMin());
+            assertEquals(expected.getMax(), actual.getMax());
+        }
+
+        // Concurrent writers within one window lose no data values
+        clock.set(1000L);
+        final Thread[] threads = new Thread[4];
+        for (int t=0; t<threads.length; t++) {
+            threads[t] = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    for (int i=0; i<VALUES; i++)
+                        actual.add(i % 3);
+                }
+            });
+            threads[t].start();
+        }
+        for (final Thread thread : threads)
+            thread.join();
+        assertEquals(threads.length * (long)VALUES, actual.getCount());
+        assertEquals(2.0 / 3.0, actual.getVariance(), 1e-3);
+        clock.set(1040L);
+        assertEquals(0L, actual.getCount());
+    }
+
+    public void testBulkLongStatistics() throws Exception {
+        final Random random = new Random(42L);
+        final long[] values = new long[LongStatistics.PARALLEL_THRESHOLD * 4 + 123];
+        for (int i=0; i<values.length; i++)
+            values[i] = random.nextInt(2000001) - 1000000;
+        final int from = 17;
+        final int to = values.length - 5;
+        final LongStatistics expected = new LongStatistics();
+        for (int i=from; i<to; i++)
+            expected.add(values[i]);
+
+        assertEquals(expected.toString(), new LongStatistics().addAll(values, from, to).toString());
+        // Above the threshold the parallel path splits the range
+        assertEquals(expected.toString(), new LongStatistics().parallelAddAll(values, from, to).toString());
+        assertEquals(new LongStatistics().addAll(values, 3, 1000).toString(),
+            new LongStatistics().parallelAddAll(values, 3, 1000).toString());
+        assertEquals(new LongStatistics().toString(), new LongStatistics().addAll(values, 5, 5).toString());
+
+        // Heap buffers with an array offset and direct buffers, the position is left untouched
+        final LongBuffer heap = LongBuffer.wrap(values, 10, values.length - 10).slice();
+        heap.position(from - 10).limit(to - 10);
+        assertEquals(expected.toString(), new LongStatistics().addAll(heap).toString());
+        assertEquals(from - 10, heap.position());
+        final LongBuffer direct = ByteBuffer.allocateDirect(values.length * 8).asLongBuffer();
+        direct.put(values);
+        direct.position(from).limit(to);
+        assertFalse(direct.hasArray());
+        assertEquals(expected.toString(), new LongStatistics().addAll(direct).toString());
+        assertEquals(from, direct.position());
+
+        for (final int[] range : new int[][] {{-1, 10}, {0, values.length + 1}, {10, 9}}) {
+            try {
+                new LongStatistics().addAll(values, range[0], range[1]);
+                fail("range accepted: " + range[0] + ", " + range[1]);
+            } catch (IndexOutOfBoundsException e) {
+                // expected
+            }
+            try {
+                new LongStatistics().parallelAddAll(values, range[0], range[1]);
+                fail("parallel range accepted: " + range[0] + ", " + range[1]);
+            } catch (IndexOutOfBoundsException e) {
+                // expected
+            }
+        }
+    }
+
+    public void testBulkDoubleStatistics() throws Exception {
+        final Random random = new Random(7L);
+        final double[] values = new double[DoubleStatistics.PARALLEL_THRESHOLD * 4 + 123];
+        for (int i=0; i<values.length; i++)
+            values[i] = random.nextGaussian() * 1000.0;
+        final int from = 17;
+        final int to = values.length - 5;
+        final DoubleStatistics expected = new DoubleStatistics();
+        for (int i=from; i<to; i++)
+            expected.add(values[i]);
+        final long n = to - from;
+
+        assertEquals(expected.toString(), new DoubleStatistics().addAll(values, from, to).toString());
+        // The parallel path sums in a different order, within rounding
+        final DoubleStatistics parallel = new DoubleStatistics().parallelAddAll(values, from, to);
+        assertEquals(expected.getMean(n), parallel.getMean(n), 1e-9);
+        assertEquals(expected.getVariance(n), parallel.getVariance(n), expected.getVariance(n) * 1e-12);
+        assertEquals(expected.getMin(), parallel.getMin());
+        assertEquals(expected.getMax(), parallel.getMax());
+
+        final DoubleBuffer heap = DoubleBuffer.wrap(values, 10, values.length - 10).slice();
+        heap.position(from - 10).limit(to - 10);
+        assertEquals(expected.toString(), new DoubleStatistics().addAll(heap).toString());
+        assertEquals(from - 10, heap.position());
+        final DoubleBuffer direct = ByteBuffer.allocateDirect(values.length * 8).asDoubleBuffer();
+        direct.put(values);
+        direct.position(from).limit(to);
+        assertFalse(direct.hasArray());
+        assertEquals(expected.toString(), new DoubleStatistics().addAll(direct).toString());
+        assertEquals(from, direct.position());
+
+        for (final int[] range : new int[][] {{-1, 10}, {0, values.length + 1}, {10, 9}}) {
+            try {
+                new DoubleStatistics().addAll(values, range[0], range[1]);
+                fail("range accepted: " + range[0] + ", " + range[1]);
+            } catch (IndexOutOfBoundsException e) {
+                // expected
+            }
+            try {
+                new DoubleStatistics().parallelAddAll(values, range[0], range[1]);
+                fail("parallel range accepted: " + range[0] + ", " + range[1]);
+            } catch (IndexOutOfBoundsException e) {
+                // expected
+            }
+        }
+    }
+}
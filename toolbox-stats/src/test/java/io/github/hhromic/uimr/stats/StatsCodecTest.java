@@ -0,0 +1,200 @@
+package io.github.hhromic.uimr.stats;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Random;
+
+import junit.framework.TestCase;
+
+public class StatsCodecTest extends TestCase {
+    public static final int VALUES = 10000;
+
+    public StatsCodecTest(final String name) {
+        super(name);
+    }
+
+    private static DataInputStream input(final ByteArrayOutputStream bytes) {
+        return new DataInputStream(new ByteArrayInputStream(bytes.toByteArray()));
+    }
+
+    public void testStatistics() throws Exception {
+        final LongStatistics longStatistics = new LongStatistics();
+        final ConcurrentLongStatistics concurrentLongStatistics = new ConcurrentLongStatistics();
+        final DoubleStatistics doubleStatistics = new DoubleStatistics();
+        final ConcurrentDoubleStatistics concurrentDoubleStatistics = new ConcurrentDoubleStatistics();
+        for (int i=0; i<VALUES; i++) {
+            longStatistics.add((long)i - 100);
+            concurrentLongStatistics.add((long)i - 100);
+            doubleStatistics.add(i / 7.0);
+            concurrentDoubleStatistics.add(i / 7.0);
+        }
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        final DataOutputStream out = new DataOutputStream(bytes);
+        StatsCodec.writeLongStatistics(out, concurrentLongStatistics);
+        StatsCodec.writeLongStatistics(out, longStatistics, VALUES);
+        StatsCodec.writeLongStatistics(out, longStatistics);
+        StatsCodec.writeDoubleStatistics(out, concurrentDoubleStatistics);
+        StatsCodec.writeDoubleStatistics(out, doubleStatistics, VALUES);
+        StatsCodec.writeDoubleStatistics(out, doubleStatistics);
+        final DataInputStream in = input(bytes);
+
+        // The internal count of concurrent statistics survives the round trip
+        final ConcurrentLongStatistics readLong = StatsCodec.readLongStatistics(in, new ConcurrentLongStatistics());
+        assertEquals(concurrentLongStatistics.toString(), readLong.toString());
+        assertEquals(VALUES, readLong.getCount());
+        assertEquals(concurrentLongStatistics.getMean(), readLong.getMean());
+        assertEquals(concurrentLongStatistics.getVariance(), readLong.getVariance());
+        final ConcurrentLongStatistics explicitLong = StatsCodec.readLongStatistics(in, new ConcurrentLongStatistics());
+        assertEquals(readLong.toString(), explicitLong.toString());
+        final LongStatistics plainLong = StatsCodec.readLongStatistics(in, new LongStatistics());
+        assertEquals(longStatistics.toString(), plainLong.toString());
+
+        final ConcurrentDoubleStatistics readDouble = StatsCodec.readDoubleStatistics(in, new ConcurrentDoubleStatistics());
+        assertEquals(concurrentDoubleStatistics.toString(), readDouble.toString());
+        assertEquals(VALUES, readDouble.getCount());
+        assertEquals(concurrentDoubleStatistics.getMean(), readDouble.getMean());
+        assertEquals(concurrentDoubleStatistics.getVariance(), readDouble.getVariance());
+        final ConcurrentDoubleStatistics explicitDouble = StatsCodec.readDoubleStatistics(in, new ConcurrentDoubleStatistics());
+        assertEquals(readDouble.toString(), explicitDouble.toString());
+        final DoubleStatistics plainDouble = StatsCodec.readDoubleStatistics(in, new DoubleStatistics());
+        assertEquals(doubleStatistics.toString(), plainDouble.toString());
+        assertEquals(-1, in.read());
+    }
+
+    public void testDistribution() throws Exception {
+        final Distribution<String> distribution = new Distribution<String>();
+        final Random random = new Random(42L);
+        for (int i=0; i<VALUES; i++)
+            distribution.increment("k" + random.nextInt(500), 1 + random.nextInt(3));
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        final DataOutputStream out = new DataOutputStream(bytes);
+        StatsCodec.writeDistribution(out, distribution, KeyCodec.STRING);
+        StatsCodec.writeDistribution(out, distribution, KeyCodec.STRING);
+        final DataInputStream in = input(bytes);
+        final Distribution<String> actual = StatsCodec.readDistribution(in, KeyCodec.STRING, new Distribution<String>());
+        assertEquals(distribution.getDistribution(), actual.getDistribution());
+        assertEquals(distribution.getTotalCount(), actual.getTotalCount());
+        // Reading merges into the target
+        StatsCodec.readDistribution(in, KeyCodec.STRING, actual);
+        assertEquals(2 * distribution.getTotalCount(), actual.getTotalCount());
+        assertEquals(2 * distribution.getDistribution().get("k0"), (long)actual.getDistribution().get("k0"));
+    }
+
+    public void testTopNTables() throws Exception {
+        final TopNTable<String,Long> table = new TopNTable<String,Long>(20);
+        final ConcurrentTopNTable<String,Long> concurrentTable = new ConcurrentTopNTable<String,Long>(20);
+        final LongTopNTable<String> longTable = new LongTopNTable<String>(20);
+        final DoubleTopNTable<String> doubleTable = new DoubleTopNTable<String>(20);
+        final Random random = new Random(7L);
+        for (int i=0; i<VALUES; i++) {
+            final String key = "k" + random.nextInt(1000);
+            final long value = random.nextInt(100000) - 50000;
+            table.update(key, value);
+            concurrentTable.update(key, value);
+            longTable.update(key, value);
+            doubleTable.update(key, value / 3.0);
+        }
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        final DataOutputStream out = new DataOutputStream(bytes);
+        StatsCodec.writeTopNTable(out, table, KeyCodec.STRING, KeyCodec.LONG);
+        StatsCodec.writeTopNTable(out, concurrentTable, KeyCodec.STRING, KeyCodec.LONG);
+        StatsCodec.writeLongTopNTable(out, longTable, KeyCodec.STRING);
+        StatsCodec.writeDoubleTopNTable(out, doubleTable, KeyCodec.STRING);
+        final DataInputStream in = input(bytes);
+        assertEquals(table.getEntries(),
+            StatsCodec.readTopNTable(in, KeyCodec.STRING, KeyCodec.LONG, new TopNTable<String,Long>(20)).getEntries());
+        assertEquals(table.getEntries(),
+            StatsCodec.readTopNTable(in, KeyCodec.STRING, KeyCodec.LONG, new ConcurrentTopNTable<String,Long>(20)).getEntries());
+        assertEquals(longTable.getEntries(),
+            StatsCodec.readLongTopNTable(in, KeyCodec.STRING, new LongTopNTable<String>(20)).getEntries());
+        assertEquals(doubleTable.getEntries(),
+            StatsCodec.readDoubleTopNTable(in, KeyCodec.STRING, new DoubleTopNTable<String>(20)).getEntries());
+        assertEquals(-1, in.read());
+    }
+
+    public void testMomentStatistics() throws Exception {
+        final MomentStatistics statistics = new MomentStatistics();
+        final Random random = new Random(3L);
+        for (int i=0; i<VALUES; i++)
+            statistics.add(Math.exp(random.nextGaussian()));
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        StatsCodec.writeMomentStatistics(new DataOutputStream(bytes), statistics);
+        final MomentStatistics actual = StatsCodec.readMomentStatistics(input(bytes), new MomentStatistics());
+        assertEquals(statistics.getCount(), actual.getCount());
+        assertEquals(statistics.getMean(), actual.getMean());
+        assertEquals(statistics.getVariance(), actual.getVariance());
+        assertEquals(statistics.getSkewness(), actual.getSkewness());
+        assertEquals(statistics.getKurtosis(), actual.getKurtosis());
+        assertEquals(statistics.getMin(), actual.getMin());
+        assertEquals(statistics.getMax(), actual.getMax());
+    }
+
+    public void testLongHistogram() throws Exception {
+        final LongHistogram histogram = new LongHistogram(3600000000L, 3);
+        final ConcurrentLongHistogram concurrentHistogram = new ConcurrentLongHistogram(3600000000L, 3);
+        final Random random = new Random(5L);
+        for (int i=0; i<VALUES; i++) {
+            final long value = (long)Math.exp(random.nextDouble() * Math.log(3600000000.0));
+            histogram.recordValue(value);
+            concurrentHistogram.recordValue(value);
+        }
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        final DataOutputStream out = new DataOutputStream(bytes);
+        StatsCodec.writeLongHistogram(out, histogram);
+        StatsCodec.writeLongHistogram(out, concurrentHistogram);
+        StatsCodec.writeLongHistogram(out, histogram);
+        final DataInputStream in = input(bytes);
+        final double[] percentiles = {0.0, 1.0, 50.0, 99.0, 99.99, 100.0};
+        for (final LongHistogram actual : new LongHistogram[] {
+                StatsCodec.readLongHistogram(in, new LongHistogram(3600000000L, 3)),
+                StatsCodec.readLongHistogram(in, new ConcurrentLongHistogram(3600000000L, 3))}) {
+            assertEquals(histogram.getTotalCount(), actual.getTotalCount());
+            assertEquals(histogram.getMin(), actual.getMin());
+            assertEquals(histogram.getMax(), actual.getMax());
+            assertTrue(Arrays.equals(histogram.getValuesAtPercentiles(percentiles), actual.getValuesAtPercentiles(percentiles)));
+        }
+        try {
+            StatsCodec.readLongHistogram(in, new LongHistogram(3600000000L, 2));
+            fail("histogram with a different configuration accepted");
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+    }
+
+    public void testQuantileSketch() throws Exception {
+        final QuantileSketch sketch = new QuantileSketch(200);
+        for (int i=0; i<VALUES; i++)
+            sketch.add((i * 7919L) % VALUES);
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        StatsCodec.writeQuantileSketch(new DataOutputStream(bytes), sketch);
+        final QuantileSketch actual = StatsCodec.readQuantileSketch(input(bytes), new QuantileSketch(200));
+        final double[] quantiles = {0.0, 0.1, 0.5, 0.9, 1.0};
+        assertEquals(sketch.getCount(), actual.getCount());
+        assertEquals(sketch.getMin(), actual.getMin());
+        assertEquals(sketch.getMax(), actual.getMax());
+        assertTrue(Arrays.equals(sketch.getQuantiles(quantiles), actual.getQuantiles(quantiles)));
+    }
+
+    public void testHeaders() throws Exception {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        StatsCodec.writeLongStatistics(new DataOutputStream(bytes), new LongStatistics());
+        try {
+            StatsCodec.readDoubleStatistics(input(bytes), new DoubleStatistics());
+            fail("snapshot of another type accepted");
+        } catch (IOException e) {
+            // expected
+        }
+        final byte[] data = bytes.toByteArray();
+        data[1] = 1;
+        try {
+            StatsCodec.readLongStatistics(new DataInputStream(new ByteArrayInputStream(data)), new LongStatistics());
+            fail("snapshot of an unsupported version accepted");
+        } catch (IOException e) {
+            // expected
+        }
+    }
+}
@@ -0,0 +1,135 @@
+package io.github.hhromic.uimr.stats;
+
+import java.util.List;
+import java.util.ArrayList;
+
+import junit.framework.TestCase;
+
+public class StatsCollectorsTest extends TestCase {
+    public static final int VALUES = 200000;
+    public static final int N = 25;
+
+    private final List<Integer> values = new ArrayList<Integer>();
+
+    public StatsCollectorsTest(final String name) {
+        super(name);
+    }
+
+    @Override
+    protected void setUp() throws Exception {
+        for (int i=0; i<VALUES; i++)
+            values.add(i);
+    }
+
+    /** Scrambles a value so the best values are spread over the stream. */
+    private static long scramble(final int value) {
+        return (value * 2654435761L) % 1000003L;
+    }
+
+    private static <K1,K2> void assertSameCounts(final CountingMatrix<K1,K2> expected, final CountingMatrix<K1,K2> actual) {
+        assertEquals(expected.getKeys(), actual.getKeys());
+        for (final K1 k1 : expected.getKeys()) {
+            assertEquals(expected.getTotalCount(k1), actual.getTotalCount(k1));
+            for (final K2 k2 : expected.getKeys(k1))
+                assertEquals(expected.getCount(k1, k2), actual.getCount(k1, k2));
+        }
+    }
+
+    public void testCountingCollectors() throws Exception {
+        final Distribution<Integer> distribution = values.stream()
+            .collect(StatsCollectors.toDistribution(value -> value % 37));
+        assertEquals(VALUES, distribution.getTotalCount());
+        assertEquals(distribution.getDistribution(), values.parallelStream()
+            .collect(StatsCollectors.toDistribution(value -> value % 37)).getDistribution());
+        assertEquals(values.stream().collect(StatsCollectors.toDistribution(value -> value % 5, value -> value)).getDistribution(),
+            values.parallelStream().collect(StatsCollectors.toDistribution(value -> value % 5, value -> value)).getDistribution());
+
+        final CountingMatrix<Integer,Integer> matrix = values.stream()
+            .collect(StatsCollectors.toCountingMatrix(value -> value % 13, value -> value % 7, value -> 1L));
+        assertSameCounts(matrix, values.parallelStream()
+            .collect(StatsCollectors.toCountingMatrix(value -> value % 13, value -> value % 7, value -> 1L)));
+        assertSameCounts(matrix, values.parallelStream().unordered()
+            .collect(StatsCollectors.toConcurrentCountingMatrix(value -> value % 13, value -> value % 7, value -> 1L)));
+    }
+
+    public void testTopNCollectors() throws Exception {
+        // Every key occurs once, so merged partial tables match the sequential table
+        final List<TopNTable.Entry<String,Long>> expected = values.stream()
+            .collect(StatsCollectors.toTopNTable(N, value -> "k" + value, StatsCollectorsTest::scramble)).getEntries();
+        assertEquals(N, expected.size());
+        assertEquals(expected, values.parallelStream()
+            .collect(StatsCollectors.toTopNTable(N, value -> "k" + value, StatsCollectorsTest::scramble)).getEntries());
+        assertEquals(expected, values.parallelStream()
+            .collect(StatsCollectors.toConcurrentTopNTable(N, value -> "k" + value, StatsCollectorsTest::scramble)).getEntries());
+        assertEquals(expected, values.parallelStream().unordered()
+            .collect(StatsCollectors.toConcurrentTopNTable(N, value -> "k" + value, StatsCollectorsTest::scramble)).getEntries());
+        assertEquals(expected, values.parallelStream()
+            .collect(StatsCollectors.toLongTopNTable(N, value -> "k" + value, StatsCollectorsTest::scramble)).getEntries());
+
+        final List<TopNTable.Entry<String,Double>> expectedDouble = values.stream()
+            .collect(StatsCollectors.toDoubleTopNTable(N, value -> "k" + value, value -> scramble(value) / 3.0)).getEntries();
+        assertEquals(expectedDouble, values.parallelStream()
+            .collect(StatsCollectors.toDoubleTopNTable(N, value -> "k" + value, value -> scramble(value) / 3.0)).getEntries());
+    }
+
+    public void testStatisticsCollectors() throws Exception {
+        final LongStatistics longStatistics = values.stream()
+            .collect(StatsCollectors.toLongStatistics(StatsCollectorsTest::scramble));
+        assertEquals(longStatistics.toString(), values.parallelStream()
+            .collect(StatsCollectors.toLongStatistics(StatsCollectorsTest::scramble)).toString());
+        final ConcurrentLongStatistics concurrentLongStatistics = values.parallelStream()
+            .collect(StatsCollectors.toConcurrentLongStatistics(StatsCollectorsTest::scramble));
+        assertEquals(VALUES, concurrentLongStatistics.getCount());
+        assertEquals(longStatistics.toString(), concurrentLongStatistics.snapshot().toString());
+
+        // Floating-point sums are only equal within rounding in a different order
+        final DoubleStatistics doubleStatistics = values.stream()
+            .collect(StatsCollectors.toDoubleStatistics(value -> scramble(value) / 3.0));
+        final DoubleStatistics parallelDoubleStatistics = values.parallelStream()
+            .collect(StatsCollectors.toDoubleStatistics(value -> scramble(value) / 3.0));
+        final ConcurrentDoubleStatistics concurrentDoubleStatistics = values.parallelStream()
+            .collect(StatsCollectors.toConcurrentDoubleStatistics(value -> scramble(value) / 3.0));
+        assertEquals(VALUES, concurrentDoubleStatistics.getCount());
+        for (final Statistics<Double> actual : new Statistics[] {parallelDoubleStatistics, concurrentDoubleStatistics}) {
+            assertEquals(doubleStatistics.getMean(VALUES), actual.getMean(VALUES), 1e-6);
+            assertEquals(doubleStatistics.getVariance(VALUES), actual.getVariance(VALUES), doubleStatistics.getVariance(VALUES) * 1e-9);
+            assertEquals(doubleStatistics.getMin(), actual.getMin());
+            assertEquals(doubleStatistics.getMax(), actual.getMax());
+        }
+
+        final MomentStatistics moments = values.stream()
+            .collect(StatsCollectors.toMomentStatistics(value -> scramble(value) / 3.0));
+        final MomentStatistics parallelMoments = values.parallelStream()
+            .collect(StatsCollectors.toMomentStatistics(value -> scramble(value) / 3.0));
+        assertEquals(moments.getCount(), parallelMoments.getCount());
+        assertEquals(moments.getMean(), parallelMoments.getMean(), 1e-6);
+        assertEquals(moments.getVariance(), parallelMoments.getVariance(), moments.getVariance() * 1e-9);
+        assertEquals(moments.getSkewness(), parallelMoments.getSkewness(), 1e-9);
+        assertEquals(moments.getKurtosis(), parallelMoments.getKurtosis(), 1e-9);
+    }
+
+    public void testDistributionCollectors() throws Exception {
+        final LongHistogram histogram = values.stream()
+            .collect(StatsCollectors.toLongHistogram(10000000L, 3, StatsCollectorsTest::scramble));
+        final double[] percentiles = {1.0, 50.0, 90.0, 99.9, 100.0};
+        for (final LongHistogram actual : new LongHistogram[] {
+                values.parallelStream().collect(StatsCollectors.toLongHistogram(10000000L, 3, StatsCollectorsTest::scramble)),
+                values.parallelStream().collect(StatsCollectors.toConcurrentLongHistogram(10000000L, 3, StatsCollectorsTest::scramble))}) {
+            assertEquals(histogram.getTotalCount(), actual.getTotalCount());
+            for (final double percentile : percentiles)
+                assertEquals(histogram.getValueAtPercentile(percentile), actual.getValueAtPercentile(percentile));
+        }
+
+        // Sketches are randomized, both stay within their rank error of the exact quantiles
+        final QuantileSketch sketch = values.stream()
+            .collect(StatsCollectors.toQuantileSketch(value -> value));
+        final QuantileSketch parallelSketch = values.parallelStream()
+            .collect(StatsCollectors.toQuantileSketch(value -> value));
+        assertEquals(VALUES, sketch.getCount());
+        assertEquals(VALUES, parallelSketch.getCount());
+        for (final double quantile : new double[] {0.01, 0.5, 0.99}) {
+            assertEquals(quantile, sketch.getQuantile(quantile) / VALUES, 0.02);
+            assertEquals(quantile, parallelSketch.getQuantile(quantile) / VALUES, 0.02);
+        }
+    }
+}
@@ -0,0 +1,119 @@
+package io.github.hhromic.uimr.stats;
+
+import java.util.List;
+import java.util.ArrayList;
+import java.util.Random;
+import java.util.TreeSet;
+
+import junit.framework.TestCase;
+
+public class TopNTableTest extends TestCase {
+    public static final int N = 20;
+    public static final int KEYS = 500;
+    public static final int UPDATES = 50000;
+
+    public TopNTableTest(final String name) {
+        super(name);
+    }
+
+    /** Reference top-n table using linear scans. */
+    private static List<TopNTable.Entry<String,Long>> reference(final long seed) {
+        final TreeSet<TopNTable.Entry<String,Long>> entries = new TreeSet<TopNTable.Entry<String,Long>>();
+        final Random random = new Random(seed);
+        for (int i=0; i<UPDATES; i++) {
+            final String key = "k" + random.nextInt(KEYS);
+            final Long value = (long)random.nextInt(1000);
+            TopNTable.Entry<String,Long> oldEntry = null;
+            for (final TopNTable.Entry<String,Long> entry : entries)
+                if (entry.getKey().equals(key))
+                    oldEntry = entry;
+            if (oldEntry != null) {
+                if (oldEntry.getValue().equals(value))
+                    continue;
+                entries.remove(oldEntry);
+            }
+            entries.add(new TopNTable.Entry<String,Long>(key, value));
+            if (entries.size() > N)
+                entries.remove(entries.last());
+        }
+        return new ArrayList<TopNTable.Entry<String,Long>>(entries);
+    }
+
+    private static TopNTable<String,Long> fill(final TopNTable<String,Long> table, final long seed) {
+        final Random random = new Random(seed);
+        for (int i=0; i<UPDATES; i++)
+            table.update("k" + random.nextInt(KEYS), (long)random.nextInt(1000));
+        return table;
+    }
+
+    public void testTopNTable() throws Exception {
+        for (long seed=0; seed<5; seed++) {
+            final TopNTable<String,Long> table = fill(new TopNTable<String,Long>(N), seed);
+            final List<TopNTable.Entry<String,Long>> expected = reference(seed);
+            assertEquals(expected, table.getEntries());
+            for (final TopNTable.Entry<String,Long> entry : expected)
+                assertEquals(entry, table.getEntry(entry.getKey()));
+            assertEquals(expected, fill(new ConcurrentTopNTable<String,Long>(N), seed).getEntries());
+        }
+    }
+
+    public void testConcurrentTopNTable() throws Exception {
+        final TopNTable<String,Long> expected = new TopNTable<String,Long>(N);
+        final ConcurrentTopNTable<String,Long> actual = new ConcurrentTopNTable<String,Long>(N);
+        final Thread[] threads = new Thread[4];
+        for (int t=0; t<threads.length; t++) {
+            final int thread = t;
+            for (int i=0; i<UPDATES; i++)
+                expected.update("t" + thread + "k" + i, (long)((i * 7919L + thread) % 100003));
+            threads[t] = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    for (int i=0; i<UPDATES; i++)
+                        actual.update("t" + thread + "k" + i, (long)((i * 7919L + thread) % 100003));
+                }
+            });
+            threads[t].start();
+        }
+        // Readers racing with the writers always see a sorted table within its cap
+        boolean consistent = true;
+        while (threads[0].isAlive()) {
+            final List<TopNTable.Entry<String,Long>> entries = actual.getEntries();
+            if (entries.size() > N || !entries.equals(new ArrayList<TopNTable.Entry<String,Long>>(new TreeSet<TopNTable.Entry<String,Long>>(entries))))
+                consistent = false;
+        }
+        for (final Thread thread : threads)
+            thread.join();
+        assertTrue(consistent);
+        assertEquals(expected.getEntries(), actual.getEntries());
+        for (final TopNTable.Entry<String,Long> entry : expected.getEntries())
+            assertEquals(entry, actual.getEntry(entry.getKey()));
+        // Updates to keys in the table, including lowering them out of the table
+        for (final TopNTable.Entry<String,Long> entry : expected.getEntries()) {
+            expected.update(entry.getKey(), entry.getValue() / 2);
+            actual.update(entry.getKey(), entry.getValue() / 2);
+            assertEquals(expected.getEntries(), actual.getEntries());
+        }
+    }
+
+    public void testPrimitiveTopNTables() throws Exception {
+        for (long seed=0; seed<5; seed++) {
+            final List<TopNTable.Entry<String,Long>> expected = reference(seed);
+            final LongTopNTable<String> longTable = new LongTopNTable<String>(N);
+            final DoubleTopNTable<String> doubleTable = new DoubleTopNTable<String>(N);
+            final Random random = new Random(seed);
+            for (int i=0; i<UPDATES; i++) {
+                final String key = "k" + random.nextInt(KEYS);
+                final long value = random.nextInt(1000);
+                longTable.update(key, value);
+                doubleTable.update(key, value);
+            }
+            assertEquals(expected, longTable.getEntries());
+            final List<TopNTable.Entry<String,Long>> doubleEntries = new ArrayList<TopNTable.Entry<String,Long>>();
+            for (final TopNTable.Entry<String,Double> entry : doubleTable.getEntries())
+                doubleEntries.add(new TopNTable.Entry<String,Long>(entry.getKey(), entry.getValue().longValue()));
+            assertEquals(expected, doubleEntries);
+            for (final TopNTable.Entry<String,Long> entry : expected)
+                assertEquals(entry, longTable.getEntry(entry.getKey()));
+        }
+    }
+}